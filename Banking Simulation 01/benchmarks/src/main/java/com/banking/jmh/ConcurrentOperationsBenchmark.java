@@ -0,0 +1,97 @@
+package com.banking.jmh;
+
+import com.banking.BankingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-threaded operations on one shared system: deposits and transfers from
+ * four threads, deposits into a single hot account, and a mixed group where a
+ * reader ranks spenders while writers transfer. Compares the lock-based
+ * ConcurrentBankingSystem with the single-writer RingBufferBankingSystem.
+ *
+ * Run with -t to change the thread count of the non-grouped benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConcurrentOperationsBenchmark {
+
+    @Param({Implementations.CONCURRENT, Implementations.RING})
+    String implementation;
+
+    @Param({"1000", "100000"})
+    int accounts;
+
+    private String[] ids;
+    private BankingSystem bank;
+    private volatile int timestamp;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if (ids == null || ids.length != accounts) {
+            ids = Implementations.accountIds(accounts);
+        }
+        bank = Implementations.create(implementation);
+        Implementations.open(bank, ids, Integer.MAX_VALUE / 2);
+        timestamp = 1;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        Implementations.close(bank);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Integer> deposit(XorShift random) {
+        return bank.deposit(ids[random.next(accounts)], timestamp, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Integer> depositHotAccount() {
+        return bank.deposit(ids[0], timestamp, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Integer> transfer(XorShift random) {
+        return bank.transfer(ids[random.next(accounts)], ids[random.next(accounts)], timestamp, 1);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Optional<Integer> mixedTransfer(XorShift random) {
+        return bank.transfer(ids[random.next(accounts)], ids[random.next(accounts)], timestamp, 1);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public List<String> mixedTopSpenders() {
+        return bank.topSpenders(timestamp, 10);
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.jmh;
+
+import com.banking.BankingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * createAccount into an empty system, with IDs built ahead of time.
+ * A fresh system replaces the current one whenever the IDs run out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CreateAccountBenchmark {
+
+    private static final int IDS = 4_000_000;
+
+    @Param({Implementations.IMPL, Implementations.CONCURRENT})
+    String implementation;
+
+    private String[] ids;
+    private BankingSystem bank;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildIds() {
+        ids = Implementations.accountIds(IDS);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        bank = Implementations.create(implementation);
+        next = 0;
+    }
+
+    @Benchmark
+    public boolean createAccount() {
+        if (next == IDS) {
+            reset();
+        }
+        return bank.createAccount(ids[next++], next);
+    }
+}
@@ -0,0 +1,62 @@
+package com.banking.jmh;
+
+import com.banking.BankingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded deposit and transfer between random accounts, at several
+ * account counts. Every operation is kept in the account history, so the
+ * system is rebuilt for each iteration to keep memory bounded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DepositTransferBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int accounts;
+
+    @Param({Implementations.IMPL, Implementations.CONCURRENT})
+    String implementation;
+
+    private String[] ids;
+    private BankingSystem bank;
+    private int timestamp;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if (ids == null || ids.length != accounts) {
+            ids = Implementations.accountIds(accounts);
+        }
+        bank = Implementations.create(implementation);
+        Implementations.open(bank, ids, Integer.MAX_VALUE / 2);
+        timestamp = 1;
+    }
+
+    @Benchmark
+    public Optional<Integer> deposit(XorShift random) {
+        return bank.deposit(ids[random.next(accounts)], timestamp++, 1);
+    }
+
+    @Benchmark
+    public Optional<Integer> transfer(XorShift random) {
+        return bank.transfer(ids[random.next(accounts)], ids[random.next(accounts)], timestamp++, 1);
+    }
+}
@@ -0,0 +1,71 @@
+package com.banking.jmh;
+
+import com.banking.BankingSystem;
+import com.banking.BankingSystemImpl;
+import com.banking.ConcurrentBankingSystem;
+import com.banking.OffHeapBankingSystem;
+import com.banking.RingBufferBankingSystem;
+import com.banking.SchedulerBackend;
+
+/**
+ * Creates the BankingSystem implementation named by a benchmark parameter.
+ */
+final class Implementations {
+
+    static final String IMPL = "impl";
+    static final String CONCURRENT = "concurrent";
+    static final String RING = "ring";
+    static final String OFF_HEAP = "offheap";
+
+    private Implementations() {
+    }
+
+    static BankingSystem create(String name) {
+        return create(name, SchedulerBackend.HEAP);
+    }
+
+    static BankingSystem create(String name, SchedulerBackend backend) {
+        switch (name) {
+            case IMPL:
+                return new BankingSystemImpl(backend);
+            case CONCURRENT:
+                return new ConcurrentBankingSystem(backend);
+            case RING:
+                return new RingBufferBankingSystem(RingBufferBankingSystem.DEFAULT_CAPACITY, backend);
+            case OFF_HEAP:
+                return new OffHeapBankingSystem(backend);
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + name);
+        }
+    }
+
+    /**
+     * Releases the implementation's resources, such as the ring's writer thread.
+     */
+    static void close(BankingSystem bank) throws Exception {
+        if (bank instanceof AutoCloseable) {
+            ((AutoCloseable) bank).close();
+        }
+    }
+
+    /**
+     * Returns the IDs "acc0" .. "acc{count - 1}".
+     */
+    static String[] accountIds(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = "acc" + i;
+        }
+        return ids;
+    }
+
+    /**
+     * Creates the accounts and gives each the same opening balance.
+     */
+    static void open(BankingSystem bank, String[] ids, int balance) {
+        for (String id : ids) {
+            bank.createAccount(id, 0);
+            bank.deposit(id, 0, balance);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.banking.jmh;
+
+import com.banking.BankingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * mergeAccounts of account pairs that each carry some transaction history.
+ * A merge can only happen once per pair, so every iteration is a single shot
+ * over a batch of freshly built pairs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = MergeAccountsBenchmark.PAIRS)
+@Measurement(iterations = 10, batchSize = MergeAccountsBenchmark.PAIRS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MergeAccountsBenchmark {
+
+    static final int PAIRS = 10_000;
+
+    @Param({"10", "100"})
+    int transfersPerAccount;
+
+    @Param({Implementations.IMPL, Implementations.CONCURRENT})
+    String implementation;
+
+    private String[] ids;
+    private BankingSystem bank;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if (ids == null) {
+            ids = Implementations.accountIds(2 * PAIRS);
+        }
+        bank = Implementations.create(implementation);
+        Implementations.open(bank, ids, Integer.MAX_VALUE / 2);
+        Random random = new Random(42);
+        int timestamp = 1;
+        for (int round = 0; round < transfersPerAccount; round++) {
+            for (String id : ids) {
+                bank.transfer(id, ids[random.nextInt(ids.length)], timestamp++, 1);
+            }
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public void mergeAccounts() {
+        bank.mergeAccounts(ids[next], ids[next + PAIRS]);
+        next++;
+    }
+}
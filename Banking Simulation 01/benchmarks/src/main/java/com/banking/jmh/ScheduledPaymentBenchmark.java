@@ -0,0 +1,68 @@
+package com.banking.jmh;
+
+import com.banking.BankingSystem;
+import com.banking.SchedulerBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling a round of payments with spread-out due timestamps, then
+ * processing them all, per scheduler backend. Scores are per payment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScheduledPaymentBenchmark {
+
+    private static final int PAYMENTS = 10_000;
+
+    @Param({"1000", "100000"})
+    int accounts;
+
+    @Param({"HEAP", "TIMING_WHEEL"})
+    SchedulerBackend backend;
+
+    @Param({Implementations.IMPL, Implementations.CONCURRENT})
+    String implementation;
+
+    private String[] ids;
+    private BankingSystem bank;
+    private int round;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if (ids == null || ids.length != accounts) {
+            ids = Implementations.accountIds(accounts);
+        }
+        bank = Implementations.create(implementation, backend);
+        Implementations.open(bank, ids, Integer.MAX_VALUE / 2);
+        round = 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYMENTS)
+    public void scheduleAndProcess(XorShift random) {
+        int base = ++round * PAYMENTS;
+        for (int i = 0; i < PAYMENTS; i++) {
+            bank.schedulePayment(ids[random.next(accounts)], ids[random.next(accounts)],
+                    base + random.next(PAYMENTS), 1, 1.0);
+        }
+        bank.processScheduledPayments(base + PAYMENTS);
+    }
+}
@@ -0,0 +1,69 @@
+package com.banking.jmh;
+
+import com.banking.BankingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * topSpenders after a fixed number of random transfers, at several account
+ * and transaction counts. "latest" asks for the current ranking, "historical"
+ * for the ranking halfway through the transfers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TopSpendersBenchmark {
+
+    @Param({"1000", "100000"})
+    int accounts;
+
+    @Param({"10000", "1000000"})
+    int transactions;
+
+    @Param({Implementations.IMPL, Implementations.CONCURRENT})
+    String implementation;
+
+    @Param({"10"})
+    int n;
+
+    private BankingSystem bank;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] ids = Implementations.accountIds(accounts);
+        bank = Implementations.create(implementation);
+        Implementations.open(bank, ids, Integer.MAX_VALUE / 2);
+        Random random = new Random(42);
+        for (int timestamp = 1; timestamp <= transactions; timestamp++) {
+            bank.transfer(ids[random.nextInt(accounts)], ids[random.nextInt(accounts)], timestamp,
+                    1 + random.nextInt(1000));
+        }
+    }
+
+    @Benchmark
+    public List<String> latest() {
+        return bank.topSpenders(transactions + 1, n);
+    }
+
+    @Benchmark
+    public List<String> historical() {
+        return bank.topSpenders(transactions / 2, n);
+    }
+}
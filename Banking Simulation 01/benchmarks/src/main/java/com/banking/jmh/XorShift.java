@@ -0,0 +1,21 @@
+package com.banking.jmh;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-thread pseudo-random account picker, cheap enough not to show up in
+ * the measured operation.
+ */
+@State(Scope.Thread)
+public class XorShift {
+
+    private long seed = System.nanoTime() | 1;
+
+    int next(int bound) {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) ((seed >>> 33) % bound);
+    }
+}
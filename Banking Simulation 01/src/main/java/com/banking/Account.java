@@ -0,0 +1,65 @@
+package com.banking;
+
+/**
+ * An account held as an object, as ranked by SpendRanking. An account merged
+ * away becomes an alias of the survivor; see resolve().
+ */
+class Account {
+    int timestamp;
+    String accountId;
+    int balance;
+    long outgoing;
+    SpendRanking.Entry rankEntry;
+    OutgoingHistory outgoingHistory;
+    Account mergedInto;
+    Account nextMember;
+    Account lastMember;
+
+    public Account(int timestamp, String accountId, int balance) {
+        this.timestamp = timestamp;
+        this.accountId = accountId;
+        this.balance = balance;
+        outgoingHistory = new OutgoingHistory();
+        lastMember = this;
+    }
+
+    /**
+     * Follows merges to the account that now owns this account's funds and
+     * history, pointing the accounts on the way straight at it.
+     */
+    Account resolve() {
+        Account root = this;
+        while (root.mergedInto != null) {
+            root = root.mergedInto;
+        }
+        Account account = this;
+        while (account.mergedInto != null && account.mergedInto != root) {
+            Account parent = account.mergedInto;
+            account.mergedInto = root;
+            account = parent;
+        }
+        return root;
+    }
+
+    /**
+     * Makes a merged account, with everything merged into it before, an alias
+     * of this one. Histories are not copied; see spentAt().
+     */
+    void absorb(Account merged) {
+        merged.mergedInto = this;
+        lastMember.nextMember = merged;
+        lastMember = merged.lastMember;
+    }
+
+    /**
+     * Returns the total this account and everything merged into it had spent
+     * at the given timestamp.
+     */
+    long spentAt(int timestamp) {
+        long total = 0;
+        for (Account member = this; member != null; member = member.nextMember) {
+            total += member.outgoingHistory.spentAt(timestamp);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,121 @@
+package com.banking;
+
+/**
+ * Account ID Index
+ *
+ * Open-addressing map from account ID to dense int handle. Keys and handles
+ * sit in two flat arrays probed linearly, so a lookup is one String hash (cached
+ * by String itself) and a few array reads, with no boxing and no entry objects.
+ * Removal shifts the following probe run back instead of leaving tombstones.
+ */
+class AccountIndex {
+
+    static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] keys;
+    private int[] values;
+    private int size;
+
+    AccountIndex() {
+        this(0);
+    }
+
+    /**
+     * Creates an index that holds the given number of keys without resizing.
+     */
+    AccountIndex(int expectedSize) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity *= 2;
+        }
+        keys = new String[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * Returns the handle stored for the key, or NOT_FOUND.
+     */
+    int get(String key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot].equals(key)) {
+                return values[slot];
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Stores the handle unless the key is already present.
+     * Returns true if the key was added.
+     */
+    boolean putIfAbsent(String key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the key. Returns its handle, or NOT_FOUND if it was absent.
+     */
+    int remove(String key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == null) {
+            return NOT_FOUND;
+        }
+        int removed = values[slot];
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            // Move the entry back if the hole lies on its probe path.
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new String[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                putIfAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(String key, int mask) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
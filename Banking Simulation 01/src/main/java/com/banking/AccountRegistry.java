@@ -0,0 +1,287 @@
+package com.banking;
+
+import java.util.Arrays;
+
+/**
+ * Account Registry
+ *
+ * Maps each account ID once to a dense int handle and keeps per-account state
+ * in growable primitive arrays indexed by that handle: creation timestamp,
+ * balance, outgoing total, outgoing history (allocated on the first outgoing
+ * transaction) and the TransactionJournal positions of the entries involving
+ * the account, ordered by timestamp and then position. Handles are never
+ * reused; an account merged away keeps its handle, is removed from the ID
+ * index and points at the account it was merged into, so a later account
+ * with the same ID gets a fresh handle.
+ *
+ * Merging is union-find aliasing rather than copying: mergedInto is the parent
+ * link (compressed on lookup), and every open account heads a chain of the
+ * handles merged into it. A merged account keeps its own entry list and
+ * history; the survivor's view is the union over its chain, so a merge costs
+ * O(1) however long the histories are.
+ */
+class AccountRegistry {
+
+    static final int NO_ACCOUNT = AccountIndex.NOT_FOUND;
+    // mergedInto of an account whose state moved to another registry.
+    static final int MOVED = -2;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final AccountIndex index;
+
+    String[] ids;
+    int[] created;
+    int[] balance;
+    long[] outgoing;
+    int[] mergedInto;
+    int[] nextMember;
+    int[] lastMember;
+    OutgoingHistory[] histories;
+    int[][] entries;
+    int[] entryCounts;
+    int count;
+
+    AccountRegistry() {
+        this(0);
+    }
+
+    /**
+     * Creates a registry sized to hold the given number of accounts without growing.
+     */
+    AccountRegistry(int expectedAccounts) {
+        int capacity = Math.max(INITIAL_CAPACITY, expectedAccounts);
+        index = new AccountIndex(expectedAccounts);
+        ids = new String[capacity];
+        created = new int[capacity];
+        balance = new int[capacity];
+        outgoing = new long[capacity];
+        mergedInto = new int[capacity];
+        nextMember = new int[capacity];
+        lastMember = new int[capacity];
+        histories = new OutgoingHistory[capacity];
+        entries = new int[capacity][];
+        entryCounts = new int[capacity];
+    }
+
+    /**
+     * Registers a new account. Returns its handle, or NO_ACCOUNT if the ID is taken.
+     */
+    int create(String accountId, int timestamp) {
+        int handle = count;
+        if (!index.putIfAbsent(accountId, handle)) {
+            return NO_ACCOUNT;
+        }
+        if (handle == ids.length) {
+            grow();
+        }
+        ids[handle] = accountId;
+        created[handle] = timestamp;
+        mergedInto[handle] = NO_ACCOUNT;
+        nextMember[handle] = NO_ACCOUNT;
+        lastMember[handle] = handle;
+        count++;
+        return handle;
+    }
+
+    /**
+     * Adopts the first count handles after their ids, created, balance and
+     * mergedInto columns were filled in directly, indexes the open ones and
+     * relinks the merge chains.
+     */
+    void restored(int count) {
+        this.count = count;
+        for (int handle = 0; handle < count; handle++) {
+            nextMember[handle] = NO_ACCOUNT;
+            lastMember[handle] = handle;
+            if (mergedInto[handle] == NO_ACCOUNT) {
+                index.putIfAbsent(ids[handle], handle);
+            }
+        }
+        for (int handle = 0; handle < count; handle++) {
+            int root = resolve(handle);
+            if (root != handle) {
+                link(root, handle);
+            }
+        }
+    }
+
+    /**
+     * Returns the handle of the open account with the given ID, or NO_ACCOUNT.
+     */
+    int find(String accountId) {
+        return index.get(accountId);
+    }
+
+    /**
+     * Returns true if the handle names an account that has not been merged away.
+     */
+    boolean isOpen(int handle) {
+        return handle >= 0 && handle < count && mergedInto[handle] == NO_ACCOUNT;
+    }
+
+    /**
+     * Closes a merged account and makes it, with everything merged into it
+     * before, an alias of the survivor.
+     */
+    void close(int handle, int survivor) {
+        index.remove(ids[handle]);
+        mergedInto[handle] = survivor;
+        nextMember[lastMember[survivor]] = handle;
+        lastMember[survivor] = lastMember[handle];
+    }
+
+    /**
+     * Closes an account whose funds and history were handed to an account
+     * outside this registry. It resolves to itself and stays closed.
+     */
+    void retire(int handle) {
+        index.remove(ids[handle]);
+        mergedInto[handle] = MOVED;
+    }
+
+    private void link(int root, int handle) {
+        nextMember[lastMember[root]] = handle;
+        lastMember[root] = handle;
+    }
+
+    /**
+     * Follows merges to the open account that now owns this handle's funds and
+     * history, pointing the handles on the way straight at it.
+     */
+    int resolve(int handle) {
+        int root = handle;
+        while (mergedInto[root] >= 0) {
+            root = mergedInto[root];
+        }
+        while (mergedInto[handle] >= 0 && mergedInto[handle] != root) {
+            int parent = mergedInto[handle];
+            mergedInto[handle] = root;
+            handle = parent;
+        }
+        return root;
+    }
+
+    /**
+     * Returns the account's outgoing history, creating it on first use.
+     */
+    OutgoingHistory history(int handle) {
+        OutgoingHistory history = histories[handle];
+        if (history == null) {
+            history = new OutgoingHistory();
+            histories[handle] = history;
+        }
+        return history;
+    }
+
+    /**
+     * Records that the journal entry at the given position involves the account.
+     * Positions arrive in increasing order and are appended in O(1) while
+     * their timestamps do; an entry back-dated behind the account's latest one,
+     * such as a payment settled after its due time, is inserted in place so
+     * the list stays in timestamp order.
+     */
+    void addEntry(int handle, int position, TransactionJournal journal) {
+        int[] list = entries[handle];
+        int size = entryCounts[handle];
+        if (list == null) {
+            list = new int[4];
+            entries[handle] = list;
+        } else if (size == list.length) {
+            list = Arrays.copyOf(list, size * 2);
+            entries[handle] = list;
+        }
+        int[] timestamps = journal.timestamps;
+        int timestamp = timestamps[position];
+        int insertAt = size;
+        if (size > 0 && timestamps[list[size - 1]] > timestamp) {
+            int low = 0;
+            int high = size - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[list[mid]] > timestamp) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            insertAt = low;
+            System.arraycopy(list, insertAt, list, insertAt + 1, size - insertAt);
+        }
+        list[insertAt] = position;
+        entryCounts[handle] = size + 1;
+    }
+
+    /**
+     * Returns the total the account and everything merged into it had spent
+     * at the given timestamp.
+     */
+    long spentAt(int handle, int timestamp) {
+        long total = 0;
+        for (int member = handle; member != NO_ACCOUNT; member = nextMember[member]) {
+            if (histories[member] != null) {
+                total += histories[member].spentAt(timestamp);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns a copy of the combined outgoing history of the account and
+     * everything merged into it.
+     */
+    OutgoingHistory combinedHistory(int handle) {
+        OutgoingHistory combined = new OutgoingHistory();
+        for (int member = handle; member != NO_ACCOUNT; member = nextMember[member]) {
+            if (histories[member] != null) {
+                combined.merge(histories[member]);
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * Returns the journal positions of the entries involving the account or
+     * anything merged into it, in ascending order. A transfer between two
+     * accounts that were later merged appears twice, once for each side.
+     */
+    int[] entriesOf(int handle) {
+        int total = 0;
+        for (int member = handle; member != NO_ACCOUNT; member = nextMember[member]) {
+            total += entryCounts[member];
+        }
+        int[] result = new int[total];
+        int size = 0;
+        for (int member = handle; member != NO_ACCOUNT; member = nextMember[member]) {
+            if (entryCounts[member] > 0) {
+                System.arraycopy(entries[member], 0, result, size, entryCounts[member]);
+                size += entryCounts[member];
+            }
+        }
+        // Member lists are in timestamp order, which back-dated entries and
+        // merges both take out of position order.
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the number of open accounts.
+     */
+    int openCount() {
+        return index.size();
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        created = Arrays.copyOf(created, capacity);
+        balance = Arrays.copyOf(balance, capacity);
+        outgoing = Arrays.copyOf(outgoing, capacity);
+        mergedInto = Arrays.copyOf(mergedInto, capacity);
+        nextMember = Arrays.copyOf(nextMember, capacity);
+        lastMember = Arrays.copyOf(lastMember, capacity);
+        histories = Arrays.copyOf(histories, capacity);
+        entries = Arrays.copyOf(entries, capacity);
+        entryCounts = Arrays.copyOf(entryCounts, capacity);
+    }
+}
@@ -0,0 +1,403 @@
+package com.banking;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Banking Client
+ *
+ * A BankingSystem backed by a BankingServer over one TCP connection. Every
+ * operation also has an asynchronous form that returns as soon as the
+ * request is written, so one connection can have many requests in flight;
+ * the blocking methods are the asynchronous ones followed by a wait.
+ *
+ * - Requests from any number of threads share the connection. They are
+ *   queued to a writer thread that flushes only when the queue runs dry, so
+ *   concurrent and pipelined requests leave in few writes.
+ * - A reader thread matches responses to requests by ID and completes their
+ *   futures. Dependent actions attached without an executor run on that
+ *   thread and must not block.
+ * - An error inside the server fails only its request, with an
+ *   IllegalStateException. A broken connection fails every pending and later
+ *   request with an UncheckedIOException.
+ */
+public final class BankingClient implements BankingSystem, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @FunctionalInterface
+    private interface Arguments {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final class Pending {
+        final byte opcode;
+        final CompletableFuture<Object> future;
+
+        Pending(byte opcode) {
+            this.opcode = opcode;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ConcurrentHashMap<Long, Pending> pending;
+    private final ConcurrentLinkedQueue<byte[]> outbound;
+    private final AtomicLong nextRequestId;
+    private final Thread reader;
+    private final Thread writer;
+    private volatile boolean writerParked;
+    private volatile IOException failure;
+
+    private BankingClient(Socket socket) throws IOException {
+        this.socket = socket;
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+        pending = new ConcurrentHashMap<>();
+        outbound = new ConcurrentLinkedQueue<>();
+        nextRequestId = new AtomicLong();
+        reader = new Thread(this::readLoop, "banking-client-reader");
+        reader.setDaemon(true);
+        writer = new Thread(this::writeLoop, "banking-client-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Connects to a BankingServer.
+     */
+    public static BankingClient connect(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        BankingClient client = new BankingClient(socket);
+        client.reader.start();
+        client.writer.start();
+        return client;
+    }
+
+    /**
+     * Returns the number of requests sent and not yet answered.
+     */
+    public int inFlight() {
+        return pending.size();
+    }
+
+    // ========== Asynchronous Operations ==========
+
+    public CompletableFuture<Boolean> createAccountAsync(String accountId, int timestamp) {
+        return send(BankingProtocol.CREATE_ACCOUNT, out -> {
+            out.writeUTF(accountId);
+            out.writeInt(timestamp);
+        });
+    }
+
+    /**
+     * @return A future of the new balance or a negative OperationStatus code
+     */
+    public CompletableFuture<Integer> tryDepositAsync(String accountId, int timestamp, int amount) {
+        return send(BankingProtocol.DEPOSIT, out -> {
+            out.writeUTF(accountId);
+            out.writeInt(timestamp);
+            out.writeInt(amount);
+        });
+    }
+
+    /**
+     * @return A future of the source's new balance or a negative OperationStatus code
+     */
+    public CompletableFuture<Integer> tryTransferAsync(String fromId, String toId, int timestamp, int amount) {
+        return send(BankingProtocol.TRANSFER, out -> {
+            out.writeUTF(fromId);
+            out.writeUTF(toId);
+            out.writeInt(timestamp);
+            out.writeInt(amount);
+        });
+    }
+
+    public CompletableFuture<List<String>> topSpendersAsync(int timestamp, int n) {
+        return send(BankingProtocol.TOP_SPENDERS, out -> {
+            out.writeInt(timestamp);
+            out.writeInt(n);
+        });
+    }
+
+    public CompletableFuture<String> schedulePaymentAsync(String accountId, String targetAccId, int timestamp,
+                                                          int amount, double cashbackPercentage) {
+        return send(BankingProtocol.SCHEDULE_PAYMENT, out -> {
+            out.writeUTF(accountId);
+            out.writeUTF(targetAccId);
+            out.writeInt(timestamp);
+            out.writeInt(amount);
+            out.writeDouble(cashbackPercentage);
+        });
+    }
+
+    public CompletableFuture<String> getPaymentStatusAsync(String accountId, int timestamp, String paymentId) {
+        return send(BankingProtocol.GET_PAYMENT_STATUS, out -> {
+            out.writeUTF(accountId);
+            out.writeInt(timestamp);
+            BankingProtocol.writeNullableString(out, paymentId);
+        });
+    }
+
+    public CompletableFuture<Void> processScheduledPaymentsAsync(int currentTimestamp) {
+        return send(BankingProtocol.PROCESS_SCHEDULED_PAYMENTS, out -> out.writeInt(currentTimestamp));
+    }
+
+    public CompletableFuture<Void> mergeAccountsAsync(String accountId1, String accountId2) {
+        return send(BankingProtocol.MERGE_ACCOUNTS, out -> {
+            out.writeUTF(accountId1);
+            out.writeUTF(accountId2);
+        });
+    }
+
+    public CompletableFuture<int[]> depositBatchAsync(DepositBatch batch) {
+        return send(BankingProtocol.DEPOSIT_BATCH, out -> {
+            BankingProtocol.writeSize(out, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                out.writeUTF(batch.accountId(i));
+                out.writeInt(batch.timestamp(i));
+                out.writeInt(batch.amount(i));
+            }
+        });
+    }
+
+    public CompletableFuture<int[]> transferBatchAsync(TransferBatch batch) {
+        return send(BankingProtocol.TRANSFER_BATCH, out -> {
+            BankingProtocol.writeSize(out, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                out.writeUTF(batch.fromId(i));
+                out.writeUTF(batch.toId(i));
+                out.writeInt(batch.timestamp(i));
+                out.writeInt(batch.amount(i));
+            }
+        });
+    }
+
+    // ========== BankingSystem ==========
+
+    @Override
+    public boolean createAccount(String accountId, int timestamp) {
+        return await(createAccountAsync(accountId, timestamp));
+    }
+
+    @Override
+    public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryDeposit(accountId, timestamp, amount));
+    }
+
+    @Override
+    public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryTransfer(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public int tryDeposit(String accountId, int timestamp, int amount) {
+        return await(tryDepositAsync(accountId, timestamp, amount));
+    }
+
+    @Override
+    public int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        return await(tryTransferAsync(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public List<String> topSpenders(int timestamp, int n) {
+        return await(topSpendersAsync(timestamp, n));
+    }
+
+    @Override
+    public String schedulePayment(String accountId, String targetAccId, int timestamp,
+                                  int amount, double cashbackPercentage) {
+        return await(schedulePaymentAsync(accountId, targetAccId, timestamp, amount, cashbackPercentage));
+    }
+
+    @Override
+    public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
+        return await(getPaymentStatusAsync(accountId, timestamp, paymentId));
+    }
+
+    @Override
+    public void processScheduledPayments(int currentTimestamp) {
+        await(processScheduledPaymentsAsync(currentTimestamp));
+    }
+
+    @Override
+    public void mergeAccounts(String accountId1, String accountId2) {
+        await(mergeAccountsAsync(accountId1, accountId2));
+    }
+
+    @Override
+    public int[] depositBatch(DepositBatch batch) {
+        return await(depositBatchAsync(batch));
+    }
+
+    @Override
+    public int[] transferBatch(TransferBatch batch) {
+        return await(transferBatchAsync(batch));
+    }
+
+    /**
+     * Closes the connection; requests still in flight fail.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        try {
+            reader.join();
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== Connection ==========
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> send(byte opcode, Arguments arguments) {
+        long requestId = nextRequestId.getAndIncrement();
+        // Encoded on the caller's thread, so an invalid argument (a null ID)
+        // is thrown to the caller without reaching the connection.
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(64);
+        try {
+            DataOutputStream frameOut = new DataOutputStream(frame);
+            frameOut.writeLong(requestId);
+            frameOut.writeByte(opcode);
+            arguments.write(frameOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Pending request = new Pending(opcode);
+        pending.put(requestId, request);
+        IOException broken = failure;
+        if (broken != null) {
+            fail(requestId, broken);
+        } else {
+            outbound.add(frame.toByteArray());
+            if (writerParked) {
+                LockSupport.unpark(writer);
+            }
+        }
+        return (CompletableFuture<T>) (CompletableFuture<?>) request.future;
+    }
+
+    /**
+     * Writes queued requests and flushes whenever the queue runs dry, so
+     * requests sent while a write is in progress leave together in the next.
+     */
+    private void writeLoop() {
+        try {
+            while (failure == null) {
+                byte[] frame = outbound.poll();
+                if (frame != null) {
+                    out.write(frame);
+                    continue;
+                }
+                out.flush();
+                writerParked = true;
+                if (outbound.isEmpty() && failure == null) {
+                    LockSupport.park(this);
+                }
+                writerParked = false;
+            }
+        } catch (IOException e) {
+            failAll(e);
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (true) {
+                long requestId = in.readLong();
+                byte status = in.readByte();
+                Pending request = pending.remove(requestId);
+                if (request == null) {
+                    throw new IOException("Response to unknown request " + requestId);
+                }
+                if (status == BankingProtocol.ERROR) {
+                    request.future.completeExceptionally(new IllegalStateException("Server error: " + in.readUTF()));
+                } else {
+                    request.future.complete(readResult(request.opcode));
+                }
+            }
+        } catch (IOException e) {
+            failAll(e);
+        }
+    }
+
+    private Object readResult(byte opcode) throws IOException {
+        switch (opcode) {
+            case BankingProtocol.CREATE_ACCOUNT:
+                return in.readBoolean();
+            case BankingProtocol.DEPOSIT:
+            case BankingProtocol.TRANSFER:
+                return in.readInt();
+            case BankingProtocol.TOP_SPENDERS:
+                return BankingProtocol.readStrings(in);
+            case BankingProtocol.SCHEDULE_PAYMENT:
+            case BankingProtocol.GET_PAYMENT_STATUS:
+                return BankingProtocol.readNullableString(in);
+            case BankingProtocol.PROCESS_SCHEDULED_PAYMENTS:
+            case BankingProtocol.MERGE_ACCOUNTS:
+                return null;
+            case BankingProtocol.DEPOSIT_BATCH:
+            case BankingProtocol.TRANSFER_BATCH:
+                return BankingProtocol.readInts(in);
+            default:
+                throw new IOException("Unknown opcode " + opcode);
+        }
+    }
+
+    /**
+     * Marks the connection broken and fails every pending request. A request
+     * registered concurrently either sees the failure or is failed here.
+     */
+    private void failAll(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Already broken.
+        }
+        LockSupport.unpark(writer);
+        for (Long requestId : pending.keySet()) {
+            fail(requestId, failure);
+        }
+    }
+
+    private void fail(long requestId, IOException e) {
+        Pending request = pending.remove(requestId);
+        if (request != null) {
+            request.future.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.banking;
+
+/**
+ * The BankingSystem operations tracked by InstrumentedBankingSystem.
+ * Batch calls are counted under DEPOSIT and TRANSFER, once per entry.
+ */
+public enum BankingOperation {
+    CREATE_ACCOUNT,
+    DEPOSIT,
+    TRANSFER,
+    TOP_SPENDERS,
+    SCHEDULE_PAYMENT,
+    GET_PAYMENT_STATUS,
+    PROCESS_SCHEDULED_PAYMENTS,
+    MERGE_ACCOUNTS
+}
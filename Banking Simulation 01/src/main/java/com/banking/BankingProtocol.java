@@ -0,0 +1,126 @@
+package com.banking;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Banking Wire Protocol
+ *
+ * The binary protocol between BankingServer and BankingClient. Each message
+ * is a fixed header followed by the fields of the operation, written with
+ * DataOutput in big-endian order:
+ *
+ *   request:  long requestId, byte opcode, arguments
+ *   response: long requestId, byte status, result (OK) or message (ERROR)
+ *
+ * Strings are DataOutput UTF strings; nullable strings carry a presence byte
+ * in front. Deposit and transfer results are the int codes of tryDeposit and
+ * tryTransfer. A connection answers its requests in the order they arrive,
+ * so a client can keep many requests in flight and match the responses by ID.
+ *
+ * Arguments and results per opcode:
+ *   CREATE_ACCOUNT              id, int timestamp                -> boolean
+ *   DEPOSIT                     id, int timestamp, int amount    -> int
+ *   TRANSFER                    from, to, int timestamp, int amount -> int
+ *   TOP_SPENDERS                int timestamp, int n             -> string list
+ *   SCHEDULE_PAYMENT            from, to, int timestamp, int amount,
+ *                               double cashbackPercentage        -> nullable string
+ *   GET_PAYMENT_STATUS          id, int timestamp, nullable paymentId -> nullable string
+ *   PROCESS_SCHEDULED_PAYMENTS  int timestamp                    -> nothing
+ *   MERGE_ACCOUNTS              id1, id2                         -> nothing
+ *   DEPOSIT_BATCH               int size, size x (id, int, int)  -> int list
+ *   TRANSFER_BATCH              int size, size x (from, to, int, int) -> int list
+ *
+ * Lists and batches carry at most MAX_LIST_SIZE entries. A size outside
+ * 0..MAX_LIST_SIZE makes the message malformed, and the reader gives up on
+ * the connection rather than allocate for it.
+ */
+final class BankingProtocol {
+
+    static final byte CREATE_ACCOUNT = 1;
+    static final byte DEPOSIT = 2;
+    static final byte TRANSFER = 3;
+    static final byte TOP_SPENDERS = 4;
+    static final byte SCHEDULE_PAYMENT = 5;
+    static final byte GET_PAYMENT_STATUS = 6;
+    static final byte PROCESS_SCHEDULED_PAYMENTS = 7;
+    static final byte MERGE_ACCOUNTS = 8;
+    static final byte DEPOSIT_BATCH = 9;
+    static final byte TRANSFER_BATCH = 10;
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    static final int MAX_LIST_SIZE = 1 << 20;
+    // Entries reserved up front for a list or batch; the rest as they arrive.
+    static final int INITIAL_CAPACITY = 1024;
+
+    private BankingProtocol() {
+    }
+
+    static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Writes the size of a list or batch the caller is about to send.
+     */
+    static void writeSize(DataOutput out, int size) throws IOException {
+        if (size > MAX_LIST_SIZE) {
+            throw new IllegalArgumentException("Batch of " + size + " exceeds " + MAX_LIST_SIZE + " entries");
+        }
+        out.writeInt(size);
+    }
+
+    /**
+     * Reads the size of a list or batch, rejecting one the protocol does not allow.
+     */
+    static int readSize(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > MAX_LIST_SIZE) {
+            throw new IOException("List size " + size + " outside 0.." + MAX_LIST_SIZE);
+        }
+        return size;
+    }
+
+    static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    static List<String> readStrings(DataInput in) throws IOException {
+        int size = readSize(in);
+        List<String> values = new ArrayList<>(Math.min(size, INITIAL_CAPACITY));
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    static void writeInts(DataOutput out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static int[] readInts(DataInput in) throws IOException {
+        int[] values = new int[readSize(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,311 @@
+package com.banking;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Banking Server
+ *
+ * Exposes a BankingSystem over TCP using the BankingProtocol. Every
+ * connection is served by its own thread, which reads requests, applies them
+ * to the system and writes the responses back in order. Responses are
+ * buffered and flushed only once no further request is already waiting in
+ * the input, so a client pipelining many requests gets its answers in a few
+ * large writes.
+ *
+ * Connection threads come from an ExecutorService, one task per connection.
+ * By default it is a cached pool of platform threads; on a runtime with
+ * virtual threads, pass Executors.newVirtualThreadPerTaskExecutor().
+ *
+ * Connections call the system concurrently, so it must be safe for
+ * concurrent use: ConcurrentBankingSystem, RingBufferBankingSystem or
+ * ShardedBankingSystem, not a bare BankingSystemImpl.
+ *
+ * Run standalone with:
+ *   java -cp target/classes com.banking.BankingServer [port]
+ */
+public final class BankingServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7070;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BankingSystem system;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<Socket> openSockets;
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    private BankingServer(BankingSystem system, ServerSocket serverSocket, ExecutorService connections) {
+        this.system = system;
+        this.serverSocket = serverSocket;
+        this.connections = connections;
+        openSockets = ConcurrentHashMap.newKeySet();
+        acceptor = new Thread(this::acceptLoop, "banking-server-accept");
+        acceptor.setDaemon(true);
+    }
+
+    /**
+     * Starts a server on the given local port; 0 picks a free port.
+     */
+    public static BankingServer start(BankingSystem system, int port) throws IOException {
+        AtomicInteger connectionCount = new AtomicInteger();
+        ExecutorService connections = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "banking-connection-" + connectionCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return start(system, new InetSocketAddress(port), connections);
+    }
+
+    /**
+     * Starts a server on the given address, serving each connection as one
+     * task of the executor. The executor is shut down when the server closes.
+     */
+    public static BankingServer start(BankingSystem system, InetSocketAddress address,
+                                      ExecutorService connections) throws IOException {
+        ServerSocket serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address);
+        BankingServer server = new BankingServer(system, serverSocket, connections);
+        server.acceptor.start();
+        return server;
+    }
+
+    /**
+     * Returns the local port the server listens on.
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes every open one.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : openSockets) {
+            socket.close();
+        }
+        connections.shutdown();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            openSockets.add(socket);
+            connections.execute(() -> serve(socket));
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            while (true) {
+                long requestId;
+                try {
+                    requestId = in.readLong();
+                } catch (EOFException e) {
+                    return;
+                }
+                handle(requestId, in.readByte(), in, out);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (SocketException e) {
+            // Closed by the client or by close().
+        } catch (IOException | RuntimeException e) {
+            // A malformed request ends the connection; the client sees it closed.
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    /**
+     * Reads the arguments of one request, applies it and writes the response.
+     */
+    private void handle(long requestId, byte opcode, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (opcode) {
+            case BankingProtocol.CREATE_ACCOUNT: {
+                String accountId = in.readUTF();
+                int timestamp = in.readInt();
+                try {
+                    boolean created = system.createAccount(accountId, timestamp);
+                    ok(out, requestId);
+                    out.writeBoolean(created);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.DEPOSIT: {
+                String accountId = in.readUTF();
+                int timestamp = in.readInt();
+                int amount = in.readInt();
+                try {
+                    int result = system.tryDeposit(accountId, timestamp, amount);
+                    ok(out, requestId);
+                    out.writeInt(result);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.TRANSFER: {
+                String fromId = in.readUTF();
+                String toId = in.readUTF();
+                int timestamp = in.readInt();
+                int amount = in.readInt();
+                try {
+                    int result = system.tryTransfer(fromId, toId, timestamp, amount);
+                    ok(out, requestId);
+                    out.writeInt(result);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.TOP_SPENDERS: {
+                int timestamp = in.readInt();
+                int n = in.readInt();
+                try {
+                    List<String> top = system.topSpenders(timestamp, n);
+                    ok(out, requestId);
+                    BankingProtocol.writeStrings(out, top);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.SCHEDULE_PAYMENT: {
+                String accountId = in.readUTF();
+                String targetAccId = in.readUTF();
+                int timestamp = in.readInt();
+                int amount = in.readInt();
+                double cashbackPercentage = in.readDouble();
+                try {
+                    String paymentId = system.schedulePayment(accountId, targetAccId, timestamp,
+                            amount, cashbackPercentage);
+                    ok(out, requestId);
+                    BankingProtocol.writeNullableString(out, paymentId);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.GET_PAYMENT_STATUS: {
+                String accountId = in.readUTF();
+                int timestamp = in.readInt();
+                String paymentId = BankingProtocol.readNullableString(in);
+                try {
+                    String status = system.getPaymentStatus(accountId, timestamp, paymentId);
+                    ok(out, requestId);
+                    BankingProtocol.writeNullableString(out, status);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.PROCESS_SCHEDULED_PAYMENTS: {
+                int timestamp = in.readInt();
+                try {
+                    system.processScheduledPayments(timestamp);
+                    ok(out, requestId);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.MERGE_ACCOUNTS: {
+                String accountId1 = in.readUTF();
+                String accountId2 = in.readUTF();
+                try {
+                    system.mergeAccounts(accountId1, accountId2);
+                    ok(out, requestId);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.DEPOSIT_BATCH: {
+                int size = BankingProtocol.readSize(in);
+                DepositBatch batch = new DepositBatch(Math.min(size, BankingProtocol.INITIAL_CAPACITY));
+                for (int i = 0; i < size; i++) {
+                    batch.add(in.readUTF(), in.readInt(), in.readInt());
+                }
+                try {
+                    int[] results = system.depositBatch(batch);
+                    ok(out, requestId);
+                    BankingProtocol.writeInts(out, results);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            case BankingProtocol.TRANSFER_BATCH: {
+                int size = BankingProtocol.readSize(in);
+                TransferBatch batch = new TransferBatch(Math.min(size, BankingProtocol.INITIAL_CAPACITY));
+                for (int i = 0; i < size; i++) {
+                    batch.add(in.readUTF(), in.readUTF(), in.readInt(), in.readInt());
+                }
+                try {
+                    int[] results = system.transferBatch(batch);
+                    ok(out, requestId);
+                    BankingProtocol.writeInts(out, results);
+                } catch (RuntimeException e) {
+                    error(out, requestId, e);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown opcode " + opcode);
+        }
+    }
+
+    private static void ok(DataOutputStream out, long requestId) throws IOException {
+        out.writeLong(requestId);
+        out.writeByte(BankingProtocol.OK);
+    }
+
+    private static void error(DataOutputStream out, long requestId, RuntimeException e) throws IOException {
+        out.writeLong(requestId);
+        out.writeByte(BankingProtocol.ERROR);
+        out.writeUTF(String.valueOf(e));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        BankingServer server = start(new ConcurrentBankingSystem(), port);
+        System.out.println("Banking server listening on port " + server.port());
+        server.acceptor.join();
+    }
+}
@@ -0,0 +1,447 @@
+package com.banking;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Banking Snapshot
+ *
+ * A point-in-time copy of a BankingSystemImpl's state: accounts with their
+ * balances and merge aliases, the transaction journal, and every scheduled
+ * payment with its status. Per-account journal positions, outgoing histories
+ * and the spend ranking are derived from the journal and rebuilt on restore.
+ *
+ * capture() takes the copy and must run while no operation is in progress;
+ * it only copies the per-account columns and holds on to the append-only
+ * journal arrays, so it is brief. writeTo() then serializes the copy and can
+ * run on another thread while the system keeps changing.
+ *
+ * File layout: a fixed header, then each column stored contiguously with a
+ * fixed width (account IDs as one UTF-8 blob plus an offsets column), so
+ * restore() maps disjoint ranges of the file and decodes them in parallel.
+ */
+final class BankingSnapshot {
+
+    private static final int MAGIC = 0x42534E50; // "BSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+
+    // Elements decoded by one parallel restore task.
+    private static final int CHUNK_ELEMENTS = 1 << 20;
+
+    final long logPosition;
+
+    private final int accountCount;
+    private final String[] ids;
+    private final int[] created;
+    private final int[] balance;
+    private final int[] mergedInto;
+
+    private final int journalSize;
+    private final int[] timestamps;
+    private final int[] fromHandles;
+    private final int[] toHandles;
+    private final int[] amounts;
+    private final byte[] kinds;
+
+    private final int latestOutgoingTimestamp;
+    private final long nextSequence;
+    private final int paymentCount;
+    private final long[] sequences;
+    private final int[] paymentSources;
+    private final int[] paymentTargets;
+    private final int[] dueTimestamps;
+    private final int[] paymentAmounts;
+    private final long[] cashbackBits;
+    private final byte[] paymentStatuses;
+
+    private BankingSnapshot(BankingSystemImpl system, long logPosition) {
+        this.logPosition = logPosition;
+        AccountRegistry accounts = system.accounts;
+        accountCount = accounts.count;
+        ids = Arrays.copyOf(accounts.ids, accountCount);
+        created = Arrays.copyOf(accounts.created, accountCount);
+        balance = Arrays.copyOf(accounts.balance, accountCount);
+        mergedInto = Arrays.copyOf(accounts.mergedInto, accountCount);
+
+        TransactionJournal journal = system.journal;
+        journalSize = journal.size;
+        timestamps = journal.timestamps;
+        fromHandles = journal.fromHandles;
+        toHandles = journal.toHandles;
+        amounts = journal.amounts;
+        kinds = journal.kinds;
+
+        latestOutgoingTimestamp = system.latestOutgoingTimestamp;
+        nextSequence = system.paymentScheduler.nextSequence();
+        PaymentTable table = system.paymentScheduler.table;
+        paymentCount = table.size();
+        sequences = new long[paymentCount];
+        paymentSources = new int[paymentCount];
+        paymentTargets = new int[paymentCount];
+        dueTimestamps = new int[paymentCount];
+        paymentAmounts = new int[paymentCount];
+        cashbackBits = new long[paymentCount];
+        paymentStatuses = new byte[paymentCount];
+        int i = 0;
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            if (table.isOccupied(slot)) {
+                sequences[i] = table.sequences[slot];
+                paymentSources[i] = table.sources[slot];
+                paymentTargets[i] = table.targets[slot];
+                dueTimestamps[i] = table.timestamps[slot];
+                paymentAmounts[i] = table.amounts[slot];
+                cashbackBits[i] = Double.doubleToLongBits(table.cashbackPercentages[slot]);
+                paymentStatuses[i] = table.statuses[slot];
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Copies the system's state. The caller must keep the system unchanged
+     * for the duration of the call.
+     *
+     * @param logPosition The write-ahead log position this state corresponds to
+     */
+    static BankingSnapshot capture(BankingSystemImpl system, long logPosition) {
+        return new BankingSnapshot(system, logPosition);
+    }
+
+    /**
+     * Writes the snapshot to the file, replacing it atomically once complete.
+     */
+    void writeTo(Path file) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".partial");
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             ColumnWriter out = new ColumnWriter(channel, HEADER_BYTES)) {
+            out.putInts(created, accountCount);
+            out.putInts(balance, accountCount);
+            out.putInts(mergedInto, accountCount);
+            long[] idOffsets = new long[accountCount + 1];
+            for (int handle = 0; handle < accountCount; handle++) {
+                byte[] bytes = ids[handle].getBytes(StandardCharsets.UTF_8);
+                out.putBytes(bytes, bytes.length);
+                idOffsets[handle + 1] = idOffsets[handle] + bytes.length;
+            }
+            out.putLongs(idOffsets, accountCount + 1);
+
+            out.putInts(timestamps, journalSize);
+            out.putInts(fromHandles, journalSize);
+            out.putInts(toHandles, journalSize);
+            out.putInts(amounts, journalSize);
+            out.putBytes(kinds, journalSize);
+
+            out.putLongs(sequences, paymentCount);
+            out.putInts(paymentSources, paymentCount);
+            out.putInts(paymentTargets, paymentCount);
+            out.putInts(dueTimestamps, paymentCount);
+            out.putInts(paymentAmounts, paymentCount);
+            out.putLongs(cashbackBits, paymentCount);
+            out.putBytes(paymentStatuses, paymentCount);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(logPosition)
+                    .putInt(accountCount).putInt(journalSize).putInt(paymentCount)
+                    .putInt(latestOutgoingTimestamp).putLong(nextSequence).putLong(idOffsets[accountCount]);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * A snapshot read back from disk, with the log position it corresponds to.
+     */
+    static final class Restored {
+        final BankingSystemImpl system;
+        final long logPosition;
+
+        private Restored(BankingSystemImpl system, long logPosition) {
+            this.system = system;
+            this.logPosition = logPosition;
+        }
+    }
+
+    /**
+     * Reads a snapshot file into a new BankingSystemImpl. The columns are
+     * memory-mapped and decoded in parallel; the ID index, per-account journal
+     * positions, histories and ranking are then rebuilt.
+     */
+    static Restored restore(Path file, SchedulerBackend schedulerBackend) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Fill the header.
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a banking snapshot: " + file);
+            }
+            long logPosition = header.getLong();
+            int accountCount = header.getInt();
+            int journalSize = header.getInt();
+            int paymentCount = header.getInt();
+            int latestOutgoingTimestamp = header.getInt();
+            long nextSequence = header.getLong();
+            long idBytes = header.getLong();
+
+            AccountRegistry accounts = new AccountRegistry(accountCount);
+            TransactionJournal journal = new TransactionJournal(journalSize);
+            long[] idOffsets = new long[accountCount + 1];
+            long[] sequences = new long[paymentCount];
+            int[] sources = new int[paymentCount];
+            int[] targets = new int[paymentCount];
+            int[] dueTimestamps = new int[paymentCount];
+            int[] paymentAmounts = new int[paymentCount];
+            long[] cashbackBits = new long[paymentCount];
+            byte[] statuses = new byte[paymentCount];
+
+            List<Runnable> tasks = new ArrayList<>();
+            ColumnReader in = new ColumnReader(channel, HEADER_BYTES, tasks);
+            in.ints(accounts.created, accountCount);
+            in.ints(accounts.balance, accountCount);
+            in.ints(accounts.mergedInto, accountCount);
+            long idBytesStart = in.skip(idBytes);
+            in.longs(idOffsets, accountCount + 1);
+            in.ints(journal.timestamps, journalSize);
+            in.ints(journal.fromHandles, journalSize);
+            in.ints(journal.toHandles, journalSize);
+            in.ints(journal.amounts, journalSize);
+            in.bytes(journal.kinds, journalSize);
+            in.longs(sequences, paymentCount);
+            in.ints(sources, paymentCount);
+            in.ints(targets, paymentCount);
+            in.ints(dueTimestamps, paymentCount);
+            in.ints(paymentAmounts, paymentCount);
+            in.longs(cashbackBits, paymentCount);
+            in.bytes(statuses, paymentCount);
+            if (in.position > channel.size()) {
+                throw new IOException("Truncated banking snapshot: " + file);
+            }
+            runParallel(tasks);
+
+            tasks.clear();
+            for (int start = 0; start < accountCount; start += CHUNK_ELEMENTS) {
+                int from = start;
+                int to = Math.min(accountCount, start + CHUNK_ELEMENTS);
+                tasks.add(() -> decodeIds(channel, idBytesStart, idOffsets, accounts.ids, from, to));
+            }
+            runParallel(tasks);
+
+            journal.size = journalSize;
+            accounts.restored(accountCount);
+            BankingSystemImpl system = new BankingSystemImpl(schedulerBackend);
+            system.accounts = accounts;
+            system.journal = journal;
+            system.spendRanking = new SpendRankingTree(accounts);
+            system.latestOutgoingTimestamp = latestOutgoingTimestamp;
+            rebuildFromJournal(system);
+
+            for (int i = 0; i < paymentCount; i++) {
+                system.paymentScheduler.restore(sequences[i], sources[i], targets[i], dueTimestamps[i],
+                        paymentAmounts[i], Double.longBitsToDouble(cashbackBits[i]), PaymentStatus.VALUES[statuses[i]]);
+            }
+            system.paymentScheduler.restoreNextSequence(nextSequence);
+            return new Restored(system, logPosition);
+        }
+    }
+
+    /**
+     * Replays the journal into per-account positions and outgoing histories,
+     * attributing each outgoing amount to the account that owns its handle
+     * now, then ranks the open accounts by their outgoing totals.
+     */
+    private static void rebuildFromJournal(BankingSystemImpl system) {
+        AccountRegistry accounts = system.accounts;
+        TransactionJournal journal = system.journal;
+        for (int position = 0; position < journal.size; position++) {
+            int from = journal.fromHandles[position];
+            int to = journal.toHandles[position];
+            int owner = accounts.resolve(from);
+            // Entries stay with the handles they were made on, as they were
+            // live; merge chains lead the survivor to them.
+            accounts.addEntry(from, position, journal);
+            if (to != from) {
+                accounts.addEntry(to, position, journal);
+            }
+            byte kind = journal.kinds[position];
+            if (kind == TransactionJournal.TRANSFER || kind == TransactionJournal.TRANSFER_OUT) {
+                accounts.history(owner).record(journal.timestamps[position], journal.amounts[position]);
+            }
+        }
+        for (int handle = 0; handle < accounts.count; handle++) {
+            if (accounts.isOpen(handle) && accounts.histories[handle] != null) {
+                accounts.outgoing[handle] = accounts.histories[handle].total();
+            }
+        }
+        system.spendRanking.rebuild();
+    }
+
+    private static void decodeIds(FileChannel channel, long start, long[] offsets, String[] ids, int from, int to) {
+        try {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+                    start + offsets[from], offsets[to] - offsets[from]);
+            byte[] bytes = new byte[64];
+            for (int handle = from; handle < to; handle++) {
+                int length = (int) (offsets[handle + 1] - offsets[handle]);
+                if (length > bytes.length) {
+                    bytes = new byte[length];
+                }
+                region.get(bytes, 0, length);
+                ids[handle] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void runParallel(List<Runnable> tasks) throws IOException {
+        try {
+            tasks.parallelStream().forEach(Runnable::run);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Lays out fixed-width columns one after another and queues one task per
+     * chunk that maps its slice of the file and copies it into the array.
+     */
+    private static final class ColumnReader {
+        private final FileChannel channel;
+        private final List<Runnable> tasks;
+        long position;
+
+        ColumnReader(FileChannel channel, long position, List<Runnable> tasks) {
+            this.channel = channel;
+            this.position = position;
+            this.tasks = tasks;
+        }
+
+        long skip(long bytes) {
+            long start = position;
+            position += bytes;
+            return start;
+        }
+
+        void ints(int[] column, int count) {
+            long start = skip((long) count * Integer.BYTES);
+            chunks(count, (from, to) -> map(start + (long) from * Integer.BYTES, to - from, Integer.BYTES)
+                    .asIntBuffer().get(column, from, to - from));
+        }
+
+        void longs(long[] column, int count) {
+            long start = skip((long) count * Long.BYTES);
+            chunks(count, (from, to) -> map(start + (long) from * Long.BYTES, to - from, Long.BYTES)
+                    .asLongBuffer().get(column, from, to - from));
+        }
+
+        void bytes(byte[] column, int count) {
+            long start = skip(count);
+            chunks(count, (from, to) -> map(start + from, to - from, 1).get(column, from, to - from));
+        }
+
+        private void chunks(int count, ChunkDecoder decoder) {
+            for (int start = 0; start < count; start += CHUNK_ELEMENTS) {
+                int from = start;
+                int to = Math.min(count, start + CHUNK_ELEMENTS);
+                tasks.add(() -> decoder.decode(from, to));
+            }
+        }
+
+        private MappedByteBuffer map(long offset, int elements, int width) {
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) elements * width);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private interface ChunkDecoder {
+        void decode(int from, int to);
+    }
+
+    /**
+     * Buffers column writes to a channel, starting at the given file position.
+     */
+    private static final class ColumnWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long position;
+
+        ColumnWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+            buffer = ByteBuffer.allocateDirect(1 << 20);
+        }
+
+        void putInts(int[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int length = Math.min(count - offset, room(Integer.BYTES));
+                buffer.asIntBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+        }
+
+        void putLongs(long[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int length = Math.min(count - offset, room(Long.BYTES));
+                buffer.asLongBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Long.BYTES);
+                offset += length;
+            }
+        }
+
+        void putBytes(byte[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int length = Math.min(count - offset, room(1));
+                buffer.put(values, offset, length);
+                offset += length;
+            }
+        }
+
+        /**
+         * Flushes if fewer than one element of the given width fits, then
+         * returns how many elements fit.
+         */
+        private int room(int width) throws IOException {
+            if (buffer.remaining() < width) {
+                flush();
+            }
+            return buffer.remaining() / width;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
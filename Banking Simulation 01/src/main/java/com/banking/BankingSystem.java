@@ -126,4 +126,83 @@ public interface BankingSystem {
      * @param accountId2 The account to merge into accountId1 (will be closed)
      */
     void mergeAccounts(String accountId1, String accountId2);
+    
+    // ========== Status-Reporting Operations ==========
+    // The balance or status comes back as a plain int, so implementations that
+    // override these allocate nothing on success or failure; their deposit()
+    // and transfer() are the Optional wrappers around them.
+    
+    /**
+     * Same as deposit(), reporting why a deposit failed.
+     * 
+     * @return The new balance if successful, otherwise a negative OperationStatus
+     *         code; implementations that cannot tell the reason apart report REJECTED
+     */
+    default int tryDeposit(String accountId, int timestamp, int amount) {
+        return deposit(accountId, timestamp, amount).orElse(OperationStatus.REJECTED);
+    }
+    
+    /**
+     * Same as transfer(), reporting why a transfer failed.
+     * 
+     * @return The new balance of the source account if successful, otherwise a
+     *         negative OperationStatus code; implementations that cannot tell the
+     *         reason apart report REJECTED
+     */
+    default int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        return transfer(fromId, toId, timestamp, amount).orElse(OperationStatus.REJECTED);
+    }
+    
+    // ========== History ==========
+    
+    /**
+     * Returns a cursor over the account's transactions, including those of
+     * accounts merged into it, with timestamps from fromTimestamp to
+     * toTimestamp inclusive, in timestamp order. Rows are read lazily.
+     * 
+     * @param accountId The account whose history to read
+     * @param fromTimestamp The earliest timestamp to include
+     * @param toTimestamp The latest timestamp to include
+     * @param continuation TransactionCursor.FIRST_PAGE, or the continuation() of
+     *        an earlier cursor over the same account and range to resume after
+     *        its last row
+     * @return The cursor, or null if the account doesn't exist
+     * @throws UnsupportedOperationException if the implementation keeps no
+     *         queryable history
+     */
+    default TransactionCursor history(String accountId, int fromTimestamp, int toTimestamp, long continuation) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support history queries");
+    }
+    
+    // ========== Batch Operations ==========
+    
+    /**
+     * Applies the deposits in order, each with the same semantics as deposit().
+     * 
+     * @param batch The deposits to apply
+     * @return For each deposit, the new balance if successful, otherwise a
+     *         negative OperationStatus code
+     */
+    default int[] depositBatch(DepositBatch batch) {
+        int[] results = new int[batch.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = tryDeposit(batch.accountId(i), batch.timestamp(i), batch.amount(i));
+        }
+        return results;
+    }
+    
+    /**
+     * Applies the transfers in order, each with the same semantics as transfer().
+     * 
+     * @param batch The transfers to apply
+     * @return For each transfer, the new balance of the source account if
+     *         successful, otherwise a negative OperationStatus code
+     */
+    default int[] transferBatch(TransferBatch batch) {
+        int[] results = new int[batch.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = tryTransfer(batch.fromId(i), batch.toId(i), batch.timestamp(i), batch.amount(i));
+        }
+        return results;
+    }
 }
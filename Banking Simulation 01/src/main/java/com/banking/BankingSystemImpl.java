@@ -4,123 +4,290 @@ import java.util.*;
 
 /**
  * Banking System Implementation
- * 
- * TODO: Implement all methods to pass the level-wise test cases.
- * 
- * INSTRUCTIONS:
- * 1. You can add any internal data structures you need (maps, lists, etc.)
- * 2. You can create helper methods and classes
- * 3. Make sure to handle all edge cases mentioned in the interface documentation
- * 4. Run tests level by level: mvn test -Dtest=Level1Test, etc.
+ *
+ * Single-threaded BankingSystem over an AccountRegistry of dense account
+ * handles, a TransactionJournal of every balance change, a SpendRankingTree
+ * and a PaymentScheduler. Callers that resolve an ID once can use the
+ * handle-based fast path instead of the String API.
  */
-class Transaction {
-    boolean isSender;
-    int timestamp;
-    String fromId;
-    String toId;
-    int amount;
-
-    public Transaction(int timestamp, String fromId, String toId, int amount, boolean isSender) {
-        this.timestamp = timestamp;
-        this.fromId = fromId;
-        this.toId = toId;
-        this.amount = amount;
-        this.isSender = isSender;
-    }
-}
-class Account {
-    int timestamp;
-    String accountId;
-    int balance;
-    List<Transaction> transactionList;
-
-    public Account(int timestamp, String accountId, int balance) {
-        this.timestamp = timestamp;
-        this.accountId = accountId;
-        this.balance = balance;
-        transactionList = new ArrayList<>();
-    }
-}
 public class BankingSystemImpl implements BankingSystem {
-    
 
-    Map<String, Account> accountMap;
+    // Result of checkTransfer for a transfer that can be applied.
+    private static final int VALID = 0;
+
+    AccountRegistry accounts;
+    TransactionJournal journal;
+    SpendRankingTree spendRanking;
+    int latestOutgoingTimestamp;
+    PaymentScheduler paymentScheduler;
     public BankingSystemImpl() {
-        accountMap = new HashMap<>();
-        // Initialize your data structures
+        this(SchedulerBackend.HEAP);
+    }
+
+    public BankingSystemImpl(SchedulerBackend schedulerBackend) {
+        accounts = new AccountRegistry();
+        journal = new TransactionJournal();
+        spendRanking = new SpendRankingTree(accounts);
+        latestOutgoingTimestamp = Integer.MIN_VALUE;
+        paymentScheduler = new PaymentScheduler(schedulerBackend.newQueue());
     }
     
     // ========== LEVEL 1: Basic Operations ==========
     
     @Override
     public boolean createAccount(String accountId, int timestamp) {
-        if (accountMap.containsKey(accountId)) {
-            return false;
-        }
-        Account newOne = new Account(timestamp, accountId, 0);
-        accountMap.put(accountId, newOne);
-        return true;
-        // TODO: Implement account creation
-        // Return false if account already exists
-        // Return true if account was successfully created
-//        throw new UnsupportedOperationException("createAccount not implemented yet");
+        return accounts.create(accountId, timestamp) != AccountRegistry.NO_ACCOUNT;
     }
     
     @Override
     public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
-        if (!accountMap.containsKey(accountId) || amount <= 0) {
-            return Optional.empty();
-        }
-        Account existing = accountMap.get(accountId);
-        Transaction transaction = new Transaction(timestamp, accountId, accountId, amount, false);
-        existing.transactionList.add(transaction);
-        existing.balance += amount;
-        accountMap.put(accountId, existing);
-        return Optional.of(existing.balance);
-        // TODO: Implement deposit
-        // Return empty Optional if account doesn't exist or amount is not positive
-        // Return Optional with new balance if successful
-//        throw new UnsupportedOperationException("deposit not implemented yet");
+        return OperationStatus.toOptional(tryDeposit(accountId, timestamp, amount));
     }
     
     @Override
     public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
-        if (accountMap.containsKey(fromId) && accountMap.containsKey(toId) && amount > 0) {
-            Account fromAcc = accountMap.get(fromId);
-            Account toAcc = accountMap.get(toId);
-            Transaction fromTrans = new Transaction(timestamp, fromId, toId, amount, true);
-            Transaction toTrans = new Transaction(timestamp, fromId, toId, amount, false);
-            if (fromAcc.balance <amount) {
-                return Optional.empty();
+        return OperationStatus.toOptional(tryTransfer(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public int tryDeposit(String accountId, int timestamp, int amount) {
+        return depositByHandle(accounts.find(accountId), timestamp, amount);
+    }
+
+    @Override
+    public int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        return transferByHandle(accounts.find(fromId), accounts.find(toId), timestamp, amount);
+    }
+
+    // ========== Handle-Based Fast Path ==========
+
+    /**
+     * Resolves an account ID to its handle once, so callers can use the
+     * handle-based operations without hashing the ID on every call.
+     *
+     * @param accountId The account to look up
+     * @return The account's handle, or AccountRegistry.NO_ACCOUNT if it does not exist.
+     *         A handle stops being valid when its account is merged away.
+     */
+    public int accountHandle(String accountId) {
+        return accounts.find(accountId);
+    }
+
+    /**
+     * Deposits money into the account with the given handle.
+     *
+     * @return The new balance, or a negative OperationStatus code
+     */
+    public int depositByHandle(int handle, int timestamp, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        if (!accounts.isOpen(handle)) {
+            return OperationStatus.MISSING_ACCOUNT;
+        }
+        accounts.addEntry(handle, journal.append(timestamp, handle, handle, amount, TransactionJournal.DEPOSIT), journal);
+        return accounts.balance[handle] += amount;
+    }
+
+    /**
+     * Transfers money between the accounts with the given handles.
+     *
+     * @return The new balance of the source account, or a negative OperationStatus code
+     */
+    public int transferByHandle(int fromHandle, int toHandle, int timestamp, int amount) {
+        int status = checkTransfer(fromHandle, toHandle, amount);
+        if (status != VALID) {
+            return status;
+        }
+        moveFunds(fromHandle, toHandle, timestamp, amount);
+        return accounts.balance[fromHandle];
+    }
+
+    /**
+     * Returns VALID if the transfer can be applied, otherwise its negative
+     * OperationStatus code.
+     */
+    private int checkTransfer(int fromHandle, int toHandle, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        if (!accounts.isOpen(fromHandle) || !accounts.isOpen(toHandle)) {
+            return OperationStatus.MISSING_ACCOUNT;
+        }
+        if (accounts.balance[fromHandle] < amount) {
+            return OperationStatus.INSUFFICIENT_FUNDS;
+        }
+        return VALID;
+    }
+
+    /**
+     * Returns the balance of the account with the given handle, or
+     * OperationStatus.MISSING_ACCOUNT.
+     */
+    public int balanceByHandle(int handle) {
+        return accounts.isOpen(handle) ? accounts.balance[handle] : OperationStatus.MISSING_ACCOUNT;
+    }
+
+    /**
+     * Applies a validated transfer: balances, both histories and the sender's spend.
+     */
+    private void moveFunds(int fromHandle, int toHandle, int timestamp, int amount) {
+        moveBalances(fromHandle, toHandle, timestamp, amount);
+        recordOutgoing(fromHandle, timestamp, amount);
+    }
+
+    /**
+     * Moves the amount between the balances and journals the transfer, leaving
+     * the sender's spend to the caller.
+     */
+    private void moveBalances(int fromHandle, int toHandle, int timestamp, int amount) {
+        accounts.balance[fromHandle] -= amount;
+        accounts.balance[toHandle] += amount;
+        int position = journal.append(timestamp, fromHandle, toHandle, amount, TransactionJournal.TRANSFER);
+        accounts.addEntry(fromHandle, position, journal);
+        if (toHandle != fromHandle) {
+            accounts.addEntry(toHandle, position, journal);
+        }
+    }
+
+    // ========== Batch Operations ==========
+
+    /**
+     * Applies the deposits in order. Consecutive deposits to the same account
+     * ID share one lookup and the journal grows at most once per batch.
+     */
+    @Override
+    public int[] depositBatch(DepositBatch batch) {
+        int size = batch.size;
+        int[] results = new int[size];
+        journal.ensureCapacity(journal.size + size);
+        String lastId = null;
+        int handle = AccountRegistry.NO_ACCOUNT;
+        for (int i = 0; i < size; i++) {
+            String accountId = batch.accountIds[i];
+            if (!accountId.equals(lastId)) {
+                handle = accounts.find(accountId);
+                lastId = accountId;
+            }
+            results[i] = depositByHandle(handle, batch.timestamps[i], batch.amounts[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Applies the transfers in order. Consecutive transfers naming the same
+     * account IDs share one lookup, the journal grows at most once per batch,
+     * and each sender is repositioned in the spend ranking once at the end of
+     * the batch rather than after every transfer.
+     */
+    @Override
+    public int[] transferBatch(TransferBatch batch) {
+        int size = batch.size;
+        int[] results = new int[size];
+        journal.ensureCapacity(journal.size + size);
+        BitSet detached = new BitSet();
+        int[] senders = new int[size];
+        int senderCount = 0;
+        String lastFromId = null;
+        String lastToId = null;
+        int from = AccountRegistry.NO_ACCOUNT;
+        int to = AccountRegistry.NO_ACCOUNT;
+        for (int i = 0; i < size; i++) {
+            String fromId = batch.fromIds[i];
+            String toId = batch.toIds[i];
+            if (!fromId.equals(lastFromId)) {
+                from = accounts.find(fromId);
+                lastFromId = fromId;
+            }
+            if (!toId.equals(lastToId)) {
+                to = accounts.find(toId);
+                lastToId = toId;
+            }
+            int timestamp = batch.timestamps[i];
+            int amount = batch.amounts[i];
+            int status = checkTransfer(from, to, amount);
+            if (status != VALID) {
+                results[i] = status;
+                continue;
             }
-            
-            fromAcc.balance -= amount;
-            toAcc.balance += amount;
-            fromAcc.transactionList.add(fromTrans);
-            toAcc.transactionList.add(toTrans);
-            accountMap.put(fromId, fromAcc);
-            accountMap.put(toId, toAcc);
-            return Optional.of(fromAcc.balance);
-        }
-        return Optional.empty();
-        // TODO: Implement transfer
-        // Return empty Optional if:
-        //   - Either account doesn't exist
-        //   - Amount is not positive
-        //   - Insufficient funds in source account
-        // Return Optional with new balance of source account if successful
-//        throw new UnsupportedOperationException("transfer not implemented yet");
+            if (!detached.get(from)) {
+                detached.set(from);
+                spendRanking.detach(from);
+                senders[senderCount++] = from;
+            }
+            moveBalances(from, to, timestamp, amount);
+            accounts.outgoing[from] += amount;
+            recordHistory(from, timestamp, amount);
+            results[i] = accounts.balance[from];
+        }
+        for (int i = 0; i < senderCount; i++) {
+            spendRanking.attach(senders[i]);
+        }
+        return results;
     }
     
     // ========== LEVEL 2: Ranking ==========
     
     @Override
     public List<String> topSpenders(int timestamp, int n) {
-        // TODO: Implement top spenders ranking
-        // Only count outgoing transfers (transfers FROM an account)
-        // Sort by total outgoing amount (descending), then by account ID (ascending)
-        // Return list in format: ["accountId(totalAmount)", ...]
-        throw new UnsupportedOperationException("topSpenders not implemented yet");
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+        int[] handles = new int[Math.min(n, accounts.count)];
+        long[] totals = new long[handles.length];
+        int size = topSpenders(timestamp, handles, totals);
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(accounts.ids[handles[i]] + "(" + totals[i] + ")");
+        }
+        return result;
+    }
+
+    /**
+     * Fills handles and totals with the first handles.length entries of the
+     * ranking as of the timestamp and returns how many there are.
+     */
+    int topSpenders(int timestamp, int[] handles, long[] totals) {
+        // Every committed outgoing transaction is visible at this timestamp,
+        // so the incrementally maintained ranking is exact.
+        if (timestamp >= latestOutgoingTimestamp) {
+            return spendRanking.top(handles, totals);
+        }
+        return historicalTopSpenders(timestamp, handles, totals);
+    }
+
+    /**
+     * Ranks open accounts by their spend as of a past timestamp using each
+     * account's time-indexed outgoing history, keeping only the best n.
+     */
+    private int historicalTopSpenders(int timestamp, int[] handles, long[] totals) {
+        TopSelection top = new TopSelection(handles.length, accounts.count,
+                (a, b) -> accounts.ids[a].compareTo(accounts.ids[b]));
+        for (int handle = 0; handle < accounts.count; handle++) {
+            if (accounts.isOpen(handle)) {
+                top.offer(handle, accounts.spentAt(handle, timestamp));
+            }
+        }
+        int size = top.finish();
+        for (int i = 0; i < size; i++) {
+            handles[i] = top.handle(i);
+            totals[i] = top.total(i);
+        }
+        return size;
+    }
+
+    /**
+     * Records a committed outgoing amount in the spend ranking and the
+     * account's time-indexed outgoing history.
+     */
+    private void recordOutgoing(int handle, int timestamp, int amount) {
+        spendRanking.recordOutgoing(handle, amount);
+        recordHistory(handle, timestamp, amount);
+    }
+
+    private void recordHistory(int handle, int timestamp, int amount) {
+        accounts.history(handle).record(timestamp, amount);
+        latestOutgoingTimestamp = Math.max(latestOutgoingTimestamp, timestamp);
     }
     
     // ========== LEVEL 3: Scheduled Payments ==========
@@ -128,36 +295,163 @@ public class BankingSystemImpl implements BankingSystem {
     @Override
     public String schedulePayment(String accountId, String targetAccId, int timestamp, 
                                   int amount, double cashbackPercentage) {
-        // TODO: Implement payment scheduling
-        // Generate and return a unique payment ID
-        // Store the payment for later processing
-        throw new UnsupportedOperationException("schedulePayment not implemented yet");
+        int source = accounts.find(accountId);
+        int target = accounts.find(targetAccId);
+        if (source == AccountRegistry.NO_ACCOUNT || target == AccountRegistry.NO_ACCOUNT || amount <= 0) {
+            return null;
+        }
+        long sequence = paymentScheduler.schedule(source, target, timestamp, amount, cashbackPercentage);
+        return PaymentScheduler.paymentId(sequence);
     }
     
     @Override
     public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
-        // TODO: Implement payment status check
-        // Return "SCHEDULED", "PROCESSED", "FAILED", or null
-        throw new UnsupportedOperationException("getPaymentStatus not implemented yet");
+        int slot = paymentScheduler.find(paymentId);
+        int handle = accounts.find(accountId);
+        PaymentTable payments = paymentScheduler.table;
+        if (slot == PaymentTable.NOT_FOUND || handle == AccountRegistry.NO_ACCOUNT
+                || accounts.resolve(payments.sources[slot]) != handle) {
+            return null;
+        }
+        return payments.status(slot).name();
     }
     
     @Override
     public void processScheduledPayments(int currentTimestamp) {
-        // TODO: Implement scheduled payment processing
-        // Process all payments with timestamp <= currentTimestamp
-        // Apply cashback for successful payments
-        // Mark failed payments (e.g., insufficient funds) as FAILED
-        throw new UnsupportedOperationException("processScheduledPayments not implemented yet");
+        paymentScheduler.pollDue(currentTimestamp, this::executePayment);
+    }
+
+    /**
+     * Settles one due payment against the accounts that currently own the
+     * source and target, crediting cashback to the source on success.
+     */
+    private void executePayment(ScheduledPayment payment) {
+        int source = accounts.resolve(payment.source);
+        int target = accounts.resolve(payment.target);
+        if (accounts.balance[source] < payment.amount) {
+            paymentScheduler.settle(payment, PaymentStatus.FAILED);
+            return;
+        }
+        moveFunds(source, target, payment.timestamp, payment.amount);
+        int cashback = payment.cashback();
+        if (cashback > 0) {
+            accounts.balance[source] += cashback;
+            accounts.addEntry(source, journal.append(payment.timestamp, source, source, cashback, TransactionJournal.CASHBACK), journal);
+        }
+        paymentScheduler.settle(payment, PaymentStatus.PROCESSED);
+    }
+    
+    // ========== History ==========
+
+    /**
+     * Returns a cursor over the journal entries of the account and everything
+     * merged into it; see TransactionCursor. The cursor is valid until the
+     * next write.
+     */
+    @Override
+    public TransactionCursor history(String accountId, int fromTimestamp, int toTimestamp, long continuation) {
+        int handle = accounts.find(accountId);
+        if (handle == AccountRegistry.NO_ACCOUNT) {
+            return null;
+        }
+        return new TransactionCursor(accounts, journal, handle, fromTimestamp, toTimestamp, continuation);
     }
     
     // ========== LEVEL 4: Account Merging ==========
     
     @Override
     public void mergeAccounts(String accountId1, String accountId2) {
-        // TODO: Implement account merging
-        // Combine balances into accountId1
-        // Transfer all transaction history from accountId2 to accountId1
-        // Remove/close accountId2
-        throw new UnsupportedOperationException("mergeAccounts not implemented yet");
+        if (accountId1.equals(accountId2)) {
+            return;
+        }
+        int survivor = accounts.find(accountId1);
+        int merged = accounts.find(accountId2);
+        if (survivor == AccountRegistry.NO_ACCOUNT || merged == AccountRegistry.NO_ACCOUNT) {
+            return;
+        }
+        accounts.balance[survivor] += accounts.balance[merged];
+        accounts.balance[merged] = 0;
+        spendRanking.merge(survivor, merged);
+        accounts.close(merged, survivor);
+    }
+
+    // ========== Cross-Shard Operations ==========
+    // Used by ShardedBankingSystem, which owns one instance per shard and
+    // coordinates transfers and merges between them.
+
+    /**
+     * First phase of a transfer to another shard: takes the amount out of the
+     * balance and holds it, so nothing else can spend it until the transfer
+     * commits or is released.
+     *
+     * @return The new balance, or a negative OperationStatus code
+     */
+    int reserve(int handle, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        if (!accounts.isOpen(handle)) {
+            return OperationStatus.MISSING_ACCOUNT;
+        }
+        if (accounts.balance[handle] < amount) {
+            return OperationStatus.INSUFFICIENT_FUNDS;
+        }
+        return accounts.balance[handle] -= amount;
+    }
+
+    /**
+     * Aborts a reservation and returns the held amount to the balance.
+     */
+    void release(int handle, int amount) {
+        accounts.balance[handle] += amount;
+    }
+
+    /**
+     * Commits a reservation as the outgoing side of a cross-shard transfer.
+     */
+    void commitOutgoing(int handle, int timestamp, int amount) {
+        accounts.addEntry(handle, journal.append(timestamp, handle, handle, amount, TransactionJournal.TRANSFER_OUT), journal);
+        recordOutgoing(handle, timestamp, amount);
+    }
+
+    /**
+     * Credits an amount that originates in another shard: the incoming side of
+     * a cross-shard transfer, or cashback on a cross-shard payment.
+     */
+    void credit(int handle, int timestamp, int amount, byte kind) {
+        accounts.addEntry(handle, journal.append(timestamp, handle, handle, amount, kind), journal);
+        accounts.balance[handle] += amount;
+    }
+
+    /**
+     * Closes an account that is being merged into an account of another shard
+     * and returns the funds and spend history the survivor absorbs, or null
+     * if the account does not exist.
+     */
+    DetachedAccount detach(String accountId) {
+        int handle = accounts.find(accountId);
+        if (handle == AccountRegistry.NO_ACCOUNT) {
+            return null;
+        }
+        DetachedAccount detached = new DetachedAccount(accounts.balance[handle], accounts.combinedHistory(handle));
+        accounts.balance[handle] = 0;
+        spendRanking.detach(handle);
+        accounts.outgoing[handle] = 0;
+        accounts.retire(handle);
+        return detached;
+    }
+
+    /**
+     * Merges an account detached from another shard into the open account
+     * with the given handle.
+     */
+    void absorb(int handle, DetachedAccount detached) {
+        accounts.balance[handle] += detached.balance;
+        long spent = detached.history.total();
+        if (spent > 0) {
+            spendRanking.recordOutgoing(handle, spent);
+            accounts.history(handle).merge(detached.history);
+            latestOutgoingTimestamp = Math.max(latestOutgoingTimestamp, detached.history.lastTimestamp());
+        }
     }
 }
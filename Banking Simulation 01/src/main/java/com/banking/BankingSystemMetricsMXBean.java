@@ -0,0 +1,20 @@
+package com.banking;
+
+import java.util.List;
+
+/**
+ * JMX view of an InstrumentedBankingSystem, registered with
+ * InstrumentedBankingSystem.registerMBean.
+ */
+public interface BankingSystemMetricsMXBean {
+
+    /**
+     * Returns the current metrics of every operation.
+     */
+    List<OperationMetrics> getOperations();
+
+    /**
+     * Clears all counters and histograms.
+     */
+    void reset();
+}
@@ -0,0 +1,85 @@
+package com.banking;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An Account of ConcurrentBankingSystem: a compare-and-set balance, the lock
+ * transfers out of it hold and a lock-free history log. A merged-away account is closed by swapping
+ * CLOSED into its balance, which turns away deposits still holding it.
+ */
+class ConcurrentAccount extends Account {
+    static final int CLOSED = Integer.MIN_VALUE;
+
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final ReentrantLock lock;
+    final TransactionLog log;
+    int paymentHandle;
+
+    public ConcurrentAccount(int timestamp, String accountId) {
+        super(timestamp, accountId, 0);
+        this.lock = new ReentrantLock();
+        this.log = new TransactionLog();
+        this.paymentHandle = AccountRegistry.NO_ACCOUNT;
+    }
+
+    int balance() {
+        return (int) BALANCE.getVolatile(this);
+    }
+
+    /**
+     * Adds to the balance and returns the new balance.
+     */
+    int credit(int amount) {
+        return (int) BALANCE.getAndAdd(this, amount) + amount;
+    }
+
+    /**
+     * Adds to the balance unless the account is closed.
+     * Returns the new balance, or CLOSED if the account is closed.
+     */
+    int deposit(int amount) {
+        int current = balance();
+        while (current != CLOSED) {
+            int witness = (int) BALANCE.compareAndExchange(this, current, current + amount);
+            if (witness == current) {
+                return current + amount;
+            }
+            current = witness;
+        }
+        return CLOSED;
+    }
+
+    /**
+     * Closes the account and returns the balance it held.
+     */
+    int close() {
+        return (int) BALANCE.getAndSet(this, CLOSED);
+    }
+
+    /**
+     * Subtracts from the balance if it covers the amount.
+     * Returns the new balance, or -1 if funds are insufficient.
+     */
+    int debit(int amount) {
+        int current = balance();
+        while (current >= amount) {
+            int witness = (int) BALANCE.compareAndExchange(this, current, current - amount);
+            if (witness == current) {
+                return current - amount;
+            }
+            current = witness;
+        }
+        return -1;
+    }
+}
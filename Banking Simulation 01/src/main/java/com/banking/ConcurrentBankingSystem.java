@@ -0,0 +1,345 @@
+package com.banking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-Safe Banking System Implementation
+ *
+ * Same semantics as BankingSystemImpl, safe to share between threads.
+ *
+ * Locking scheme:
+ * - Balances are updated with compare-and-set and histories are appended to a
+ *   lock-free TransactionLog per account. Deposits take no lock at all: a map
+ *   lookup, a compare-and-set and a log append, so they never block, even on
+ *   a single hot account. Merging closes the merged account's balance first,
+ *   and a deposit that finds its account closed looks the ID up again.
+ * - Every account carries its own lock, held only by transfers out of that
+ *   account while they debit the balance and update its spend. The credit
+ *   side is lock-free, so transfers between disjoint sources run in parallel
+ *   and opposing transfers cannot deadlock.
+ * - createAccount, transfer and reads, topSpenders included, take the shared
+ *   side of a read/write lock and only contend on the accounts they touch.
+ *   The spend ranking is a SpendRanking of immutable entries. Ranking
+ *   updates from different accounts run concurrently, and a ranking read
+ *   briefly holds them off, so it sees each update whole or not at all.
+ * - mergeAccounts and processScheduledPayments take the exclusive side, so
+ *   they observe and produce a state with no transfer half-applied. Deposits
+ *   still land meanwhile, each one atomically, between the payments of a
+ *   batch as if those had been processed one call at a time.
+ *
+ * Under the exclusive lock, due payments are grouped into PaymentWaves of
+ * payments with disjoint accounts, and each wave runs across a ForkJoinPool,
+ * the common pool unless one is given. Balances, statuses and cashback end up
+ * exactly as if the payments had run one by one in due order.
+ */
+public class ConcurrentBankingSystem implements BankingSystem {
+
+    private final ConcurrentHashMap<String, ConcurrentAccount> accountMap;
+    private final ReentrantReadWriteLock structureLock;
+    private final SpendRanking spendRanking;
+    private final AtomicLong latestOutgoingTimestamp;
+    private final PaymentScheduler paymentScheduler;
+    private final PaymentWaves paymentWaves;
+    private volatile ConcurrentAccount[] paymentParties;
+    private int paymentPartyCount;
+
+    public ConcurrentBankingSystem() {
+        this(SchedulerBackend.HEAP);
+    }
+
+    public ConcurrentBankingSystem(SchedulerBackend schedulerBackend) {
+        this(schedulerBackend, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param schedulerBackend The queue pending payments are kept in
+     * @param paymentPool The pool due payments run across
+     */
+    public ConcurrentBankingSystem(SchedulerBackend schedulerBackend, ForkJoinPool paymentPool) {
+        accountMap = new ConcurrentHashMap<>();
+        structureLock = new ReentrantReadWriteLock();
+        spendRanking = new SpendRanking();
+        latestOutgoingTimestamp = new AtomicLong(Integer.MIN_VALUE);
+        paymentScheduler = new PaymentScheduler(schedulerBackend.newQueue());
+        paymentWaves = new PaymentWaves(paymentPool);
+        paymentParties = new ConcurrentAccount[16];
+    }
+
+    // ========== LEVEL 1: Basic Operations ==========
+
+    @Override
+    public boolean createAccount(String accountId, int timestamp) {
+        structureLock.readLock().lock();
+        try {
+            if (accountMap.containsKey(accountId)) {
+                return false;
+            }
+            return accountMap.putIfAbsent(accountId, new ConcurrentAccount(timestamp, accountId)) == null;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryDeposit(accountId, timestamp, amount));
+    }
+
+    @Override
+    public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryTransfer(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public int tryDeposit(String accountId, int timestamp, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        // No structure lock: a deposit racing a merge of its account either
+        // lands before the merge closes it, and moves with the balance, or
+        // finds it closed and looks the ID up again.
+        ConcurrentAccount account = accountMap.get(accountId);
+        while (account != null) {
+            int balance = account.deposit(amount);
+            if (balance != ConcurrentAccount.CLOSED) {
+                account.log.append(new Transaction(timestamp, TransactionCursor.Kind.DEPOSIT, null, amount));
+                return balance;
+            }
+            ConcurrentAccount current = accountMap.get(accountId);
+            account = current != account ? current : null;
+        }
+        return OperationStatus.MISSING_ACCOUNT;
+    }
+
+    @Override
+    public int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        structureLock.readLock().lock();
+        try {
+            ConcurrentAccount fromAcc = accountMap.get(fromId);
+            ConcurrentAccount toAcc = accountMap.get(toId);
+            if (fromAcc == null || toAcc == null) {
+                return OperationStatus.MISSING_ACCOUNT;
+            }
+            fromAcc.lock.lock();
+            try {
+                int balance = fromAcc.debit(amount);
+                if (balance < 0) {
+                    return OperationStatus.INSUFFICIENT_FUNDS;
+                }
+                if (toAcc == fromAcc) {
+                    balance = toAcc.credit(amount);
+                } else {
+                    toAcc.credit(amount);
+                }
+                fromAcc.log.append(new Transaction(timestamp, TransactionCursor.Kind.TRANSFER_OUT, toId, amount));
+                // A transfer to the same account is one row, as in the journal.
+                if (toAcc != fromAcc) {
+                    toAcc.log.append(new Transaction(timestamp, TransactionCursor.Kind.TRANSFER_IN, fromId, amount));
+                }
+                recordOutgoing(fromAcc, timestamp, amount);
+                return balance;
+            } finally {
+                fromAcc.lock.unlock();
+            }
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    // ========== LEVEL 2: Ranking ==========
+
+    @Override
+    public List<String> topSpenders(int timestamp, int n) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+        structureLock.readLock().lock();
+        try {
+            if (timestamp >= latestOutgoingTimestamp.get()) {
+                return spendRanking.top(n);
+            }
+            return SpendRanking.historicalTop(accountMap.values(), timestamp, n);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a committed outgoing amount. Callers hold the account's lock.
+     */
+    private void recordOutgoing(ConcurrentAccount account, int timestamp, int amount) {
+        spendRanking.recordOutgoing(account, amount);
+        account.outgoingHistory.record(timestamp, amount);
+        latestOutgoingTimestamp.accumulateAndGet(timestamp, Math::max);
+    }
+
+    // ========== LEVEL 3: Scheduled Payments ==========
+
+    @Override
+    public String schedulePayment(String accountId, String targetAccId, int timestamp,
+                                  int amount, double cashbackPercentage) {
+        if (amount <= 0) {
+            return null;
+        }
+        structureLock.readLock().lock();
+        try {
+            ConcurrentAccount source = accountMap.get(accountId);
+            ConcurrentAccount target = accountMap.get(targetAccId);
+            if (source == null || target == null) {
+                return null;
+            }
+            long sequence;
+            synchronized (paymentScheduler) {
+                sequence = paymentScheduler.schedule(paymentHandle(source), paymentHandle(target),
+                        timestamp, amount, cashbackPercentage);
+            }
+            return PaymentScheduler.paymentId(sequence);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
+        structureLock.readLock().lock();
+        try {
+            Account account = accountMap.get(accountId);
+            if (account == null) {
+                return null;
+            }
+            // Scheduling may grow the payment table, so look up under its monitor.
+            synchronized (paymentScheduler) {
+                int slot = paymentScheduler.find(paymentId);
+                if (slot == PaymentTable.NOT_FOUND
+                        || paymentParties[paymentScheduler.table.sources[slot]].resolve() != account) {
+                    return null;
+                }
+                return paymentScheduler.table.status(slot).name();
+            }
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void processScheduledPayments(int currentTimestamp) {
+        structureLock.writeLock().lock();
+        try {
+            synchronized (paymentScheduler) {
+                // Merges are resolved here, on one thread: resolve compresses paths.
+                paymentScheduler.pollDue(currentTimestamp, payment -> paymentWaves.add(payment,
+                        paymentHandle((ConcurrentAccount) paymentParties[payment.source].resolve()),
+                        paymentHandle((ConcurrentAccount) paymentParties[payment.target].resolve())));
+                paymentWaves.run(this::executePayment, paymentScheduler::settle);
+            }
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the handle scheduled payments use for the account, assigning one
+     * on first use. Callers hold the scheduler monitor; the party table is
+     * republished through a volatile write so status lookups can read it
+     * without locking.
+     */
+    private int paymentHandle(ConcurrentAccount account) {
+        if (account.paymentHandle == AccountRegistry.NO_ACCOUNT) {
+            ConcurrentAccount[] parties = paymentParties;
+            if (paymentPartyCount == parties.length) {
+                parties = Arrays.copyOf(parties, parties.length * 2);
+            }
+            parties[paymentPartyCount] = account;
+            account.paymentHandle = paymentPartyCount++;
+            paymentParties = parties;
+        }
+        return account.paymentHandle;
+    }
+
+    /**
+     * Applies one due payment between the resolved accounts with the given
+     * payment handles and returns its status. Runs under the exclusive lock,
+     * so no other operation observes the payment half-applied, and in
+     * parallel only with payments touching other accounts. Its spend update
+     * goes straight to the SpendRanking from the worker: a wave updates each
+     * account at most once, and since ranking entries are immutable the
+     * final ranking is the same whatever order the workers run in.
+     */
+    private PaymentStatus executePayment(ScheduledPayment payment, int sourceHandle, int targetHandle) {
+        ConcurrentAccount source = paymentParties[sourceHandle];
+        ConcurrentAccount target = paymentParties[targetHandle];
+        if (source.debit(payment.amount) < 0) {
+            return PaymentStatus.FAILED;
+        }
+        target.credit(payment.amount);
+        source.log.append(new Transaction(payment.timestamp, TransactionCursor.Kind.TRANSFER_OUT,
+                target.accountId, payment.amount));
+        if (target != source) {
+            target.log.append(new Transaction(payment.timestamp, TransactionCursor.Kind.TRANSFER_IN,
+                    source.accountId, payment.amount));
+        }
+        recordOutgoing(source, payment.timestamp, payment.amount);
+        int cashback = payment.cashback();
+        if (cashback > 0) {
+            source.credit(cashback);
+            source.log.append(new Transaction(payment.timestamp, TransactionCursor.Kind.CASHBACK, null, cashback));
+        }
+        return PaymentStatus.PROCESSED;
+    }
+
+    // ========== History ==========
+
+    /**
+     * Returns a cursor over a snapshot of the account's TransactionLog, which
+     * includes the logs of the accounts merged into it; see TransactionCursor.
+     * The snapshot holds every operation that completed before the query
+     * started, and the cursor stays valid while writes continue.
+     */
+    @Override
+    public TransactionCursor history(String accountId, int fromTimestamp, int toTimestamp, long continuation) {
+        structureLock.readLock().lock();
+        try {
+            ConcurrentAccount account = accountMap.get(accountId);
+            if (account == null) {
+                return null;
+            }
+            return new TransactionCursor(account.log.snapshot(), fromTimestamp, toTimestamp, continuation);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    // ========== LEVEL 4: Account Merging ==========
+
+    @Override
+    public void mergeAccounts(String accountId1, String accountId2) {
+        if (accountId1.equals(accountId2)) {
+            return;
+        }
+        structureLock.writeLock().lock();
+        try {
+            ConcurrentAccount survivor = accountMap.get(accountId1);
+            ConcurrentAccount merged = accountMap.get(accountId2);
+            if (survivor == null || merged == null) {
+                return;
+            }
+            survivor.credit(merged.close());
+            survivor.log.appendAll(merged.log);
+            spendRanking.merge(survivor, merged);
+            survivor.absorb(merged);
+            accountMap.remove(accountId2);
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.banking;
+
+import java.util.Arrays;
+
+/**
+ * A reusable batch of deposits for BankingSystem.depositBatch, stored as
+ * parallel arrays rather than one object per deposit.
+ */
+public final class DepositBatch {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    String[] accountIds;
+    int[] timestamps;
+    int[] amounts;
+    int size;
+
+    public DepositBatch() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public DepositBatch(int capacity) {
+        capacity = Math.max(1, capacity);
+        accountIds = new String[capacity];
+        timestamps = new int[capacity];
+        amounts = new int[capacity];
+    }
+
+    /**
+     * Appends a deposit to the batch.
+     */
+    public DepositBatch add(String accountId, int timestamp, int amount) {
+        if (size == accountIds.length) {
+            int capacity = size * 2;
+            accountIds = Arrays.copyOf(accountIds, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+        accountIds[size] = accountId;
+        timestamps[size] = timestamp;
+        amounts[size] = amount;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String accountId(int index) {
+        return accountIds[index];
+    }
+
+    public int timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public int amount(int index) {
+        return amounts[index];
+    }
+
+    /**
+     * Empties the batch, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(accountIds, 0, size, null);
+        size = 0;
+    }
+}
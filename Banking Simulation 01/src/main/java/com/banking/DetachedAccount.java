@@ -0,0 +1,16 @@
+package com.banking;
+
+/**
+ * An account taken out of one BankingSystemImpl to be absorbed by another:
+ * its balance and its spend history. ShardedBankingSystem moves accounts
+ * between shards this way when merging across shards.
+ */
+class DetachedAccount {
+    final int balance;
+    final OutgoingHistory history;
+
+    DetachedAccount(int balance, OutgoingHistory history) {
+        this.balance = balance;
+        this.history = history;
+    }
+}
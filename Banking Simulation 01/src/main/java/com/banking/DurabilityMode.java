@@ -0,0 +1,28 @@
+package com.banking;
+
+/**
+ * When records appended to a DurableBankingSystem's write-ahead log are
+ * forced to stable storage.
+ *
+ * In every mode an operation's record has been handed to the operating system
+ * before the call returns, so it survives a crash of the process.
+ */
+public enum DurabilityMode {
+
+    /**
+     * Forced before the call returns. Concurrent callers share one fsync per
+     * batch (group commit). Survives power loss.
+     */
+    FSYNC_PER_BATCH,
+
+    /**
+     * Forced by a background thread on a fixed interval. A power loss can drop
+     * the operations acknowledged during the last interval.
+     */
+    PERIODIC,
+
+    /**
+     * Never forced; the operating system decides when to write back.
+     */
+    NONE
+}
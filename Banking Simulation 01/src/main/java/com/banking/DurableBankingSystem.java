@@ -0,0 +1,501 @@
+package com.banking;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable Banking System
+ *
+ * Wraps a BankingSystem with a write-ahead log so its state survives a restart.
+ * Every mutating call that changes state (createAccount, deposit, transfer,
+ * schedulePayment, processScheduledPayments, mergeAccounts) is applied to the
+ * wrapped system and appended to the log as one compact binary record. Opening
+ * an existing log replays those records in order, which rebuilds the same
+ * state, payment IDs included.
+ *
+ * Calls are applied and logged under one lock, so the log order is the
+ * execution order. Waiting for the record to become durable happens after
+ * the lock is released, so concurrent callers are group-committed: one write
+ * and, depending on the DurabilityMode, one fsync per batch.
+ *
+ * If the log cannot be written, the call that noticed throws
+ * UncheckedIOException after its change was applied in memory, and so does
+ * every later mutating call.
+ *
+ * When backed by a BankingSystemImpl, snapshot() writes a BankingSnapshot in
+ * the background. Opening with that snapshot restores it and replays only the
+ * log records appended after it was taken.
+ *
+ * A ReplicationLeader can ship the log to ReplicaBankingSystem followers,
+ * which replay it the same way.
+ */
+public class DurableBankingSystem implements BankingSystem, Closeable {
+
+    /** Sync interval used by PERIODIC mode unless another is given. */
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+
+    // Record types
+    private static final byte CREATE_ACCOUNT = 1;
+    private static final byte DEPOSIT = 2;
+    private static final byte TRANSFER = 3;
+    private static final byte SCHEDULE_PAYMENT = 4;
+    private static final byte PROCESS_PAYMENTS = 5;
+    private static final byte MERGE_ACCOUNTS = 6;
+
+    private static final long NOT_LOGGED = -1;
+
+    private final BankingSystem delegate;
+    private final ReentrantLock lock;
+    final Path logFile;
+    WriteAheadLog log;
+    private ByteBuffer record;
+
+    private DurableBankingSystem(BankingSystem delegate, Path logFile) {
+        this.delegate = delegate;
+        this.logFile = logFile;
+        lock = new ReentrantLock();
+        record = ByteBuffer.allocate(256);
+    }
+
+    /**
+     * Opens a durable system backed by a new BankingSystemImpl, replaying the
+     * log file if it exists.
+     */
+    public static DurableBankingSystem open(Path logFile, DurabilityMode mode) throws IOException {
+        return open(logFile, mode, DEFAULT_SYNC_INTERVAL_MILLIS, new BankingSystemImpl());
+    }
+
+    /**
+     * Opens a durable system backed by the given, empty, system, replaying the
+     * log file if it exists.
+     *
+     * @param syncIntervalMillis How often PERIODIC mode forces the log; ignored by other modes
+     */
+    public static DurableBankingSystem open(Path logFile, DurabilityMode mode, long syncIntervalMillis,
+                                            BankingSystem delegate) throws IOException {
+        DurableBankingSystem system = new DurableBankingSystem(delegate, logFile);
+        system.log = WriteAheadLog.open(logFile, mode, syncIntervalMillis, 0, in -> replay(delegate, in));
+        return system;
+    }
+
+    /**
+     * Opens a durable system from the snapshot file, if one exists, plus the
+     * part of the log appended after it. Without a snapshot the whole log is
+     * replayed into a new BankingSystemImpl.
+     */
+    public static DurableBankingSystem open(Path logFile, Path snapshotFile, DurabilityMode mode) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return open(logFile, mode);
+        }
+        BankingSnapshot.Restored restored = BankingSnapshot.restore(snapshotFile, SchedulerBackend.HEAP);
+        DurableBankingSystem system = new DurableBankingSystem(restored.system, logFile);
+        system.log = WriteAheadLog.open(logFile, mode, DEFAULT_SYNC_INTERVAL_MILLIS, restored.logPosition,
+                in -> replay(restored.system, in));
+        return system;
+    }
+
+    // ========== LEVEL 1: Basic Operations ==========
+
+    @Override
+    public boolean createAccount(String accountId, int timestamp) {
+        long position = NOT_LOGGED;
+        boolean created;
+        lock.lock();
+        try {
+            created = delegate.createAccount(accountId, timestamp);
+            if (created) {
+                begin(CREATE_ACCOUNT, timestamp);
+                putId(accountId);
+                position = append();
+            }
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+        return created;
+    }
+
+    @Override
+    public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryDeposit(accountId, timestamp, amount));
+    }
+
+    @Override
+    public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryTransfer(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public int tryDeposit(String accountId, int timestamp, int amount) {
+        long position = NOT_LOGGED;
+        int balance;
+        lock.lock();
+        try {
+            balance = delegate.tryDeposit(accountId, timestamp, amount);
+            if (OperationStatus.isSuccess(balance)) {
+                begin(DEPOSIT, timestamp);
+                putId(accountId);
+                record.putInt(amount);
+                position = append();
+            }
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+        return balance;
+    }
+
+    @Override
+    public int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        long position = NOT_LOGGED;
+        int balance;
+        lock.lock();
+        try {
+            balance = delegate.tryTransfer(fromId, toId, timestamp, amount);
+            if (OperationStatus.isSuccess(balance)) {
+                begin(TRANSFER, timestamp);
+                putId(fromId);
+                putId(toId);
+                record.putInt(amount);
+                position = append();
+            }
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+        return balance;
+    }
+
+    // ========== LEVEL 2: Ranking ==========
+
+    @Override
+    public List<String> topSpenders(int timestamp, int n) {
+        lock.lock();
+        try {
+            return delegate.topSpenders(timestamp, n);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== History ==========
+
+    /**
+     * Reads the range under the system lock into a cursor that stays valid
+     * after it; see TransactionCursor.detach().
+     */
+    @Override
+    public TransactionCursor history(String accountId, int fromTimestamp, int toTimestamp, long continuation) {
+        lock.lock();
+        try {
+            TransactionCursor cursor = delegate.history(accountId, fromTimestamp, toTimestamp, continuation);
+            return cursor != null ? cursor.detach() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== LEVEL 3: Scheduled Payments ==========
+
+    @Override
+    public String schedulePayment(String accountId, String targetAccId, int timestamp,
+                                  int amount, double cashbackPercentage) {
+        long position = NOT_LOGGED;
+        String paymentId;
+        lock.lock();
+        try {
+            paymentId = delegate.schedulePayment(accountId, targetAccId, timestamp, amount, cashbackPercentage);
+            if (paymentId != null) {
+                begin(SCHEDULE_PAYMENT, timestamp);
+                putId(accountId);
+                putId(targetAccId);
+                record.putInt(amount).putDouble(cashbackPercentage);
+                position = append();
+            }
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+        return paymentId;
+    }
+
+    @Override
+    public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
+        lock.lock();
+        try {
+            return delegate.getPaymentStatus(accountId, timestamp, paymentId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void processScheduledPayments(int currentTimestamp) {
+        long position;
+        lock.lock();
+        try {
+            delegate.processScheduledPayments(currentTimestamp);
+            begin(PROCESS_PAYMENTS, currentTimestamp);
+            position = append();
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+    }
+
+    // ========== LEVEL 4: Account Merging ==========
+
+    @Override
+    public void mergeAccounts(String accountId1, String accountId2) {
+        long position;
+        lock.lock();
+        try {
+            delegate.mergeAccounts(accountId1, accountId2);
+            begin(MERGE_ACCOUNTS, 0);
+            putId(accountId1);
+            putId(accountId2);
+            position = append();
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+    }
+
+    // ========== Batch Operations ==========
+
+    /**
+     * Applies the batch under one lock acquisition and waits once for all of
+     * its records to become durable.
+     */
+    @Override
+    public int[] depositBatch(DepositBatch batch) {
+        long position = NOT_LOGGED;
+        int[] results;
+        lock.lock();
+        try {
+            results = delegate.depositBatch(batch);
+            for (int i = 0; i < results.length; i++) {
+                if (OperationStatus.isSuccess(results[i])) {
+                    begin(DEPOSIT, batch.timestamp(i));
+                    putId(batch.accountId(i));
+                    record.putInt(batch.amount(i));
+                    position = append();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+        return results;
+    }
+
+    /**
+     * Applies the batch under one lock acquisition and waits once for all of
+     * its records to become durable.
+     */
+    @Override
+    public int[] transferBatch(TransferBatch batch) {
+        long position = NOT_LOGGED;
+        int[] results;
+        lock.lock();
+        try {
+            results = delegate.transferBatch(batch);
+            for (int i = 0; i < results.length; i++) {
+                if (OperationStatus.isSuccess(results[i])) {
+                    begin(TRANSFER, batch.timestamp(i));
+                    putId(batch.fromId(i));
+                    putId(batch.toId(i));
+                    record.putInt(batch.amount(i));
+                    position = append();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+        return results;
+    }
+
+    // ========== Durability ==========
+
+    /**
+     * Returns the log position just past the last logged operation. A replica
+     * that has applied the log up to it reflects every operation that
+     * returned before this call.
+     */
+    public long logPosition() {
+        return log.appendedPosition();
+    }
+
+    /**
+     * Writes and forces every logged operation, whatever the durability mode.
+     */
+    public void sync() {
+        log.sync();
+    }
+
+    /**
+     * Captures the current state and writes it to the snapshot file on a
+     * background thread. Operations are held back only while the state is
+     * copied. The file is replaced once the snapshot and the log up to it are
+     * on stable storage.
+     *
+     * @throws UnsupportedOperationException If the wrapped system is not a BankingSystemImpl
+     */
+    public CompletableFuture<Void> snapshot(Path snapshotFile) {
+        if (!(delegate instanceof BankingSystemImpl)) {
+            throw new UnsupportedOperationException("Snapshots need a BankingSystemImpl, not "
+                    + delegate.getClass().getSimpleName());
+        }
+        BankingSnapshot snapshot;
+        lock.lock();
+        try {
+            snapshot = BankingSnapshot.capture((BankingSystemImpl) delegate, log.appendedPosition());
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        Thread writer = new Thread(() -> {
+            try {
+                log.sync();
+                snapshot.writeTo(snapshotFile);
+                written.complete(null);
+            } catch (IOException | RuntimeException e) {
+                written.completeExceptionally(e);
+            }
+        }, "snapshot-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return written;
+    }
+
+    /**
+     * Syncs and closes the log. The system must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    private void awaitDurable(long position) {
+        if (position != NOT_LOGGED) {
+            log.awaitDurable(position);
+        }
+    }
+
+    private void begin(byte type, int timestamp) {
+        record.clear();
+        record.put(type).putInt(timestamp);
+    }
+
+    /**
+     * Writes an account ID as an unsigned 16-bit byte length and its UTF-8
+     * bytes. The bytes are encoded straight into the record, the same as
+     * String.getBytes would produce, so logging a call allocates nothing.
+     */
+    private void putId(String accountId) {
+        int length = utf8Length(accountId);
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("Account ID too long to log: " + length + " bytes");
+        }
+        // Leave room for the fixed-size fields that follow.
+        if (record.remaining() < 2 + length + 16) {
+            record = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + 2 + length + 16))
+                    .put(record.flip());
+        }
+        record.putShort((short) length);
+        int chars = accountId.length();
+        for (int i = 0; i < chars; i++) {
+            char c = accountId.charAt(i);
+            if (c < 0x80) {
+                record.put((byte) c);
+            } else if (c < 0x800) {
+                record.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                record.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            } else if (isSurrogatePair(accountId, i)) {
+                int codePoint = Character.toCodePoint(c, accountId.charAt(++i));
+                record.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                // An unpaired surrogate, which getBytes replaces with '?'.
+                record.put((byte) '?');
+            }
+        }
+    }
+
+    private static int utf8Length(String accountId) {
+        int chars = accountId.length();
+        int length = 0;
+        for (int i = 0; i < chars; i++) {
+            char c = accountId.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (!Character.isSurrogate(c)) {
+                length += 3;
+            } else if (isSurrogatePair(accountId, i)) {
+                length += 4;
+                i++;
+            } else {
+                length += 1;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isSurrogatePair(String s, int i) {
+        return Character.isHighSurrogate(s.charAt(i)) && i + 1 < s.length()
+                && Character.isLowSurrogate(s.charAt(i + 1));
+    }
+
+    private long append() {
+        record.flip();
+        return log.append(record);
+    }
+
+    private static String getId(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Applies one logged operation to the given system.
+     */
+    static void replay(BankingSystem delegate, ByteBuffer in) {
+        byte type = in.get();
+        int timestamp = in.getInt();
+        switch (type) {
+            case CREATE_ACCOUNT:
+                delegate.createAccount(getId(in), timestamp);
+                break;
+            case DEPOSIT:
+                delegate.deposit(getId(in), timestamp, in.getInt());
+                break;
+            case TRANSFER:
+                delegate.transfer(getId(in), getId(in), timestamp, in.getInt());
+                break;
+            case SCHEDULE_PAYMENT:
+                delegate.schedulePayment(getId(in), getId(in), timestamp, in.getInt(), in.getDouble());
+                break;
+            case PROCESS_PAYMENTS:
+                delegate.processScheduledPayments(timestamp);
+                break;
+            case MERGE_ACCOUNTS:
+                delegate.mergeAccounts(getId(in), getId(in));
+                break;
+            default:
+                throw new IllegalStateException("Unknown write-ahead log record type " + type);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.banking;
+
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Binary-heap payment queue.
+ *
+ * O(log P) insertion and O(log P) per released payment. Best when due
+ * timestamps are spread out.
+ */
+class HeapPaymentQueue implements PaymentQueue {
+
+    private final PriorityQueue<ScheduledPayment> heap = new PriorityQueue<>(DUE_ORDER);
+
+    @Override
+    public void add(ScheduledPayment payment) {
+        heap.add(payment);
+    }
+
+    @Override
+    public void pollDue(int currentTimestamp, Consumer<ScheduledPayment> consumer) {
+        while (!heap.isEmpty() && heap.peek().timestamp <= currentTimestamp) {
+            consumer.accept(heap.poll());
+        }
+    }
+
+    @Override
+    public int size() {
+        return heap.size();
+    }
+}
@@ -0,0 +1,265 @@
+package com.banking;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumented Banking System
+ *
+ * Wraps a BankingSystem and records, for every operation, the number of
+ * calls, the failures by reason and a latency histogram. Counters are
+ * LongAdders and histograms take one atomic increment per call, so recording
+ * adds little beyond the two System.nanoTime() reads and never blocks.
+ *
+ * Deposit and transfer failures are classified with the wrapped system's
+ * tryDeposit/tryTransfer status codes. Other operations count a false or null
+ * result as a failure with no specific reason.
+ *
+ * Metrics are read through metrics() or, once registerMBean() was called,
+ * through JMX.
+ */
+public class InstrumentedBankingSystem implements BankingSystem, BankingSystemMetricsMXBean {
+
+    private static final int SUCCESS = 0;
+
+    private final BankingSystem delegate;
+    private final OperationRecorder[] recorders;
+
+    public InstrumentedBankingSystem(BankingSystem delegate) {
+        this.delegate = delegate;
+        BankingOperation[] operations = BankingOperation.values();
+        recorders = new OperationRecorder[operations.length];
+        for (BankingOperation operation : operations) {
+            recorders[operation.ordinal()] = new OperationRecorder();
+        }
+    }
+
+    // ========== LEVEL 1: Basic Operations ==========
+
+    @Override
+    public boolean createAccount(String accountId, int timestamp) {
+        long start = System.nanoTime();
+        boolean created = delegate.createAccount(accountId, timestamp);
+        record(BankingOperation.CREATE_ACCOUNT, start, created);
+        return created;
+    }
+
+    @Override
+    public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryDeposit(accountId, timestamp, amount));
+    }
+
+    @Override
+    public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryTransfer(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public int tryDeposit(String accountId, int timestamp, int amount) {
+        long start = System.nanoTime();
+        int result = delegate.tryDeposit(accountId, timestamp, amount);
+        record(BankingOperation.DEPOSIT, start, result);
+        return result;
+    }
+
+    @Override
+    public int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        long start = System.nanoTime();
+        int result = delegate.tryTransfer(fromId, toId, timestamp, amount);
+        record(BankingOperation.TRANSFER, start, result);
+        return result;
+    }
+
+    // ========== LEVEL 2: Ranking ==========
+
+    @Override
+    public List<String> topSpenders(int timestamp, int n) {
+        long start = System.nanoTime();
+        List<String> result = delegate.topSpenders(timestamp, n);
+        record(BankingOperation.TOP_SPENDERS, start, SUCCESS);
+        return result;
+    }
+
+    // ========== LEVEL 3: Scheduled Payments ==========
+
+    @Override
+    public String schedulePayment(String accountId, String targetAccId, int timestamp,
+                                  int amount, double cashbackPercentage) {
+        long start = System.nanoTime();
+        String paymentId = delegate.schedulePayment(accountId, targetAccId, timestamp, amount, cashbackPercentage);
+        record(BankingOperation.SCHEDULE_PAYMENT, start, paymentId != null);
+        return paymentId;
+    }
+
+    @Override
+    public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
+        long start = System.nanoTime();
+        String status = delegate.getPaymentStatus(accountId, timestamp, paymentId);
+        record(BankingOperation.GET_PAYMENT_STATUS, start, status != null);
+        return status;
+    }
+
+    @Override
+    public void processScheduledPayments(int currentTimestamp) {
+        long start = System.nanoTime();
+        delegate.processScheduledPayments(currentTimestamp);
+        record(BankingOperation.PROCESS_SCHEDULED_PAYMENTS, start, SUCCESS);
+    }
+
+    // ========== LEVEL 4: Account Merging ==========
+
+    @Override
+    public void mergeAccounts(String accountId1, String accountId2) {
+        long start = System.nanoTime();
+        delegate.mergeAccounts(accountId1, accountId2);
+        record(BankingOperation.MERGE_ACCOUNTS, start, SUCCESS);
+    }
+
+    // ========== Batch Operations ==========
+
+    /**
+     * Counts each entry as one DEPOSIT with its own outcome; the batch's
+     * duration is spread evenly over its entries.
+     */
+    @Override
+    public int[] depositBatch(DepositBatch batch) {
+        long start = System.nanoTime();
+        int[] results = delegate.depositBatch(batch);
+        recordBatch(BankingOperation.DEPOSIT, start, results);
+        return results;
+    }
+
+    /**
+     * Counts each entry as one TRANSFER with its own outcome; the batch's
+     * duration is spread evenly over its entries.
+     */
+    @Override
+    public int[] transferBatch(TransferBatch batch) {
+        long start = System.nanoTime();
+        int[] results = delegate.transferBatch(batch);
+        recordBatch(BankingOperation.TRANSFER, start, results);
+        return results;
+    }
+
+    /**
+     * Passed through untimed: the cursor does its work after this returns.
+     */
+    @Override
+    public TransactionCursor history(String accountId, int fromTimestamp, int toTimestamp, long continuation) {
+        return delegate.history(accountId, fromTimestamp, toTimestamp, continuation);
+    }
+
+    // ========== Metrics ==========
+
+    /**
+     * Returns the current metrics of one operation.
+     */
+    public OperationMetrics metrics(BankingOperation operation) {
+        return recorders[operation.ordinal()].snapshot(operation);
+    }
+
+    @Override
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> metrics = new ArrayList<>();
+        for (BankingOperation operation : BankingOperation.values()) {
+            metrics.add(metrics(operation));
+        }
+        return metrics;
+    }
+
+    @Override
+    public void reset() {
+        for (OperationRecorder recorder : recorders) {
+            recorder.reset();
+        }
+    }
+
+    /**
+     * Registers this system's metrics with the platform MBean server under
+     * com.banking:type=BankingSystem,name=&lt;name&gt; and returns that name.
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.banking:type=BankingSystem,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    private void record(BankingOperation operation, long start, boolean succeeded) {
+        record(operation, start, succeeded ? SUCCESS : OperationStatus.REJECTED);
+    }
+
+    private void record(BankingOperation operation, long start, int result) {
+        recorders[operation.ordinal()].record(System.nanoTime() - start, result);
+    }
+
+    private void recordBatch(BankingOperation operation, long start, int[] results) {
+        if (results.length == 0) {
+            return;
+        }
+        long perEntry = (System.nanoTime() - start) / results.length;
+        OperationRecorder recorder = recorders[operation.ordinal()];
+        for (int result : results) {
+            recorder.record(perEntry, result);
+        }
+    }
+
+    /**
+     * Counters and latency histogram of one operation. Also used by
+     * WorkloadReplay.
+     */
+    static final class OperationRecorder {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder missingAccount = new LongAdder();
+        private final LongAdder nonPositiveAmount = new LongAdder();
+        private final LongAdder insufficientFunds = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        void record(long nanos, int result) {
+            calls.increment();
+            latency.record(nanos);
+            if (OperationStatus.isSuccess(result)) {
+                return;
+            }
+            failures.increment();
+            switch (result) {
+                case OperationStatus.MISSING_ACCOUNT:
+                    missingAccount.increment();
+                    break;
+                case OperationStatus.NON_POSITIVE_AMOUNT:
+                    nonPositiveAmount.increment();
+                    break;
+                case OperationStatus.INSUFFICIENT_FUNDS:
+                    insufficientFunds.increment();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        OperationMetrics snapshot(BankingOperation operation) {
+            long[] counts = latency.counts();
+            long max = latency.max();
+            return new OperationMetrics(operation, calls.sum(), failures.sum(), missingAccount.sum(),
+                    nonPositiveAmount.sum(), insufficientFunds.sum(),
+                    LatencyHistogram.percentile(counts, max, 0.50),
+                    LatencyHistogram.percentile(counts, max, 0.99),
+                    LatencyHistogram.percentile(counts, max, 0.999),
+                    max);
+        }
+
+        void reset() {
+            calls.reset();
+            failures.reset();
+            missingAccount.reset();
+            nonPositiveAmount.reset();
+            insufficientFunds.reset();
+            latency.reset();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.banking;
+
+/**
+ * Off-Heap Account Table
+ *
+ * The AccountRegistry layout moved into direct memory. Each account is one
+ * fixed-width record indexed by its handle: creation timestamp, balance,
+ * outgoing total, merge links, the head of its outgoing history and where
+ * its ID is stored. IDs are kept as UTF-16 chars in an off-heap arena and
+ * indexed by an off-heap open-addressing table of (hash, handle) pairs, so
+ * looking up, comparing and ranking accounts never builds a String; one is
+ * only decoded for output.
+ *
+ * Outgoing histories are singly linked lists of off-heap entries, newest
+ * first. Each entry carries the latest timestamp of itself and everything
+ * older, so the spend as of a past timestamp is found by walking back only
+ * over the entries after it, however the entries were back-dated.
+ *
+ * Merging is the same union-find aliasing as AccountRegistry: a merged
+ * account keeps its record and history, points at the survivor, and joins
+ * the survivor's member chain.
+ *
+ * The heap holds a few chunk references per region whatever the number of
+ * accounts. Handles and history entries are ints, so the table holds up to
+ * 2^31 of each. Not thread-safe.
+ */
+final class OffHeapAccountTable {
+
+    static final int NO_ACCOUNT = AccountIndex.NOT_FOUND;
+
+    private static final int NO_ENTRY = -1;
+
+    // Account record layout.
+    private static final int ACCOUNT_BYTES = 48;
+    private static final int CREATED = 0;
+    private static final int BALANCE = 4;
+    private static final int OUTGOING = 8;
+    private static final int MERGED_INTO = 16;
+    private static final int NEXT_MEMBER = 20;
+    private static final int LAST_MEMBER = 24;
+    private static final int HISTORY = 28;
+    private static final int ID_OFFSET = 32;
+    private static final int ID_LENGTH = 40;
+    private static final int ID_HASH = 44;
+
+    // History entry layout.
+    private static final int ENTRY_BYTES = 16;
+    private static final int AMOUNT = 0;
+    private static final int TIMESTAMP = 4;
+    private static final int LATEST = 8;
+    private static final int PREVIOUS = 12;
+
+    // Index slot layout; a free slot holds handle 0, stored handles are offset by one.
+    private static final int SLOT_BYTES = 8;
+    private static final int SLOT_HASH = 0;
+    private static final int SLOT_HANDLE = 4;
+
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+    private static final int MAX_INDEX_CHUNK_SHIFT = 17;
+
+    private final OffHeapRecords accounts;
+    private final OffHeapRecords ids;
+    private final OffHeapRecords history;
+    private OffHeapRecords index;
+    private int indexCapacity;
+    private int indexSize;
+    private long idEnd;
+    private int historySize;
+    int count;
+
+    OffHeapAccountTable() {
+        accounts = new OffHeapRecords(ACCOUNT_BYTES, 14);
+        ids = new OffHeapRecords(Character.BYTES, 19);
+        history = new OffHeapRecords(ENTRY_BYTES, 16);
+        indexCapacity = INITIAL_INDEX_CAPACITY;
+        index = newIndex(indexCapacity);
+    }
+
+    // ========== Accounts ==========
+
+    /**
+     * Registers a new account. Returns its handle, or NO_ACCOUNT if the ID is taken.
+     */
+    int create(String accountId, int timestamp) {
+        int hash = hash(accountId);
+        if (find(accountId, hash) != NO_ACCOUNT) {
+            return NO_ACCOUNT;
+        }
+        int handle = count;
+        accounts.ensureCapacity(handle + 1L);
+        int length = accountId.length();
+        ids.ensureCapacity(idEnd + length);
+        for (int i = 0; i < length; i++) {
+            ids.putChar(idEnd + i, 0, accountId.charAt(i));
+        }
+        accounts.putInt(handle, CREATED, timestamp);
+        accounts.putInt(handle, BALANCE, 0);
+        accounts.putLong(handle, OUTGOING, 0);
+        accounts.putInt(handle, MERGED_INTO, NO_ACCOUNT);
+        accounts.putInt(handle, NEXT_MEMBER, NO_ACCOUNT);
+        accounts.putInt(handle, LAST_MEMBER, handle);
+        accounts.putInt(handle, HISTORY, NO_ENTRY);
+        accounts.putLong(handle, ID_OFFSET, idEnd);
+        accounts.putInt(handle, ID_LENGTH, length);
+        accounts.putInt(handle, ID_HASH, hash);
+        idEnd += length;
+        count++;
+        insert(hash, handle);
+        return handle;
+    }
+
+    /**
+     * Returns the handle of the open account with the given ID, or NO_ACCOUNT.
+     */
+    int find(String accountId) {
+        return find(accountId, hash(accountId));
+    }
+
+    /**
+     * Returns true if the handle names an account that has not been merged away.
+     */
+    boolean isOpen(int handle) {
+        return handle >= 0 && handle < count && accounts.getInt(handle, MERGED_INTO) == NO_ACCOUNT;
+    }
+
+    int balance(int handle) {
+        return accounts.getInt(handle, BALANCE);
+    }
+
+    void setBalance(int handle, int balance) {
+        accounts.putInt(handle, BALANCE, balance);
+    }
+
+    long outgoing(int handle) {
+        return accounts.getLong(handle, OUTGOING);
+    }
+
+    /**
+     * Adds an outgoing amount to the account's total and history.
+     */
+    void recordOutgoing(int handle, int timestamp, int amount) {
+        accounts.putLong(handle, OUTGOING, outgoing(handle) + amount);
+        int previous = accounts.getInt(handle, HISTORY);
+        int latest = previous == NO_ENTRY ? timestamp : Math.max(timestamp, history.getInt(previous, LATEST));
+        int entry = historySize++;
+        history.ensureCapacity(historySize);
+        history.putInt(entry, AMOUNT, amount);
+        history.putInt(entry, TIMESTAMP, timestamp);
+        history.putInt(entry, LATEST, latest);
+        history.putInt(entry, PREVIOUS, previous);
+        accounts.putInt(handle, HISTORY, entry);
+    }
+
+    /**
+     * Returns the total the account and everything merged into it had spent
+     * at the given timestamp.
+     */
+    long spentAt(int handle, int timestamp) {
+        long total = 0;
+        for (int member = handle; member != NO_ACCOUNT; member = accounts.getInt(member, NEXT_MEMBER)) {
+            // Start from everything the member sent and take back what came later.
+            long spent = 0;
+            int entry = accounts.getInt(member, HISTORY);
+            while (entry != NO_ENTRY && history.getInt(entry, LATEST) > timestamp) {
+                if (history.getInt(entry, TIMESTAMP) <= timestamp) {
+                    spent += history.getInt(entry, AMOUNT);
+                }
+                entry = history.getInt(entry, PREVIOUS);
+            }
+            for (; entry != NO_ENTRY; entry = history.getInt(entry, PREVIOUS)) {
+                spent += history.getInt(entry, AMOUNT);
+            }
+            total += spent;
+        }
+        return total;
+    }
+
+    /**
+     * Closes a merged account and makes it, with everything merged into it
+     * before, an alias of the survivor, which takes over its outgoing total.
+     */
+    void close(int handle, int survivor) {
+        remove(accounts.getInt(handle, ID_HASH), handle);
+        accounts.putLong(survivor, OUTGOING, outgoing(survivor) + outgoing(handle));
+        accounts.putLong(handle, OUTGOING, 0);
+        accounts.putInt(handle, MERGED_INTO, survivor);
+        accounts.putInt(accounts.getInt(survivor, LAST_MEMBER), NEXT_MEMBER, handle);
+        accounts.putInt(survivor, LAST_MEMBER, accounts.getInt(handle, LAST_MEMBER));
+    }
+
+    /**
+     * Follows merges to the open account that now owns this handle's funds,
+     * pointing the handles on the way straight at it.
+     */
+    int resolve(int handle) {
+        int root = handle;
+        while (accounts.getInt(root, MERGED_INTO) != NO_ACCOUNT) {
+            root = accounts.getInt(root, MERGED_INTO);
+        }
+        while (accounts.getInt(handle, MERGED_INTO) != NO_ACCOUNT && accounts.getInt(handle, MERGED_INTO) != root) {
+            int parent = accounts.getInt(handle, MERGED_INTO);
+            accounts.putInt(handle, MERGED_INTO, root);
+            handle = parent;
+        }
+        return root;
+    }
+
+    /**
+     * Decodes the account's ID.
+     */
+    String id(int handle) {
+        long offset = accounts.getLong(handle, ID_OFFSET);
+        char[] chars = new char[accounts.getInt(handle, ID_LENGTH)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ids.getChar(offset + i, 0);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Compares two accounts' IDs as String.compareTo would.
+     */
+    int compareIds(int first, int second) {
+        long firstOffset = accounts.getLong(first, ID_OFFSET);
+        long secondOffset = accounts.getLong(second, ID_OFFSET);
+        int firstLength = accounts.getInt(first, ID_LENGTH);
+        int secondLength = accounts.getInt(second, ID_LENGTH);
+        int common = Math.min(firstLength, secondLength);
+        for (int i = 0; i < common; i++) {
+            char a = ids.getChar(firstOffset + i, 0);
+            char b = ids.getChar(secondOffset + i, 0);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return firstLength - secondLength;
+    }
+
+    /**
+     * Returns the bytes of direct memory held by the table.
+     */
+    long offHeapBytes() {
+        return accounts.allocatedBytes() + ids.allocatedBytes() + history.allocatedBytes() + index.allocatedBytes();
+    }
+
+    // ========== ID Index ==========
+
+    private int find(String accountId, int hash) {
+        int mask = indexCapacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int stored = index.getInt(slot, SLOT_HANDLE);
+            if (stored == 0) {
+                return NO_ACCOUNT;
+            }
+            if (index.getInt(slot, SLOT_HASH) == hash && idEquals(stored - 1, accountId)) {
+                return stored - 1;
+            }
+        }
+    }
+
+    private boolean idEquals(int handle, String accountId) {
+        int length = accounts.getInt(handle, ID_LENGTH);
+        if (length != accountId.length()) {
+            return false;
+        }
+        long offset = accounts.getLong(handle, ID_OFFSET);
+        for (int i = 0; i < length; i++) {
+            if (ids.getChar(offset + i, 0) != accountId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(int hash, int handle) {
+        if ((indexSize + 1) * 2L > indexCapacity) {
+            resize(indexCapacity * 2);
+        }
+        int mask = indexCapacity - 1;
+        int slot = hash & mask;
+        while (index.getInt(slot, SLOT_HANDLE) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index.putInt(slot, SLOT_HASH, hash);
+        index.putInt(slot, SLOT_HANDLE, handle + 1);
+        indexSize++;
+    }
+
+    /**
+     * Removes the handle's slot, shifting the following probe run back
+     * instead of leaving a tombstone.
+     */
+    private void remove(int hash, int handle) {
+        int mask = indexCapacity - 1;
+        int slot = hash & mask;
+        while (index.getInt(slot, SLOT_HANDLE) != handle + 1) {
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        for (int next = (hole + 1) & mask; index.getInt(next, SLOT_HANDLE) != 0; next = (next + 1) & mask) {
+            int home = index.getInt(next, SLOT_HASH) & mask;
+            // Move the entry back if the hole lies on its probe path.
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                index.putInt(hole, SLOT_HASH, index.getInt(next, SLOT_HASH));
+                index.putInt(hole, SLOT_HANDLE, index.getInt(next, SLOT_HANDLE));
+                hole = next;
+            }
+        }
+        index.putInt(hole, SLOT_HANDLE, 0);
+        indexSize--;
+    }
+
+    private void resize(int capacity) {
+        OffHeapRecords old = index;
+        int oldCapacity = indexCapacity;
+        index = newIndex(capacity);
+        indexCapacity = capacity;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            int stored = old.getInt(i, SLOT_HANDLE);
+            if (stored != 0) {
+                int hash = old.getInt(i, SLOT_HASH);
+                int slot = hash & mask;
+                while (index.getInt(slot, SLOT_HANDLE) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index.putInt(slot, SLOT_HASH, hash);
+                index.putInt(slot, SLOT_HANDLE, stored);
+            }
+        }
+    }
+
+    private static OffHeapRecords newIndex(int capacity) {
+        OffHeapRecords records = new OffHeapRecords(SLOT_BYTES,
+                Math.min(MAX_INDEX_CHUNK_SHIFT, Integer.numberOfTrailingZeros(capacity)));
+        records.ensureCapacity(capacity);
+        return records;
+    }
+
+    private static int hash(String accountId) {
+        int hash = accountId.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
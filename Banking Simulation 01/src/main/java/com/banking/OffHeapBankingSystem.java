@@ -0,0 +1,198 @@
+package com.banking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Off-Heap Banking System
+ *
+ * A storage engine for very large numbers of accounts: the same operations
+ * as BankingSystemImpl over an OffHeapAccountTable, so account records, the
+ * ID index, the IDs themselves and outgoing histories all live in direct
+ * memory. The heap footprint stays roughly constant as accounts grow and the
+ * garbage collector has nothing per account to trace or copy. Scheduled
+ * payments are still kept on the heap, in a PaymentScheduler.
+ *
+ * The trade-offs against BankingSystemImpl: no transaction journal, so no
+ * history queries; and no incrementally maintained ranking, so topSpenders
+ * scans every account, keeping only the best n.
+ *
+ * Not thread-safe, like BankingSystemImpl.
+ */
+public class OffHeapBankingSystem implements BankingSystem {
+
+    private final OffHeapAccountTable accounts;
+    private final PaymentScheduler paymentScheduler;
+    private int latestOutgoingTimestamp;
+
+    public OffHeapBankingSystem() {
+        this(SchedulerBackend.HEAP);
+    }
+
+    public OffHeapBankingSystem(SchedulerBackend schedulerBackend) {
+        accounts = new OffHeapAccountTable();
+        paymentScheduler = new PaymentScheduler(schedulerBackend.newQueue());
+        latestOutgoingTimestamp = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the bytes of direct memory the account table holds.
+     */
+    public long offHeapBytes() {
+        return accounts.offHeapBytes();
+    }
+
+    // ========== LEVEL 1: Basic Operations ==========
+
+    @Override
+    public boolean createAccount(String accountId, int timestamp) {
+        return accounts.create(accountId, timestamp) != OffHeapAccountTable.NO_ACCOUNT;
+    }
+
+    @Override
+    public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryDeposit(accountId, timestamp, amount));
+    }
+
+    @Override
+    public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryTransfer(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public int tryDeposit(String accountId, int timestamp, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        int handle = accounts.find(accountId);
+        if (handle == OffHeapAccountTable.NO_ACCOUNT) {
+            return OperationStatus.MISSING_ACCOUNT;
+        }
+        int balance = accounts.balance(handle) + amount;
+        accounts.setBalance(handle, balance);
+        return balance;
+    }
+
+    @Override
+    public int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        int from = accounts.find(fromId);
+        int to = accounts.find(toId);
+        if (from == OffHeapAccountTable.NO_ACCOUNT || to == OffHeapAccountTable.NO_ACCOUNT) {
+            return OperationStatus.MISSING_ACCOUNT;
+        }
+        if (accounts.balance(from) < amount) {
+            return OperationStatus.INSUFFICIENT_FUNDS;
+        }
+        moveFunds(from, to, timestamp, amount);
+        return accounts.balance(from);
+    }
+
+    /**
+     * Applies a validated transfer: both balances and the sender's spend.
+     */
+    private void moveFunds(int from, int to, int timestamp, int amount) {
+        accounts.setBalance(from, accounts.balance(from) - amount);
+        accounts.setBalance(to, accounts.balance(to) + amount);
+        accounts.recordOutgoing(from, timestamp, amount);
+        latestOutgoingTimestamp = Math.max(latestOutgoingTimestamp, timestamp);
+    }
+
+    // ========== LEVEL 2: Ranking ==========
+
+    /**
+     * Scans every open account, keeping only the best n; IDs are compared
+     * only between accounts with equal totals.
+     */
+    @Override
+    public List<String> topSpenders(int timestamp, int n) {
+        List<String> result = new ArrayList<>();
+        if (n <= 0) {
+            return result;
+        }
+        // Every committed outgoing transaction is visible at this timestamp,
+        // so the running totals are exact.
+        boolean latest = timestamp >= latestOutgoingTimestamp;
+        TopSelection top = new TopSelection(n, accounts.count, accounts::compareIds);
+        for (int handle = 0; handle < accounts.count; handle++) {
+            if (accounts.isOpen(handle)) {
+                top.offer(handle, latest ? accounts.outgoing(handle) : accounts.spentAt(handle, timestamp));
+            }
+        }
+        int size = top.finish();
+        for (int i = 0; i < size; i++) {
+            result.add(accounts.id(top.handle(i)) + "(" + top.total(i) + ")");
+        }
+        return result;
+    }
+
+    // ========== LEVEL 3: Scheduled Payments ==========
+
+    @Override
+    public String schedulePayment(String accountId, String targetAccId, int timestamp,
+                                  int amount, double cashbackPercentage) {
+        int source = accounts.find(accountId);
+        int target = accounts.find(targetAccId);
+        if (source == OffHeapAccountTable.NO_ACCOUNT || target == OffHeapAccountTable.NO_ACCOUNT || amount <= 0) {
+            return null;
+        }
+        long sequence = paymentScheduler.schedule(source, target, timestamp, amount, cashbackPercentage);
+        return PaymentScheduler.paymentId(sequence);
+    }
+
+    @Override
+    public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
+        int slot = paymentScheduler.find(paymentId);
+        int handle = accounts.find(accountId);
+        PaymentTable payments = paymentScheduler.table;
+        if (slot == PaymentTable.NOT_FOUND || handle == OffHeapAccountTable.NO_ACCOUNT
+                || accounts.resolve(payments.sources[slot]) != handle) {
+            return null;
+        }
+        return payments.status(slot).name();
+    }
+
+    @Override
+    public void processScheduledPayments(int currentTimestamp) {
+        paymentScheduler.pollDue(currentTimestamp, this::executePayment);
+    }
+
+    /**
+     * Settles one due payment against the accounts that currently own the
+     * source and target, crediting cashback to the source on success.
+     */
+    private void executePayment(ScheduledPayment payment) {
+        int source = accounts.resolve(payment.source);
+        int target = accounts.resolve(payment.target);
+        if (accounts.balance(source) < payment.amount) {
+            paymentScheduler.settle(payment, PaymentStatus.FAILED);
+            return;
+        }
+        moveFunds(source, target, payment.timestamp, payment.amount);
+        int cashback = payment.cashback();
+        if (cashback > 0) {
+            accounts.setBalance(source, accounts.balance(source) + cashback);
+        }
+        paymentScheduler.settle(payment, PaymentStatus.PROCESSED);
+    }
+
+    // ========== LEVEL 4: Account Merging ==========
+
+    @Override
+    public void mergeAccounts(String accountId1, String accountId2) {
+        if (accountId1.equals(accountId2)) {
+            return;
+        }
+        int survivor = accounts.find(accountId1);
+        int merged = accounts.find(accountId2);
+        if (survivor == OffHeapAccountTable.NO_ACCOUNT || merged == OffHeapAccountTable.NO_ACCOUNT) {
+            return;
+        }
+        accounts.setBalance(survivor, accounts.balance(survivor) + accounts.balance(merged));
+        accounts.setBalance(merged, 0);
+        accounts.close(merged, survivor);
+    }
+}
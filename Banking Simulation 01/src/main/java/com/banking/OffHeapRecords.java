@@ -0,0 +1,100 @@
+package com.banking;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Off-Heap Records
+ *
+ * A growable array of fixed-width records in direct memory, outside the Java
+ * heap. Records live in chunks of 2^chunkShift records, each one direct
+ * ByteBuffer, so the array can exceed 2 GB, growing never copies a record,
+ * and the heap holds only one small buffer object per chunk. Fields are read
+ * and written by record index and byte offset within the record, in native
+ * byte order. New records read as zero.
+ *
+ * The memory is released when the buffers are garbage collected. Not
+ * thread-safe.
+ */
+final class OffHeapRecords {
+
+    private final int recordBytes;
+    private final int chunkShift;
+    private final int chunkMask;
+    private ByteBuffer[] chunks;
+    private int chunkCount;
+
+    /**
+     * @param recordBytes The width of one record
+     * @param chunkShift Log2 of the records per chunk; a chunk must stay under 2 GB
+     */
+    OffHeapRecords(int recordBytes, int chunkShift) {
+        if (((long) recordBytes << chunkShift) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunks of " + (1L << chunkShift) + " records of "
+                    + recordBytes + " bytes exceed 2 GB");
+        }
+        this.recordBytes = recordBytes;
+        this.chunkShift = chunkShift;
+        chunkMask = (1 << chunkShift) - 1;
+        chunks = new ByteBuffer[4];
+    }
+
+    /**
+     * Returns the number of records that fit without allocating another chunk.
+     */
+    long capacity() {
+        return (long) chunkCount << chunkShift;
+    }
+
+    /**
+     * Allocates chunks until the given number of records fit.
+     */
+    void ensureCapacity(long records) {
+        while (capacity() < records) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(recordBytes << chunkShift).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Returns the bytes of direct memory held.
+     */
+    long allocatedBytes() {
+        return (long) chunkCount * recordBytes << chunkShift;
+    }
+
+    int getInt(long record, int field) {
+        return chunk(record).getInt(offset(record, field));
+    }
+
+    void putInt(long record, int field, int value) {
+        chunk(record).putInt(offset(record, field), value);
+    }
+
+    long getLong(long record, int field) {
+        return chunk(record).getLong(offset(record, field));
+    }
+
+    void putLong(long record, int field, long value) {
+        chunk(record).putLong(offset(record, field), value);
+    }
+
+    char getChar(long record, int field) {
+        return chunk(record).getChar(offset(record, field));
+    }
+
+    void putChar(long record, int field, char value) {
+        chunk(record).putChar(offset(record, field), value);
+    }
+
+    private ByteBuffer chunk(long record) {
+        return chunks[(int) (record >>> chunkShift)];
+    }
+
+    private int offset(long record, int field) {
+        return ((int) record & chunkMask) * recordBytes + field;
+    }
+}
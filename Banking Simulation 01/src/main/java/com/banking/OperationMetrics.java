@@ -0,0 +1,84 @@
+package com.banking;
+
+/**
+ * Point-in-time metrics of one BankingOperation, as reported by
+ * InstrumentedBankingSystem. Latencies are in nanoseconds and accurate to
+ * within 6.25%.
+ */
+public final class OperationMetrics {
+
+    private final BankingOperation operation;
+    private final long calls;
+    private final long failures;
+    private final long missingAccountFailures;
+    private final long nonPositiveAmountFailures;
+    private final long insufficientFundsFailures;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    OperationMetrics(BankingOperation operation, long calls, long failures, long missingAccountFailures,
+                     long nonPositiveAmountFailures, long insufficientFundsFailures,
+                     long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.operation = operation;
+        this.calls = calls;
+        this.failures = failures;
+        this.missingAccountFailures = missingAccountFailures;
+        this.nonPositiveAmountFailures = nonPositiveAmountFailures;
+        this.insufficientFundsFailures = insufficientFundsFailures;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public BankingOperation getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    /** Calls that failed for any reason, including the reasons counted separately below. */
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getMissingAccountFailures() {
+        return missingAccountFailures;
+    }
+
+    public long getNonPositiveAmountFailures() {
+        return nonPositiveAmountFailures;
+    }
+
+    public long getInsufficientFundsFailures() {
+        return insufficientFundsFailures;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return operation + ": calls=" + calls + " failures=" + failures
+                + " (missingAccount=" + missingAccountFailures + " nonPositiveAmount=" + nonPositiveAmountFailures
+                + " insufficientFunds=" + insufficientFundsFailures + ")"
+                + " p50=" + p50Nanos + "ns p99=" + p99Nanos + "ns p999=" + p999Nanos + "ns max=" + maxNanos + "ns";
+    }
+}
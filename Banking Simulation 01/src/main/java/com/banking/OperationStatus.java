@@ -0,0 +1,38 @@
+package com.banking;
+
+import java.util.Optional;
+
+/**
+ * Status codes returned by the primitive, handle-based and batch operations.
+ *
+ * A successful deposit or transfer returns the resulting balance, which is
+ * never negative. Failures return one of the negative codes below.
+ */
+public final class OperationStatus {
+
+    /** The account, or one of the two transfer accounts, does not exist or was merged away. */
+    public static final int MISSING_ACCOUNT = -1;
+
+    /** The amount is zero or negative. */
+    public static final int NON_POSITIVE_AMOUNT = -2;
+
+    /** The source account balance does not cover the amount. */
+    public static final int INSUFFICIENT_FUNDS = -3;
+
+    /** The operation failed, and the implementation does not report why. */
+    public static final int REJECTED = -4;
+
+    private OperationStatus() {
+    }
+
+    public static boolean isSuccess(int result) {
+        return result >= 0;
+    }
+
+    /**
+     * Converts a balance-or-status result to the Optional form used by BankingSystem.
+     */
+    public static Optional<Integer> toOptional(int result) {
+        return isSuccess(result) ? Optional.of(result) : Optional.empty();
+    }
+}
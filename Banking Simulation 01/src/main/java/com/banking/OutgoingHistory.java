@@ -0,0 +1,144 @@
+package com.banking;
+
+import java.util.Arrays;
+
+/**
+ * Outgoing History
+ *
+ * Timestamp-ordered cumulative outgoing totals for one account. Entry i holds
+ * the total amount sent by the account at or before timestamps[i], so the
+ * spend as of any timestamp is found by binary search instead of filtering
+ * the account's transactions.
+ *
+ * Transactions sharing a timestamp collapse into a single entry.
+ */
+class OutgoingHistory {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] timestamps;
+    private long[] cumulative;
+    private int size;
+
+    OutgoingHistory() {
+        timestamps = new int[INITIAL_CAPACITY];
+        cumulative = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Records an outgoing amount at the given timestamp.
+     * Appends in O(1) when timestamps arrive in order; a back-dated entry is
+     * inserted in place and every later total is shifted by the amount.
+     */
+    void record(int timestamp, long amount) {
+        if (size > 0 && timestamps[size - 1] == timestamp) {
+            cumulative[size - 1] += amount;
+            return;
+        }
+        if (size == 0 || timestamps[size - 1] < timestamp) {
+            ensureCapacity(size + 1);
+            timestamps[size] = timestamp;
+            cumulative[size] = total() + amount;
+            size++;
+            return;
+        }
+        int index = search(timestamp);
+        if (index < 0 || timestamps[index] != timestamp) {
+            int insertAt = index + 1;
+            ensureCapacity(size + 1);
+            System.arraycopy(timestamps, insertAt, timestamps, insertAt + 1, size - insertAt);
+            System.arraycopy(cumulative, insertAt, cumulative, insertAt + 1, size - insertAt);
+            timestamps[insertAt] = timestamp;
+            cumulative[insertAt] = insertAt > 0 ? cumulative[insertAt - 1] : 0;
+            size++;
+            index = insertAt;
+        }
+        for (int i = index; i < size; i++) {
+            cumulative[i] += amount;
+        }
+    }
+
+    /**
+     * Returns the total amount sent at or before the given timestamp.
+     */
+    long spentAt(int timestamp) {
+        int index = search(timestamp);
+        return index < 0 ? 0 : cumulative[index];
+    }
+
+    /**
+     * Returns the total amount sent over the whole history.
+     */
+    long total() {
+        return size == 0 ? 0 : cumulative[size - 1];
+    }
+
+    /**
+     * Returns the timestamp of the latest entry, or Integer.MIN_VALUE if empty.
+     */
+    int lastTimestamp() {
+        return size == 0 ? Integer.MIN_VALUE : timestamps[size - 1];
+    }
+
+    /**
+     * Merges another history into this one, summing both totals at every timestamp.
+     */
+    void merge(OutgoingHistory other) {
+        if (other.size == 0) {
+            return;
+        }
+        int[] mergedTimestamps = new int[size + other.size];
+        long[] mergedCumulative = new long[size + other.size];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        long mine = 0;
+        long theirs = 0;
+        while (i < size || j < other.size) {
+            int next;
+            if (j >= other.size || (i < size && timestamps[i] <= other.timestamps[j])) {
+                next = timestamps[i];
+            } else {
+                next = other.timestamps[j];
+            }
+            if (i < size && timestamps[i] == next) {
+                mine = cumulative[i++];
+            }
+            if (j < other.size && other.timestamps[j] == next) {
+                theirs = other.cumulative[j++];
+            }
+            mergedTimestamps[k] = next;
+            mergedCumulative[k] = mine + theirs;
+            k++;
+        }
+        timestamps = mergedTimestamps;
+        cumulative = mergedCumulative;
+        size = k;
+    }
+
+    /**
+     * Returns the index of the last entry with a timestamp at or before the
+     * given one, or -1 if every entry is later.
+     */
+    private int search(int timestamp) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > timestamps.length) {
+            int newCapacity = Math.max(capacity, timestamps.length * 2);
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            cumulative = Arrays.copyOf(cumulative, newCapacity);
+        }
+    }
+}
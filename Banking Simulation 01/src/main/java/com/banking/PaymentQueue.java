@@ -0,0 +1,36 @@
+package com.banking;
+
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * Payment Queue
+ *
+ * Holds pending scheduled payments and releases them in due order:
+ * 1. Due timestamp (ascending)
+ * 2. Scheduling sequence (ascending) for ties
+ *
+ * Implementations are not thread-safe.
+ */
+interface PaymentQueue {
+
+    Comparator<ScheduledPayment> DUE_ORDER = Comparator
+            .comparingInt((ScheduledPayment payment) -> payment.timestamp)
+            .thenComparingLong(payment -> payment.sequence);
+
+    /**
+     * Adds a pending payment.
+     */
+    void add(ScheduledPayment payment);
+
+    /**
+     * Removes every payment due at or before the given timestamp and hands
+     * them to the consumer in due order.
+     */
+    void pollDue(int currentTimestamp, Consumer<ScheduledPayment> consumer);
+
+    /**
+     * Returns the number of pending payments.
+     */
+    int size();
+}
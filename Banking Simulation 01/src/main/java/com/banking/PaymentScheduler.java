@@ -0,0 +1,131 @@
+package com.banking;
+
+import java.util.function.Consumer;
+
+/**
+ * Payment Scheduler
+ *
+ * Pending payments are kept in a PaymentQueue that releases them by due
+ * timestamp, then by scheduling order, so processing a tick only touches the
+ * payments that are actually due. Every payment, pending or settled, is also
+ * kept in a PaymentTable keyed by its sequence number.
+ *
+ * Payment IDs are the sequence number rendered as "payment<sequence>". They
+ * are only built when returned to a caller; a status lookup parses the
+ * sequence back out of the ID and probes the table, with no allocation and
+ * no string hashing.
+ *
+ * The scheduler is not thread-safe; concurrent owners serialize every call.
+ */
+class PaymentScheduler {
+
+    static final long NO_PAYMENT = 0;
+
+    private static final String ID_PREFIX = "payment";
+
+    private final PaymentQueue pending;
+    final PaymentTable table;
+    private long nextSequence;
+
+    PaymentScheduler(PaymentQueue pending) {
+        this.pending = pending;
+        table = new PaymentTable();
+        nextSequence = 1;
+    }
+
+    /**
+     * Registers a new pending payment between two account handles and
+     * returns its sequence number.
+     */
+    long schedule(int source, int target, int timestamp,
+                  int amount, double cashbackPercentage) {
+        long sequence = nextSequence++;
+        table.insert(sequence, source, target, timestamp, amount, cashbackPercentage, PaymentStatus.SCHEDULED);
+        pending.add(new ScheduledPayment(sequence, source, target, timestamp, amount, cashbackPercentage));
+        return sequence;
+    }
+
+    /**
+     * Returns the ID of the payment with the given sequence number.
+     */
+    static String paymentId(long sequence) {
+        return ID_PREFIX + sequence;
+    }
+
+    /**
+     * Returns the sequence number a payment ID stands for, or NO_PAYMENT if
+     * it is not an ID paymentId() could have produced.
+     */
+    static long parseSequence(String paymentId) {
+        if (paymentId == null || !paymentId.startsWith(ID_PREFIX)) {
+            return NO_PAYMENT;
+        }
+        int length = paymentId.length();
+        int start = ID_PREFIX.length();
+        // paymentId() never writes a leading zero, so such an ID names no payment.
+        if (length == start || paymentId.charAt(start) == '0') {
+            return NO_PAYMENT;
+        }
+        long sequence = 0;
+        for (int i = start; i < length; i++) {
+            int digit = paymentId.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || sequence > (Long.MAX_VALUE - digit) / 10) {
+                return NO_PAYMENT;
+            }
+            sequence = sequence * 10 + digit;
+        }
+        return sequence;
+    }
+
+    /**
+     * Returns the table slot of the payment with the given ID, or
+     * PaymentTable.NOT_FOUND if it was never scheduled. The slot is valid
+     * until the next payment is scheduled.
+     */
+    int find(String paymentId) {
+        long sequence = parseSequence(paymentId);
+        return sequence == NO_PAYMENT ? PaymentTable.NOT_FOUND : table.find(sequence);
+    }
+
+    /**
+     * Records how a released payment was settled.
+     */
+    void settle(ScheduledPayment payment, PaymentStatus status) {
+        table.setStatus(table.find(payment.sequence), status);
+    }
+
+    /**
+     * Returns the sequence number the next scheduled payment will get.
+     */
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Reinstates a payment read back from a snapshot; one still SCHEDULED is
+     * queued again.
+     */
+    void restore(long sequence, int source, int target, int timestamp, int amount,
+                 double cashbackPercentage, PaymentStatus status) {
+        table.insert(sequence, source, target, timestamp, amount, cashbackPercentage, status);
+        if (status == PaymentStatus.SCHEDULED) {
+            pending.add(new ScheduledPayment(sequence, source, target, timestamp, amount, cashbackPercentage));
+        }
+    }
+
+    /**
+     * Sets the sequence number the next scheduled payment will get, once a
+     * snapshot's payments are restored.
+     */
+    void restoreNextSequence(long nextSequence) {
+        this.nextSequence = nextSequence;
+    }
+
+    /**
+     * Removes every payment due at or before the given timestamp and hands
+     * them to the consumer in due order.
+     */
+    void pollDue(int currentTimestamp, Consumer<ScheduledPayment> consumer) {
+        pending.pollDue(currentTimestamp, consumer);
+    }
+}
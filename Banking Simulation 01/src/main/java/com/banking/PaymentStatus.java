@@ -0,0 +1,12 @@
+package com.banking;
+
+/**
+ * The status of a scheduled payment, as kept in a PaymentTable.
+ */
+enum PaymentStatus {
+    SCHEDULED,
+    PROCESSED,
+    FAILED;
+
+    static final PaymentStatus[] VALUES = values();
+}
@@ -0,0 +1,151 @@
+package com.banking;
+
+/**
+ * Payment Table
+ *
+ * Open-addressing map from payment sequence number to the payment's state,
+ * stored column by column in flat primitive arrays: source and target
+ * handles, due timestamp, amount, cashback percentage and status. Slots are
+ * probed linearly, so a lookup reads a few array elements and touches no
+ * objects. Sequences are handed out densely, so the low bits of the sequence
+ * are the hash: consecutive payments fill consecutive slots without
+ * colliding, and lookups in scheduling order walk the columns in order. A
+ * slot takes 33 bytes and the table grows at three quarters full. Payments
+ * are never removed, so there are no tombstones.
+ *
+ * Slot numbers are valid until the next insert, which may move every entry.
+ * The table is not thread-safe.
+ */
+class PaymentTable {
+
+    static final int NOT_FOUND = -1;
+
+    // Sequences start at 1, so 0 marks a free slot.
+    private static final long FREE = 0;
+    private static final int INITIAL_CAPACITY = 16;
+
+    long[] sequences;
+    int[] sources;
+    int[] targets;
+    int[] timestamps;
+    int[] amounts;
+    double[] cashbackPercentages;
+    byte[] statuses;
+    private int size;
+
+    PaymentTable() {
+        this(0);
+    }
+
+    /**
+     * Creates a table that holds the given number of payments without resizing.
+     */
+    PaymentTable(int expectedSize) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the slot of the payment with the given sequence, or NOT_FOUND.
+     */
+    int find(long sequence) {
+        int mask = sequences.length - 1;
+        for (int slot = slot(sequence, mask); sequences[slot] != FREE; slot = (slot + 1) & mask) {
+            if (sequences[slot] == sequence) {
+                return slot;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Adds a payment with a sequence not yet in the table and returns its slot.
+     */
+    int insert(long sequence, int source, int target, int timestamp, int amount,
+               double cashbackPercentage, PaymentStatus status) {
+        if ((size + 1) * 4L > sequences.length * 3L) {
+            resize(sequences.length * 2);
+        }
+        int mask = sequences.length - 1;
+        int slot = slot(sequence, mask);
+        while (sequences[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        sequences[slot] = sequence;
+        sources[slot] = source;
+        targets[slot] = target;
+        timestamps[slot] = timestamp;
+        amounts[slot] = amount;
+        cashbackPercentages[slot] = cashbackPercentage;
+        statuses[slot] = (byte) status.ordinal();
+        size++;
+        return slot;
+    }
+
+    PaymentStatus status(int slot) {
+        return PaymentStatus.VALUES[statuses[slot]];
+    }
+
+    void setStatus(int slot, PaymentStatus status) {
+        statuses[slot] = (byte) status.ordinal();
+    }
+
+    /**
+     * Returns whether the slot holds a payment.
+     */
+    boolean isOccupied(int slot) {
+        return sequences[slot] != FREE;
+    }
+
+    int capacity() {
+        return sequences.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        sequences = new long[capacity];
+        sources = new int[capacity];
+        targets = new int[capacity];
+        timestamps = new int[capacity];
+        amounts = new int[capacity];
+        cashbackPercentages = new double[capacity];
+        statuses = new byte[capacity];
+    }
+
+    private void resize(int capacity) {
+        long[] oldSequences = sequences;
+        int[] oldSources = sources;
+        int[] oldTargets = targets;
+        int[] oldTimestamps = timestamps;
+        int[] oldAmounts = amounts;
+        double[] oldCashback = cashbackPercentages;
+        byte[] oldStatuses = statuses;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldSequences.length; i++) {
+            if (oldSequences[i] != FREE) {
+                int slot = slot(oldSequences[i], mask);
+                while (sequences[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                sequences[slot] = oldSequences[i];
+                sources[slot] = oldSources[i];
+                targets[slot] = oldTargets[i];
+                timestamps[slot] = oldTimestamps[i];
+                amounts[slot] = oldAmounts[i];
+                cashbackPercentages[slot] = oldCashback[i];
+                statuses[slot] = oldStatuses[i];
+            }
+        }
+    }
+
+    private static int slot(long sequence, int mask) {
+        return (int) sequence & mask;
+    }
+}
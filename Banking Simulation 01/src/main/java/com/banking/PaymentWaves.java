@@ -0,0 +1,193 @@
+package com.banking;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Payment Waves
+ *
+ * Runs a batch of due payments across a ForkJoinPool with the same outcome as
+ * running them one by one in due order.
+ *
+ * Two payments conflict when they share an account, source or target. Each
+ * payment is placed in the wave after the latest wave holding an earlier
+ * payment it conflicts with, so:
+ * - the payments in one wave touch pairwise disjoint accounts and can run in
+ *   parallel;
+ * - every account sees its payments in due order, one wave after another.
+ * A payment's outcome only depends on the balances of its own accounts, so
+ * each one is settled exactly as sequential processing would settle it.
+ *
+ * Accounts are identified by dense non-negative keys the owner assigns, so
+ * the conflict graph is never built explicitly: one int per key remembers the
+ * last wave that touched it. Statuses are collected per payment and handed to
+ * the settler in due order once every wave has run, so the owner's payment
+ * table is never written from the pool.
+ *
+ * Batches too small to be worth splitting run inline on the calling thread.
+ * Not thread-safe; the owner runs one batch at a time.
+ */
+final class PaymentWaves {
+
+    /**
+     * Settles one payment between two resolved accounts and returns its status.
+     * Called concurrently for payments with disjoint accounts.
+     */
+    interface Execution {
+        PaymentStatus execute(ScheduledPayment payment, int source, int target);
+    }
+
+    /**
+     * Records a payment's final status. Called on the owner's thread, in due order.
+     */
+    interface Settlement {
+        void settle(ScheduledPayment payment, PaymentStatus status);
+    }
+
+    // Batches and waves smaller than this run on the calling thread.
+    static final int PARALLEL_THRESHOLD = 256;
+    // Payments per leaf task when a wave is split across the pool.
+    private static final int LEAF_SIZE = 64;
+
+    private final ForkJoinPool pool;
+    private ScheduledPayment[] payments;
+    private int[] sources;
+    private int[] targets;
+    private int[] waves;
+    private int[] order;
+    private PaymentStatus[] statuses;
+    private int[] lastWave;
+    private int size;
+    private int waveCount;
+
+    PaymentWaves(ForkJoinPool pool) {
+        this.pool = pool;
+        payments = new ScheduledPayment[16];
+        sources = new int[16];
+        targets = new int[16];
+        waves = new int[16];
+        lastWave = new int[16];
+    }
+
+    /**
+     * Adds the next due payment, between the accounts with the given keys.
+     */
+    void add(ScheduledPayment payment, int source, int target) {
+        if (size == payments.length) {
+            int capacity = size * 2;
+            payments = Arrays.copyOf(payments, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            waves = Arrays.copyOf(waves, capacity);
+        }
+        int key = Math.max(source, target);
+        if (key >= lastWave.length) {
+            lastWave = Arrays.copyOf(lastWave, Math.max(key + 1, lastWave.length * 2));
+        }
+        // lastWave holds wave + 1, so zero means untouched in this batch.
+        int wave = Math.max(lastWave[source], lastWave[target]);
+        lastWave[source] = wave + 1;
+        lastWave[target] = wave + 1;
+        waveCount = Math.max(waveCount, wave + 1);
+        payments[size] = payment;
+        sources[size] = source;
+        targets[size] = target;
+        waves[size] = wave;
+        size++;
+    }
+
+    /**
+     * Runs every added payment, then settles them in the order they were
+     * added and empties the batch.
+     */
+    void run(Execution execution, Settlement settlement) {
+        try {
+            if (size < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+                for (int i = 0; i < size; i++) {
+                    settlement.settle(payments[i], execution.execute(payments[i], sources[i], targets[i]));
+                }
+                return;
+            }
+            if (statuses == null || statuses.length < size) {
+                statuses = new PaymentStatus[payments.length];
+                order = new int[payments.length];
+            }
+            // Counting sort by wave; within a wave, payments keep due order.
+            int[] waveStarts = new int[waveCount + 1];
+            for (int i = 0; i < size; i++) {
+                waveStarts[waves[i] + 1]++;
+            }
+            for (int wave = 0; wave < waveCount; wave++) {
+                waveStarts[wave + 1] += waveStarts[wave];
+            }
+            int[] next = Arrays.copyOf(waveStarts, waveCount);
+            for (int i = 0; i < size; i++) {
+                order[next[waves[i]]++] = i;
+            }
+            for (int wave = 0; wave < waveCount; wave++) {
+                int start = waveStarts[wave];
+                int end = waveStarts[wave + 1];
+                if (end - start < PARALLEL_THRESHOLD) {
+                    execute(execution, start, end);
+                } else {
+                    // invoke returns only once the whole wave has run, which
+                    // also publishes its effects to the next wave.
+                    pool.invoke(new WaveTask(execution, start, end));
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                settlement.settle(payments[i], statuses[i]);
+            }
+        } finally {
+            clear();
+        }
+    }
+
+    private void execute(Execution execution, int start, int end) {
+        for (int k = start; k < end; k++) {
+            int i = order[k];
+            statuses[i] = execution.execute(payments[i], sources[i], targets[i]);
+        }
+    }
+
+    private void clear() {
+        for (int i = 0; i < size; i++) {
+            lastWave[sources[i]] = 0;
+            lastWave[targets[i]] = 0;
+            payments[i] = null;
+        }
+        if (statuses != null) {
+            Arrays.fill(statuses, 0, Math.min(size, statuses.length), null);
+        }
+        size = 0;
+        waveCount = 0;
+    }
+
+    /**
+     * Runs a stretch of one wave, splitting it in halves down to LEAF_SIZE.
+     */
+    private final class WaveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Execution execution;
+        private final int start;
+        private final int end;
+
+        WaveTask(Execution execution, int start, int end) {
+            this.execution = execution;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= LEAF_SIZE) {
+                execute(execution, start, end);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new WaveTask(execution, start, middle), new WaveTask(execution, middle, end));
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.banking;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Replica Banking System
+ *
+ * A read-only follower of a ReplicationLeader. A background thread receives
+ * the leader's write-ahead log and replays it into a local BankingSystemImpl,
+ * which serves topSpenders, history and getPaymentStatus without touching
+ * the leader.
+ * Every mutating operation throws UnsupportedOperationException.
+ *
+ * Staleness is bounded: whenever the replica has applied everything the
+ * leader reported written, it notes the time. A read that finds the last such
+ * moment more than maxStalenessMillis ago, because the replica fell behind or
+ * lost its leader, throws IllegalStateException instead of answering from
+ * old state. For read-your-writes, pass the leader's logPosition() after a
+ * write to awaitPosition() before reading.
+ *
+ * A follower starts either from nothing, taking the leader's snapshot when it
+ * offers one, or from a local snapshot file; in both cases only the log after
+ * the snapshot's position is shipped.
+ *
+ * Replayed records are applied under a write lock in groups, and reads share
+ * a read lock. Reads only resolve merge aliases, whose path compression
+ * writes the same root from every reader.
+ */
+public final class ReplicaBankingSystem implements BankingSystem, Closeable {
+
+    // Records applied per write-lock acquisition while catching up.
+    private static final int APPLY_GROUP = 1024;
+
+    private final BankingSystemImpl state;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final long maxStalenessNanos;
+    private final ReadWriteLock lock;
+    private final Object progress = new Object();
+    private final Thread applier;
+    final long startPosition;
+
+    private volatile long appliedPosition;
+    private volatile long leaderPosition;
+    private volatile long caughtUpNanos;
+    private volatile IOException failure;
+
+    private ReplicaBankingSystem(BankingSystemImpl state, long startPosition, Socket socket, DataInputStream in,
+                                 long maxStalenessMillis) {
+        this.state = state;
+        this.startPosition = startPosition;
+        this.socket = socket;
+        this.in = in;
+        maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+        lock = new ReentrantReadWriteLock();
+        appliedPosition = startPosition;
+        leaderPosition = startPosition;
+        caughtUpNanos = System.nanoTime() - maxStalenessNanos - 1;
+        applier = new Thread(this::applyLoop, "replica-applier");
+        applier.setDaemon(true);
+    }
+
+    /**
+     * Connects to a leader and follows it from nothing, starting from the
+     * leader's snapshot when it has one.
+     */
+    public static ReplicaBankingSystem connect(String host, int port, long maxStalenessMillis) throws IOException {
+        Socket socket = new Socket(host, port);
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeLong(ReplicationLeader.SNAPSHOT_REQUESTED);
+            out.flush();
+            BankingSystemImpl state;
+            long position;
+            if (in.readBoolean()) {
+                BankingSnapshot.Restored restored = receiveSnapshot(in);
+                state = restored.system;
+                position = restored.logPosition;
+            } else {
+                state = new BankingSystemImpl();
+                position = 0;
+            }
+            return follow(state, position, socket, in, maxStalenessMillis);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Restores a local snapshot file and follows the leader from the
+     * snapshot's position on.
+     */
+    public static ReplicaBankingSystem connect(String host, int port, Path snapshotFile, long maxStalenessMillis)
+            throws IOException {
+        BankingSnapshot.Restored restored = BankingSnapshot.restore(snapshotFile, SchedulerBackend.HEAP);
+        Socket socket = new Socket(host, port);
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            return follow(restored.system, restored.logPosition, socket, in, maxStalenessMillis);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private static ReplicaBankingSystem follow(BankingSystemImpl state, long position, Socket socket,
+                                              DataInputStream in, long maxStalenessMillis) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeLong(position);
+        out.flush();
+        ReplicaBankingSystem replica = new ReplicaBankingSystem(state, position, socket, in, maxStalenessMillis);
+        replica.applier.start();
+        return replica;
+    }
+
+    /**
+     * Copies the snapshot the leader sends to a temporary file, since restore
+     * maps it, and restores it.
+     */
+    private static BankingSnapshot.Restored receiveSnapshot(DataInputStream in) throws IOException {
+        long size = in.readLong();
+        Path file = Files.createTempFile("replica", ".snapshot");
+        try {
+            Files.copy(new BoundedInputStream(in, size), file, StandardCopyOption.REPLACE_EXISTING);
+            return BankingSnapshot.restore(file, SchedulerBackend.HEAP);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // ========== Replication ==========
+
+    /**
+     * Returns the leader's log position up to which this replica has applied.
+     */
+    public long appliedPosition() {
+        return appliedPosition;
+    }
+
+    /**
+     * Returns how long ago, in milliseconds, the replica had last applied
+     * everything its leader had written.
+     */
+    public long stalenessMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - caughtUpNanos);
+    }
+
+    /**
+     * Blocks until the replica has applied the leader's log up to the given
+     * position, as returned by DurableBankingSystem.logPosition().
+     *
+     * @return Whether the position was reached within the timeout
+     */
+    public boolean awaitPosition(long position, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            long remaining = timeoutMillis;
+            while (appliedPosition < position && remaining > 0) {
+                progress.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+        return appliedPosition >= position;
+    }
+
+    /**
+     * Receives log records and applies them in groups. Each group is read and
+     * checked first, so the write lock is never held while waiting on the
+     * network.
+     */
+    private void applyLoop() {
+        CRC32 checksum = new CRC32();
+        ByteBuffer group = ByteBuffer.allocate(64 * 1024);
+        try {
+            while (true) {
+                long leader = in.readLong();
+                long remaining = in.readLong();
+                long position = appliedPosition;
+                while (remaining > 0) {
+                    group.clear();
+                    int records = 0;
+                    while (records < APPLY_GROUP && remaining > 0) {
+                        int length = in.readInt();
+                        int expected = in.readInt();
+                        if (length < 0 || WriteAheadLog.HEADER_BYTES + length > remaining) {
+                            throw new IOException("Malformed log record at position " + position);
+                        }
+                        if (group.remaining() < Integer.BYTES + length) {
+                            if (records > 0 && length <= group.capacity() - Integer.BYTES) {
+                                // Apply what we have; this record starts the next group.
+                                apply(group, records);
+                                group.clear();
+                                records = 0;
+                            } else {
+                                group = ByteBuffer.allocate(Math.max(group.capacity() * 2, group.position()
+                                        + Integer.BYTES + length)).put(group.flip());
+                            }
+                        }
+                        group.putInt(length);
+                        in.readFully(group.array(), group.position(), length);
+                        checksum.reset();
+                        checksum.update(group.array(), group.position(), length);
+                        if ((int) checksum.getValue() != expected) {
+                            throw new IOException("Corrupt log record at position " + position);
+                        }
+                        group.position(group.position() + length);
+                        records++;
+                        position += WriteAheadLog.HEADER_BYTES + length;
+                        remaining -= WriteAheadLog.HEADER_BYTES + length;
+                    }
+                    apply(group, records);
+                    appliedPosition = position;
+                }
+                leaderPosition = leader;
+                if (position >= leader) {
+                    caughtUpNanos = System.nanoTime();
+                }
+                synchronized (progress) {
+                    progress.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Replays the records of the group, each stored as its int length and
+     * payload.
+     */
+    private void apply(ByteBuffer group, int records) {
+        ByteBuffer next = group.duplicate().flip();
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < records; i++) {
+                int length = next.getInt();
+                DurableBankingSystem.replay(state, next.slice().limit(length));
+                next.position(next.position() + length);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops following the leader. Reads keep answering from the last applied
+     * state until it is older than the staleness bound.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== Reads ==========
+
+    @Override
+    public List<String> topSpenders(int timestamp, int n) {
+        checkStaleness();
+        lock.readLock().lock();
+        try {
+            return state.topSpenders(timestamp, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the range under the read lock into a cursor that stays valid
+     * while replay goes on; see TransactionCursor.detach().
+     */
+    @Override
+    public TransactionCursor history(String accountId, int fromTimestamp, int toTimestamp, long continuation) {
+        checkStaleness();
+        lock.readLock().lock();
+        try {
+            TransactionCursor cursor = state.history(accountId, fromTimestamp, toTimestamp, continuation);
+            return cursor != null ? cursor.detach() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
+        checkStaleness();
+        lock.readLock().lock();
+        try {
+            return state.getPaymentStatus(accountId, timestamp, paymentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void checkStaleness() {
+        long staleness = System.nanoTime() - caughtUpNanos;
+        if (staleness > maxStalenessNanos) {
+            IllegalStateException error = new IllegalStateException("Replica has not caught up with its leader for "
+                    + TimeUnit.NANOSECONDS.toMillis(staleness) + " ms (applied " + appliedPosition
+                    + " of " + leaderPosition + ")");
+            if (failure != null) {
+                error.initCause(failure);
+            }
+            throw error;
+        }
+    }
+
+    // ========== Writes ==========
+
+    @Override
+    public boolean createAccount(String accountId, int timestamp) {
+        throw readOnly();
+    }
+
+    @Override
+    public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+        throw readOnly();
+    }
+
+    @Override
+    public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
+        throw readOnly();
+    }
+
+    @Override
+    public String schedulePayment(String accountId, String targetAccId, int timestamp,
+                                  int amount, double cashbackPercentage) {
+        throw readOnly();
+    }
+
+    @Override
+    public void processScheduledPayments(int currentTimestamp) {
+        throw readOnly();
+    }
+
+    @Override
+    public void mergeAccounts(String accountId1, String accountId2) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Replicas are read-only; send writes to the leader");
+    }
+
+    /**
+     * Reads at most a fixed number of bytes from the wrapped stream.
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final DataInputStream in;
+        private long remaining;
+
+        BoundedInputStream(DataInputStream in, long remaining) {
+            this.in = in;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            int value = in.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
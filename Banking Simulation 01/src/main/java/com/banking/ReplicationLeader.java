@@ -0,0 +1,216 @@
+package com.banking;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replication Leader
+ *
+ * Ships a DurableBankingSystem's write-ahead log to ReplicaBankingSystem
+ * followers over TCP. The log already holds every state change in execution
+ * order, so followers receive its bytes unchanged, records and CRCs included,
+ * and replay them exactly as reopening the log would. Bytes are sent from
+ * the file with transferTo, so shipping costs the leader no copies and never
+ * takes its lock; a follower only ever sees records already written out.
+ *
+ * Protocol, big-endian:
+ *   follower -> leader  long position, or SNAPSHOT_REQUESTED to start from
+ *                       nothing
+ *   leader -> follower  when SNAPSHOT_REQUESTED: byte 1, long size and the
+ *                       snapshot file, or byte 0 without one; the follower
+ *                       then sends the position it starts from
+ *   leader -> follower  repeated: long leaderPosition, long length, then
+ *                       length bytes of log records starting at the
+ *                       follower's position
+ *
+ * A message of length 0 is a heartbeat, sent when the log has not grown for
+ * HEARTBEAT_MILLIS, so an idle follower still learns it is up to date.
+ *
+ * Each follower is served by its own thread. The log is never truncated, so a
+ * follower can resume from any position it has reached.
+ */
+public final class ReplicationLeader implements Closeable {
+
+    static final long SNAPSHOT_REQUESTED = -1;
+    static final long HEARTBEAT_MILLIS = 50;
+
+    private final DurableBankingSystem system;
+    private final Path snapshotFile;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService followers;
+    private final Set<SocketChannel> openChannels;
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    private ReplicationLeader(DurableBankingSystem system, Path snapshotFile, ServerSocketChannel serverChannel) {
+        this.system = system;
+        this.snapshotFile = snapshotFile;
+        this.serverChannel = serverChannel;
+        AtomicInteger followerCount = new AtomicInteger();
+        followers = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "replication-follower-" + followerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        openChannels = ConcurrentHashMap.newKeySet();
+        acceptor = new Thread(this::acceptLoop, "replication-accept");
+        acceptor.setDaemon(true);
+    }
+
+    /**
+     * Starts shipping the system's log on the given local port; 0 picks a free
+     * port. Followers that start from nothing replay the whole log.
+     */
+    public static ReplicationLeader start(DurableBankingSystem system, int port) throws IOException {
+        return start(system, port, null);
+    }
+
+    /**
+     * Starts shipping the system's log on the given local port. Followers that
+     * start from nothing are sent the snapshot file, when it exists, and then
+     * the log from the snapshot's position on.
+     */
+    public static ReplicationLeader start(DurableBankingSystem system, int port, Path snapshotFile)
+            throws IOException {
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+        ReplicationLeader leader = new ReplicationLeader(system, snapshotFile, serverChannel);
+        leader.acceptor.start();
+        return leader;
+    }
+
+    /**
+     * Returns the local port followers connect to.
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting followers and disconnects every connected one.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverChannel.close();
+        for (SocketChannel channel : openChannels) {
+            channel.close();
+        }
+        followers.shutdown();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            openChannels.add(channel);
+            followers.execute(() -> serve(channel));
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel; FileChannel logFile = FileChannel.open(system.logFile, StandardOpenOption.READ)) {
+            channel.socket().setTcpNoDelay(true);
+            ByteBuffer header = ByteBuffer.allocate(2 * Long.BYTES);
+            long position = readPosition(channel, header);
+            if (position == SNAPSHOT_REQUESTED) {
+                sendSnapshot(channel);
+                position = readPosition(channel, header);
+            }
+            WriteAheadLog log = system.log;
+            while (!closed) {
+                long written = log.awaitWritten(position, HEARTBEAT_MILLIS);
+                if (position < 0 || position > written) {
+                    throw new IOException("Follower position " + position + " is outside the log");
+                }
+                header.clear();
+                header.putLong(written).putLong(written - position).flip();
+                writeFully(channel, header);
+                while (position < written) {
+                    position += logFile.transferTo(position, written - position, channel);
+                }
+            }
+        } catch (ClosedChannelException e) {
+            // Closed by the follower or by close().
+        } catch (IOException e) {
+            // A broken or misbehaving follower is dropped; it can reconnect and resume.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            openChannels.remove(channel);
+        }
+    }
+
+    private void sendSnapshot(SocketChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(1 + Long.BYTES);
+        FileChannel snapshot = openSnapshot();
+        if (snapshot == null) {
+            header.put((byte) 0).flip();
+            writeFully(channel, header);
+            return;
+        }
+        // The open channel keeps reading the file it opened even if a newer
+        // snapshot replaces it meanwhile.
+        try (snapshot) {
+            long size = snapshot.size();
+            header.put((byte) 1).putLong(size).flip();
+            writeFully(channel, header);
+            for (long sent = 0; sent < size; ) {
+                sent += snapshot.transferTo(sent, size - sent, channel);
+            }
+        }
+    }
+
+    private FileChannel openSnapshot() throws IOException {
+        if (snapshotFile == null) {
+            return null;
+        }
+        try {
+            return FileChannel.open(snapshotFile, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static long readPosition(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear().limit(Long.BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new ClosedChannelException();
+            }
+        }
+        return buffer.getLong(0);
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
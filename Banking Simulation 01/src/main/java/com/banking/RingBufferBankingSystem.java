@@ -0,0 +1,434 @@
+package com.banking;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ring-Buffer Banking System
+ *
+ * A single-writer engine in the style of a disruptor. Every operation is
+ * written into a preallocated command slot of a ring buffer and applied by
+ * one dedicated writer thread to a private BankingSystemImpl, so account
+ * state is never contended and the results are exactly those of running the
+ * commands one after another in publication order.
+ *
+ * - A caller claims the next sequence number with one atomic increment, waits
+ *   until the slot that sequence maps to has been released by its previous
+ *   user, fills in the command and publishes it.
+ * - The writer drains every consecutively published command in one batch:
+ *   the journal is grown once for the whole batch, and each command's result
+ *   is written back into its slot, which doubles as the completion slot.
+ * - The caller waits for its completion, reads the result and releases the
+ *   slot for the caller one lap later.
+ *
+ * Both sides spin briefly and then park; the other side unparks them, so an
+ * idle engine uses no CPU. Reads go through the ring too, so they observe
+ * every command published before them.
+ *
+ * close() stops the writer; it must not race with other calls.
+ */
+public class RingBufferBankingSystem implements BankingSystem, Closeable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int CREATE_ACCOUNT = 0;
+    private static final int DEPOSIT = 1;
+    private static final int TRANSFER = 2;
+    private static final int TOP_SPENDERS = 3;
+    private static final int SCHEDULE_PAYMENT = 4;
+    private static final int GET_PAYMENT_STATUS = 5;
+    private static final int PROCESS_PAYMENTS = 6;
+    private static final int MERGE_ACCOUNTS = 7;
+    private static final int DEPOSIT_BATCH = 8;
+    private static final int TRANSFER_BATCH = 9;
+
+    // Spinning only pays off when the other side can run at the same time.
+    private static final int SPIN_LIMIT = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+
+    /**
+     * One command and, once applied, its result. The volatile sequence
+     * markers order the plain fields between the caller and the writer.
+     */
+    private static final class Slot {
+        int type;
+        String first;
+        String second;
+        int timestamp;
+        int amount;
+        double cashbackPercentage;
+        Object argument;
+
+        int status;
+        Object result;
+        RuntimeException error;
+
+        volatile long published;
+        volatile long completed;
+        volatile long released;
+        volatile Thread waiter;
+    }
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong nextSequence;
+    private final BankingSystemImpl system;
+    private final Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean running;
+    private volatile long batches;
+    private volatile long commands;
+
+    public RingBufferBankingSystem() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RingBufferBankingSystem(int capacity) {
+        this(capacity, SchedulerBackend.HEAP);
+    }
+
+    /**
+     * @param capacity Number of command slots, a power of two
+     */
+    public RingBufferBankingSystem(int capacity, SchedulerBackend schedulerBackend) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            Slot slot = new Slot();
+            slot.published = -1;
+            slot.completed = -1;
+            slot.released = i - capacity;
+            ring[i] = slot;
+        }
+        mask = capacity - 1;
+        nextSequence = new AtomicLong();
+        system = new BankingSystemImpl(schedulerBackend);
+        running = true;
+        writer = new Thread(this::runWriter, "bank-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ========== LEVEL 1: Basic Operations ==========
+
+    @Override
+    public boolean createAccount(String accountId, int timestamp) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = CREATE_ACCOUNT;
+        slot.first = accountId;
+        slot.timestamp = timestamp;
+        return callForStatus(sequence, slot) != 0;
+    }
+
+    @Override
+    public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryDeposit(accountId, timestamp, amount));
+    }
+
+    @Override
+    public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryTransfer(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public int tryDeposit(String accountId, int timestamp, int amount) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = DEPOSIT;
+        slot.first = accountId;
+        slot.timestamp = timestamp;
+        slot.amount = amount;
+        return callForStatus(sequence, slot);
+    }
+
+    @Override
+    public int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = TRANSFER;
+        slot.first = fromId;
+        slot.second = toId;
+        slot.timestamp = timestamp;
+        slot.amount = amount;
+        return callForStatus(sequence, slot);
+    }
+
+    // ========== LEVEL 2: Ranking ==========
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> topSpenders(int timestamp, int n) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = TOP_SPENDERS;
+        slot.timestamp = timestamp;
+        slot.amount = n;
+        return (List<String>) callForResult(sequence, slot);
+    }
+
+    // ========== LEVEL 3: Scheduled Payments ==========
+
+    @Override
+    public String schedulePayment(String accountId, String targetAccId, int timestamp,
+                                  int amount, double cashbackPercentage) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = SCHEDULE_PAYMENT;
+        slot.first = accountId;
+        slot.second = targetAccId;
+        slot.timestamp = timestamp;
+        slot.amount = amount;
+        slot.cashbackPercentage = cashbackPercentage;
+        return (String) callForResult(sequence, slot);
+    }
+
+    @Override
+    public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = GET_PAYMENT_STATUS;
+        slot.first = accountId;
+        slot.second = paymentId;
+        slot.timestamp = timestamp;
+        return (String) callForResult(sequence, slot);
+    }
+
+    @Override
+    public void processScheduledPayments(int currentTimestamp) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = PROCESS_PAYMENTS;
+        slot.timestamp = currentTimestamp;
+        callForStatus(sequence, slot);
+    }
+
+    // ========== LEVEL 4: Account Merging ==========
+
+    @Override
+    public void mergeAccounts(String accountId1, String accountId2) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = MERGE_ACCOUNTS;
+        slot.first = accountId1;
+        slot.second = accountId2;
+        callForStatus(sequence, slot);
+    }
+
+    // ========== Batch Operations ==========
+
+    @Override
+    public int[] depositBatch(DepositBatch batch) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = DEPOSIT_BATCH;
+        slot.argument = batch;
+        return (int[]) callForResult(sequence, slot);
+    }
+
+    @Override
+    public int[] transferBatch(TransferBatch batch) {
+        long sequence = claim();
+        Slot slot = slot(sequence);
+        slot.type = TRANSFER_BATCH;
+        slot.argument = batch;
+        return (int[]) callForResult(sequence, slot);
+    }
+
+    /**
+     * Returns the number of batches the writer has applied, and with
+     * commandsApplied() the average batch size.
+     */
+    public long batchesApplied() {
+        return batches;
+    }
+
+    /**
+     * Returns the number of commands the writer has applied.
+     */
+    public long commandsApplied() {
+        return commands;
+    }
+
+    /**
+     * Stops the writer thread once it has applied every published command.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== Ring Buffer ==========
+
+    private Slot slot(long sequence) {
+        return ring[(int) sequence & mask];
+    }
+
+    /**
+     * Claims the next sequence and waits until its slot is free, which only
+     * takes long when a full lap of callers is still in flight.
+     */
+    private long claim() {
+        if (!running) {
+            throw new IllegalStateException("RingBufferBankingSystem is closed");
+        }
+        long sequence = nextSequence.getAndIncrement();
+        Slot slot = slot(sequence);
+        long previous = sequence - ring.length;
+        int spins = 0;
+        while (slot.released != previous) {
+            if (spins++ < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return sequence;
+    }
+
+    private int callForStatus(long sequence, Slot slot) {
+        complete(sequence, slot);
+        int status = slot.status;
+        release(sequence, slot);
+        return status;
+    }
+
+    private Object callForResult(long sequence, Slot slot) {
+        complete(sequence, slot);
+        Object result = slot.result;
+        release(sequence, slot);
+        return result;
+    }
+
+    /**
+     * Publishes the filled slot and waits for the writer to apply it.
+     */
+    private void complete(long sequence, Slot slot) {
+        slot.published = sequence;
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        int spins = 0;
+        while (slot.completed != sequence) {
+            if (spins++ < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                // Checked again after registering, so a completion written
+                // in between is not missed.
+                slot.waiter = Thread.currentThread();
+                if (slot.completed != sequence) {
+                    LockSupport.park(this);
+                }
+            }
+        }
+        slot.waiter = null;
+        RuntimeException error = slot.error;
+        if (error != null) {
+            release(sequence, slot);
+            throw error;
+        }
+    }
+
+    private void release(long sequence, Slot slot) {
+        slot.first = null;
+        slot.second = null;
+        slot.argument = null;
+        slot.result = null;
+        slot.error = null;
+        slot.released = sequence;
+    }
+
+    private void runWriter() {
+        long next = 0;
+        int spins = 0;
+        while (true) {
+            if (slot(next).published != next) {
+                if (!running) {
+                    return;
+                }
+                if (spins++ < SPIN_LIMIT) {
+                    Thread.onSpinWait();
+                } else {
+                    writerParked = true;
+                    if (slot(next).published != next && running) {
+                        LockSupport.park(this);
+                    }
+                    writerParked = false;
+                }
+                continue;
+            }
+            spins = 0;
+            long end = next + 1;
+            while (end - next < ring.length && slot(end).published == end) {
+                end++;
+            }
+            system.journal.ensureCapacity(system.journal.size + (int) (end - next));
+            // Counted before any caller is released, so a caller that has
+            // returned always finds its command in commandsApplied().
+            commands += end - next;
+            batches++;
+            for (long sequence = next; sequence < end; sequence++) {
+                Slot slot = slot(sequence);
+                apply(slot);
+                slot.completed = sequence;
+                Thread waiter = slot.waiter;
+                if (waiter != null) {
+                    LockSupport.unpark(waiter);
+                }
+            }
+            next = end;
+        }
+    }
+
+    private void apply(Slot slot) {
+        try {
+            switch (slot.type) {
+                case CREATE_ACCOUNT:
+                    slot.status = system.createAccount(slot.first, slot.timestamp) ? 1 : 0;
+                    break;
+                case DEPOSIT:
+                    slot.status = system.tryDeposit(slot.first, slot.timestamp, slot.amount);
+                    break;
+                case TRANSFER:
+                    slot.status = system.tryTransfer(slot.first, slot.second, slot.timestamp, slot.amount);
+                    break;
+                case TOP_SPENDERS:
+                    slot.result = system.topSpenders(slot.timestamp, slot.amount);
+                    break;
+                case SCHEDULE_PAYMENT:
+                    slot.result = system.schedulePayment(slot.first, slot.second, slot.timestamp,
+                            slot.amount, slot.cashbackPercentage);
+                    break;
+                case GET_PAYMENT_STATUS:
+                    slot.result = system.getPaymentStatus(slot.first, slot.timestamp, slot.second);
+                    break;
+                case PROCESS_PAYMENTS:
+                    system.processScheduledPayments(slot.timestamp);
+                    break;
+                case MERGE_ACCOUNTS:
+                    system.mergeAccounts(slot.first, slot.second);
+                    break;
+                case DEPOSIT_BATCH:
+                    slot.result = system.depositBatch((DepositBatch) slot.argument);
+                    break;
+                case TRANSFER_BATCH:
+                    slot.result = system.transferBatch((TransferBatch) slot.argument);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown command " + slot.type);
+            }
+        } catch (RuntimeException e) {
+            slot.error = e;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.banking;
+
+/**
+ * A pending payment as held by a PaymentQueue until it is due. Its status
+ * lives in the scheduler's PaymentTable.
+ */
+class ScheduledPayment {
+    final long sequence;
+    final int source;
+    final int target;
+    final int timestamp;
+    final int amount;
+    final double cashbackPercentage;
+
+    public ScheduledPayment(long sequence, int source, int target,
+                            int timestamp, int amount, double cashbackPercentage) {
+        this.sequence = sequence;
+        this.source = source;
+        this.target = target;
+        this.timestamp = timestamp;
+        this.amount = amount;
+        this.cashbackPercentage = cashbackPercentage;
+    }
+
+    /**
+     * Returns the cashback credited to the source once the payment succeeds.
+     */
+    int cashback() {
+        return (int) (amount * cashbackPercentage / 100);
+    }
+}
@@ -0,0 +1,30 @@
+package com.banking;
+
+/**
+ * Storage engine for pending scheduled payments.
+ */
+public enum SchedulerBackend {
+
+    /**
+     * Binary heap: O(log P) insertion and release. Suits spread-out due timestamps.
+     */
+    HEAP {
+        @Override
+        PaymentQueue newQueue() {
+            return new HeapPaymentQueue();
+        }
+    },
+
+    /**
+     * Hierarchical timing wheel: O(1) insertion and bulk release of whole
+     * buckets. Suits very large volumes due at a few shared timestamps.
+     */
+    TIMING_WHEEL {
+        @Override
+        PaymentQueue newQueue() {
+            return new TimingWheelPaymentQueue();
+        }
+    };
+
+    abstract PaymentQueue newQueue();
+}
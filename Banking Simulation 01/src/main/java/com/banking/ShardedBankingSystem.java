@@ -0,0 +1,472 @@
+package com.banking;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Sharded Banking System
+ *
+ * Partitions accounts by ID hash across N in-process shards. Each shard is a
+ * BankingSystemImpl confined to its own thread: every operation on a shard is
+ * submitted to that thread, so shards run in parallel and never share state.
+ *
+ * - Operations on a single account, and transfers between two accounts of the
+ *   same shard, run as one task on that shard.
+ * - A cross-shard transfer is a two-phase protocol. Prepare reserves the
+ *   amount on the source shard (taking it out of the balance, so it can never
+ *   be spent twice) while the target shard checks the target account. Commit
+ *   then credits the target and records the source's outgoing side; if the
+ *   target is missing the reservation is released instead.
+ * - topSpenders asks every shard for its own top n, as (ID, total) pairs,
+ *   in parallel and selects the overall top n from them.
+ * - Scheduled payments live in a PaymentScheduler on the coordinator, whose
+ *   payment parties follow merges across shards; payment IDs stay global.
+ * - A merge within one shard is the shard's own O(1) merge. A merge across
+ *   shards detaches the merged account from its shard and moves its funds and
+ *   spend history to the survivor's shard.
+ *
+ * Like ConcurrentBankingSystem, single-account operations and transfers share
+ * a structure lock, while merges, payment processing and topSpenders take it
+ * exclusively, so accounts cannot disappear in the middle of a transfer.
+ */
+public class ShardedBankingSystem implements BankingSystem, Closeable {
+
+    private static final class Shard {
+        final BankingSystemImpl system;
+        final ExecutorService executor;
+
+        Shard(int index) {
+            system = new BankingSystemImpl();
+            executor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "bank-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<T> task) {
+            return CompletableFuture.supplyAsync(task, executor);
+        }
+
+        <T> T call(Supplier<T> task) {
+            return await(submit(task));
+        }
+    }
+
+    private final Shard[] shards;
+    private final ReentrantReadWriteLock structureLock;
+    private final PaymentScheduler paymentScheduler;
+    // Payment parties: one per account that took part in a scheduled payment,
+    // pointing at the party it was merged into, if any.
+    private final ConcurrentHashMap<String, Integer> partyOf;
+    private volatile String[] partyIds;
+    private volatile int[] partyMergedInto;
+    private int partyCount;
+
+    public ShardedBankingSystem() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedBankingSystem(int shardCount) {
+        this(shardCount, SchedulerBackend.HEAP);
+    }
+
+    public ShardedBankingSystem(int shardCount, SchedulerBackend schedulerBackend) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+        structureLock = new ReentrantReadWriteLock();
+        paymentScheduler = new PaymentScheduler(schedulerBackend.newQueue());
+        partyOf = new ConcurrentHashMap<>();
+        partyIds = new String[16];
+        partyMergedInto = new int[16];
+    }
+
+    /**
+     * Returns the number of shards.
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the index of the shard that owns the account ID.
+     */
+    int shardIndex(String accountId) {
+        int h = accountId.hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    private Shard shardOf(String accountId) {
+        return shards[shardIndex(accountId)];
+    }
+
+    // ========== LEVEL 1: Basic Operations ==========
+
+    @Override
+    public boolean createAccount(String accountId, int timestamp) {
+        structureLock.readLock().lock();
+        try {
+            Shard shard = shardOf(accountId);
+            return shard.call(() -> shard.system.createAccount(accountId, timestamp));
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryDeposit(accountId, timestamp, amount));
+    }
+
+    @Override
+    public Optional<Integer> transfer(String fromId, String toId, int timestamp, int amount) {
+        return OperationStatus.toOptional(tryTransfer(fromId, toId, timestamp, amount));
+    }
+
+    @Override
+    public int tryDeposit(String accountId, int timestamp, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        structureLock.readLock().lock();
+        try {
+            Shard shard = shardOf(accountId);
+            return shard.call(() -> shard.system.tryDeposit(accountId, timestamp, amount));
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int tryTransfer(String fromId, String toId, int timestamp, int amount) {
+        if (amount <= 0) {
+            return OperationStatus.NON_POSITIVE_AMOUNT;
+        }
+        structureLock.readLock().lock();
+        try {
+            return move(fromId, toId, timestamp, amount);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Transfers between two accounts, locally or with the two-phase protocol.
+     * Callers hold the structure lock.
+     *
+     * @return The new balance of the source account, or a negative OperationStatus code
+     */
+    private int move(String fromId, String toId, int timestamp, int amount) {
+        Shard source = shardOf(fromId);
+        Shard target = shardOf(toId);
+        if (source == target) {
+            return source.call(() -> source.system.tryTransfer(fromId, toId, timestamp, amount));
+        }
+        // Phase 1: reserve on the source and check the target, in parallel.
+        CompletableFuture<int[]> reservation = source.submit(() -> {
+            int handle = source.system.accountHandle(fromId);
+            return new int[] {handle, source.system.reserve(handle, amount)};
+        });
+        int targetHandle = target.call(() -> target.system.accountHandle(toId));
+        int[] reserved = await(reservation);
+        int fromHandle = reserved[0];
+        int balance = reserved[1];
+        if (targetHandle == AccountRegistry.NO_ACCOUNT) {
+            if (balance >= 0) {
+                source.call(() -> {
+                    source.system.release(fromHandle, amount);
+                    return null;
+                });
+            }
+            return OperationStatus.MISSING_ACCOUNT;
+        }
+        if (balance < 0) {
+            return balance;
+        }
+        // Phase 2: commit both sides.
+        CompletableFuture<Void> incoming = target.submit(() -> {
+            target.system.credit(targetHandle, timestamp, amount, TransactionJournal.TRANSFER_IN);
+            return null;
+        });
+        source.call(() -> {
+            source.system.commitOutgoing(fromHandle, timestamp, amount);
+            return null;
+        });
+        await(incoming);
+        return balance;
+    }
+
+    // ========== LEVEL 2: Ranking ==========
+
+    @Override
+    public List<String> topSpenders(int timestamp, int n) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+        structureLock.writeLock().lock();
+        try {
+            List<CompletableFuture<ShardRanking>> parts = new ArrayList<>(shards.length);
+            for (Shard shard : shards) {
+                parts.add(shard.submit(() -> ShardRanking.of(shard.system, timestamp, n)));
+            }
+            int candidates = 0;
+            ShardRanking[] rankings = new ShardRanking[shards.length];
+            for (int i = 0; i < shards.length; i++) {
+                rankings[i] = await(parts.get(i));
+                candidates += rankings[i].size;
+            }
+            String[] ids = new String[candidates];
+            long[] totals = new long[candidates];
+            int candidate = 0;
+            for (ShardRanking ranking : rankings) {
+                System.arraycopy(ranking.ids, 0, ids, candidate, ranking.size);
+                System.arraycopy(ranking.totals, 0, totals, candidate, ranking.size);
+                candidate += ranking.size;
+            }
+            TopSelection top = new TopSelection(n, candidates, (a, b) -> ids[a].compareTo(ids[b]));
+            for (int i = 0; i < candidates; i++) {
+                top.offer(i, totals[i]);
+            }
+            int size = top.finish();
+            List<String> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(ids[top.handle(i)] + "(" + top.total(i) + ")");
+            }
+            return result;
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * One shard's top n as (ID, total) pairs, read on the shard's thread.
+     */
+    private static final class ShardRanking {
+        final String[] ids;
+        final long[] totals;
+        final int size;
+
+        private ShardRanking(String[] ids, long[] totals, int size) {
+            this.ids = ids;
+            this.totals = totals;
+            this.size = size;
+        }
+
+        static ShardRanking of(BankingSystemImpl system, int timestamp, int n) {
+            int[] handles = new int[Math.min(n, system.accounts.count)];
+            long[] totals = new long[handles.length];
+            int size = system.topSpenders(timestamp, handles, totals);
+            String[] ids = new String[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = system.accounts.ids[handles[i]];
+            }
+            return new ShardRanking(ids, totals, size);
+        }
+    }
+
+    // ========== LEVEL 3: Scheduled Payments ==========
+
+    @Override
+    public String schedulePayment(String accountId, String targetAccId, int timestamp,
+                                  int amount, double cashbackPercentage) {
+        if (amount <= 0) {
+            return null;
+        }
+        structureLock.readLock().lock();
+        try {
+            if (!exists(accountId) || !exists(targetAccId)) {
+                return null;
+            }
+            long sequence;
+            synchronized (paymentScheduler) {
+                sequence = paymentScheduler.schedule(party(accountId), party(targetAccId),
+                        timestamp, amount, cashbackPercentage);
+            }
+            return PaymentScheduler.paymentId(sequence);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String getPaymentStatus(String accountId, int timestamp, String paymentId) {
+        structureLock.readLock().lock();
+        try {
+            // Scheduling may grow the payment table, so look up under its monitor.
+            synchronized (paymentScheduler) {
+                int slot = paymentScheduler.find(paymentId);
+                if (slot == PaymentTable.NOT_FOUND
+                        || !accountId.equals(partyIds[resolve(paymentScheduler.table.sources[slot])])) {
+                    return null;
+                }
+                return paymentScheduler.table.status(slot).name();
+            }
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void processScheduledPayments(int currentTimestamp) {
+        structureLock.writeLock().lock();
+        try {
+            synchronized (paymentScheduler) {
+                paymentScheduler.pollDue(currentTimestamp, this::executePayment);
+            }
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Settles one due payment between the accounts that currently own its
+     * source and target. Runs under the exclusive structure lock.
+     */
+    private void executePayment(ScheduledPayment payment) {
+        String sourceId = partyIds[resolve(payment.source)];
+        String targetId = partyIds[resolve(payment.target)];
+        if (move(sourceId, targetId, payment.timestamp, payment.amount) < 0) {
+            paymentScheduler.settle(payment, PaymentStatus.FAILED);
+            return;
+        }
+        int cashback = payment.cashback();
+        if (cashback > 0) {
+            Shard shard = shardOf(sourceId);
+            shard.call(() -> {
+                shard.system.credit(shard.system.accountHandle(sourceId), payment.timestamp, cashback,
+                        TransactionJournal.CASHBACK);
+                return null;
+            });
+        }
+        paymentScheduler.settle(payment, PaymentStatus.PROCESSED);
+    }
+
+    private boolean exists(String accountId) {
+        Shard shard = shardOf(accountId);
+        return shard.call(() -> shard.system.accountHandle(accountId)) != AccountRegistry.NO_ACCOUNT;
+    }
+
+    /**
+     * Returns the payment party of an open account, assigning one on first
+     * use. Callers hold the scheduler monitor; the party table is republished
+     * through volatile writes so status lookups can read it without locking.
+     */
+    private int party(String accountId) {
+        Integer existing = partyOf.get(accountId);
+        if (existing != null) {
+            return existing;
+        }
+        String[] ids = partyIds;
+        int[] mergedInto = partyMergedInto;
+        if (partyCount == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            mergedInto = Arrays.copyOf(mergedInto, mergedInto.length * 2);
+        }
+        int party = partyCount++;
+        ids[party] = accountId;
+        mergedInto[party] = AccountRegistry.NO_ACCOUNT;
+        partyMergedInto = mergedInto;
+        partyIds = ids;
+        partyOf.put(accountId, party);
+        return party;
+    }
+
+    private int resolve(int party) {
+        int[] mergedInto = partyMergedInto;
+        while (mergedInto[party] != AccountRegistry.NO_ACCOUNT) {
+            party = mergedInto[party];
+        }
+        return party;
+    }
+
+    // ========== LEVEL 4: Account Merging ==========
+
+    @Override
+    public void mergeAccounts(String accountId1, String accountId2) {
+        if (accountId1.equals(accountId2)) {
+            return;
+        }
+        structureLock.writeLock().lock();
+        try {
+            Shard survivor = shardOf(accountId1);
+            Shard merged = shardOf(accountId2);
+            boolean done;
+            if (survivor == merged) {
+                done = survivor.call(() -> {
+                    BankingSystemImpl system = survivor.system;
+                    if (system.accountHandle(accountId1) == AccountRegistry.NO_ACCOUNT
+                            || system.accountHandle(accountId2) == AccountRegistry.NO_ACCOUNT) {
+                        return false;
+                    }
+                    system.mergeAccounts(accountId1, accountId2);
+                    return true;
+                });
+            } else {
+                int handle = survivor.call(() -> survivor.system.accountHandle(accountId1));
+                DetachedAccount detached = handle == AccountRegistry.NO_ACCOUNT
+                        ? null : merged.call(() -> merged.system.detach(accountId2));
+                done = detached != null;
+                if (done) {
+                    survivor.call(() -> {
+                        survivor.system.absorb(handle, detached);
+                        return null;
+                    });
+                }
+            }
+            if (done) {
+                mergeParties(accountId1, accountId2);
+            }
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    private void mergeParties(String accountId1, String accountId2) {
+        synchronized (paymentScheduler) {
+            Integer merged = partyOf.remove(accountId2);
+            if (merged != null) {
+                int survivor = party(accountId1);
+                partyMergedInto[merged] = survivor;
+            }
+        }
+    }
+
+    /**
+     * Stops the shard threads. Operations called afterwards fail.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.banking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Spend Ranking Index
+ *
+ * Keeps one entry per account with outgoing spend in a concurrent ordered set
+ * sorted by:
+ * 1. Total outgoing amount (descending)
+ * 2. Account ID (ascending) for ties
+ *
+ * Entries are immutable (total, account) pairs, so the key of an entry never
+ * changes while it is in the set and concurrent inserts always compare
+ * against stable keys. A new total is published by adding a new entry for the
+ * account and only then removing its old one.
+ *
+ * Updates to one account must be serialized by the caller; updates to
+ * different accounts run concurrently with each other. Between its add and
+ * its remove an update leaves the set with two entries for its account, and
+ * a reader walking the set meanwhile could pass the new entry's place before
+ * it is added and the old entry's after it is removed, missing the account
+ * entirely. So updates hold the shared side of a read/write lock and top()
+ * the exclusive side: a read sees every update either whole or not at all,
+ * and each account exactly once. Merges must be kept apart from reads and
+ * updates by the owner.
+ */
+class SpendRanking {
+
+    /**
+     * An account's outgoing total at the time the entry was made.
+     */
+    static final class Entry {
+        final long total;
+        final Account account;
+
+        Entry(long total, Account account) {
+            this.total = total;
+            this.account = account;
+        }
+    }
+
+    static final Comparator<Entry> ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.total).reversed()
+            .thenComparing(entry -> entry.account.accountId);
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    // Shared by updates, exclusive to reads; see the class comment.
+    private final ReentrantReadWriteLock rankingLock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds an outgoing amount to the account's total and repositions it.
+     */
+    void recordOutgoing(Account account, long amount) {
+        Entry previous = account.rankEntry;
+        account.outgoing += amount;
+        Entry current = account.outgoing > 0 ? new Entry(account.outgoing, account) : null;
+        rankingLock.readLock().lock();
+        try {
+            if (current != null) {
+                ranking.add(current);
+            }
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+        } finally {
+            rankingLock.readLock().unlock();
+        }
+        account.rankEntry = current;
+    }
+
+    /**
+     * Folds the spend total of a merged account into the surviving account.
+     * The merged account is dropped from the ranking.
+     */
+    void merge(Account survivor, Account merged) {
+        if (merged.outgoing > 0) {
+            recordOutgoing(survivor, merged.outgoing);
+            ranking.remove(merged.rankEntry);
+            merged.rankEntry = null;
+            merged.outgoing = 0;
+        }
+    }
+
+    /**
+     * Returns the first n entries of the ranking formatted as "accountId(totalOutgoing)".
+     */
+    List<String> top(int n) {
+        List<String> result = new ArrayList<>();
+        rankingLock.writeLock().lock();
+        try {
+            Iterator<Entry> it = ranking.iterator();
+            while (result.size() < n && it.hasNext()) {
+                Entry entry = it.next();
+                result.add(entry.account.accountId + "(" + entry.total + ")");
+            }
+        } finally {
+            rankingLock.writeLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Ranks accounts by their spend as of a past timestamp using each
+     * account's time-indexed outgoing history, keeping only the best n. Each
+     * history is read under its account's lock, since transfers out of the
+     * account append to it.
+     */
+    static List<String> historicalTop(Collection<ConcurrentAccount> accounts, int timestamp, int n) {
+        ConcurrentAccount[] candidates = accounts.toArray(new ConcurrentAccount[0]);
+        TopSelection top = new TopSelection(n, candidates.length,
+                (a, b) -> candidates[a].accountId.compareTo(candidates[b].accountId));
+        for (int i = 0; i < candidates.length; i++) {
+            ConcurrentAccount candidate = candidates[i];
+            long spent;
+            candidate.lock.lock();
+            try {
+                spent = candidate.spentAt(timestamp);
+            } finally {
+                candidate.lock.unlock();
+            }
+            top.offer(i, spent);
+        }
+        int size = top.finish();
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(candidates[top.handle(i)].accountId + "(" + top.total(i) + ")");
+        }
+        return result;
+    }
+}
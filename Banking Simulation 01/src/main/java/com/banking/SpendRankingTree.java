@@ -0,0 +1,245 @@
+package com.banking;
+
+import java.util.Arrays;
+
+/**
+ * Handle-Based Spend Ranking Index
+ *
+ * The SpendRanking ordering for accounts stored in an AccountRegistry:
+ * 1. Total outgoing amount (descending)
+ * 2. Account ID (ascending) for ties
+ *
+ * Implemented as an intrusive treap whose nodes are the account handles
+ * themselves: child links and priorities live in int arrays indexed by handle,
+ * so repositioning an account allocates nothing. Only accounts with a positive
+ * outgoing total are in the tree.
+ */
+class SpendRankingTree {
+
+    private static final int NIL = -1;
+
+    private final AccountRegistry accounts;
+    private int[] left;
+    private int[] right;
+    private int root;
+
+    SpendRankingTree(AccountRegistry accounts) {
+        this.accounts = accounts;
+        left = new int[0];
+        right = new int[0];
+        root = NIL;
+    }
+
+    /**
+     * Adds an outgoing amount to the account's total and repositions it.
+     */
+    void recordOutgoing(int handle, long amount) {
+        detach(handle);
+        accounts.outgoing[handle] += amount;
+        attach(handle);
+    }
+
+    /**
+     * Takes the account out of the tree so its outgoing total can be changed,
+     * possibly several times, before attach() puts it back in place.
+     */
+    void detach(int handle) {
+        if (accounts.outgoing[handle] > 0) {
+            root = remove(root, handle);
+        }
+    }
+
+    /**
+     * Inserts a detached account at the position of its current outgoing total.
+     */
+    void attach(int handle) {
+        if (accounts.outgoing[handle] > 0) {
+            ensureCapacity(handle + 1);
+            left[handle] = NIL;
+            right[handle] = NIL;
+            root = insert(root, handle);
+        }
+    }
+
+    /**
+     * Folds the spend total of a merged account into the surviving account.
+     * The merged account is dropped from the ranking.
+     */
+    void merge(int survivor, int merged) {
+        long total = accounts.outgoing[merged];
+        if (total > 0) {
+            root = remove(root, merged);
+            accounts.outgoing[merged] = 0;
+            recordOutgoing(survivor, total);
+        }
+    }
+
+    /**
+     * Rebuilds the tree from the outgoing totals of every open account in
+     * O(n log n): the accounts are sorted once and the treap is laid over the
+     * sorted sequence in linear time, instead of n separate insertions.
+     */
+    void rebuild() {
+        int[] handles = new int[accounts.count];
+        int n = 0;
+        for (int handle = 0; handle < accounts.count; handle++) {
+            if (accounts.isOpen(handle) && accounts.outgoing[handle] > 0) {
+                handles[n++] = handle;
+            }
+        }
+        ensureCapacity(accounts.count);
+        sort(handles, n);
+        // Cartesian tree construction: the right spine of the tree built so
+        // far is kept on a stack, each new (largest) key hangs off it.
+        int[] spine = new int[Math.max(1, n)];
+        int depth = 0;
+        for (int i = 0; i < n; i++) {
+            int handle = handles[i];
+            int last = NIL;
+            while (depth > 0 && priority(spine[depth - 1]) < priority(handle)) {
+                last = spine[--depth];
+            }
+            left[handle] = last;
+            right[handle] = NIL;
+            if (depth > 0) {
+                right[spine[depth - 1]] = handle;
+            }
+            spine[depth++] = handle;
+        }
+        root = depth > 0 ? spine[0] : NIL;
+    }
+
+    /**
+     * Bottom-up merge sort of the first n handles in ranking order.
+     */
+    private void sort(int[] handles, int n) {
+        int[] source = handles;
+        int[] target = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int start = 0; start < n; start += 2 * width) {
+                int middle = Math.min(start + width, n);
+                int end = Math.min(start + 2 * width, n);
+                int i = start;
+                int j = middle;
+                for (int k = start; k < end; k++) {
+                    target[k] = j >= end || (i < middle && compare(source[i], source[j]) <= 0) ? source[i++] : source[j++];
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != handles) {
+            System.arraycopy(source, 0, handles, 0, n);
+        }
+    }
+
+    /**
+     * Fills handles and totals with the first handles.length entries of the
+     * ranking and returns how many there are.
+     */
+    int top(int[] handles, long[] totals) {
+        int size = 0;
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        while (size < handles.length && (node != NIL || depth > 0)) {
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            }
+            node = stack[--depth];
+            handles[size] = node;
+            totals[size++] = accounts.outgoing[node];
+            node = right[node];
+        }
+        return size;
+    }
+
+    private int insert(int subtree, int handle) {
+        if (subtree == NIL) {
+            return handle;
+        }
+        if (compare(handle, subtree) < 0) {
+            left[subtree] = insert(left[subtree], handle);
+            if (priority(left[subtree]) > priority(subtree)) {
+                return rotateRight(subtree);
+            }
+        } else {
+            right[subtree] = insert(right[subtree], handle);
+            if (priority(right[subtree]) > priority(subtree)) {
+                return rotateLeft(subtree);
+            }
+        }
+        return subtree;
+    }
+
+    private int remove(int subtree, int handle) {
+        if (subtree == NIL) {
+            return NIL;
+        }
+        if (subtree == handle) {
+            return join(left[subtree], right[subtree]);
+        }
+        if (compare(handle, subtree) < 0) {
+            left[subtree] = remove(left[subtree], handle);
+        } else {
+            right[subtree] = remove(right[subtree], handle);
+        }
+        return subtree;
+    }
+
+    private int join(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priority(a) > priority(b)) {
+            right[a] = join(right[a], b);
+            return a;
+        }
+        left[b] = join(a, left[b]);
+        return b;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        return pivot;
+    }
+
+    private int compare(int a, int b) {
+        int byTotal = Long.compare(accounts.outgoing[b], accounts.outgoing[a]);
+        return byTotal != 0 ? byTotal : accounts.ids[a].compareTo(accounts.ids[b]);
+    }
+
+    /**
+     * Pseudo-random heap priority derived from the handle, so the tree stays
+     * balanced in expectation without storing priorities.
+     */
+    private static int priority(int handle) {
+        int h = handle * 0x9E3779B9;
+        return h ^ (h >>> 15);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > left.length) {
+            int newCapacity = Math.max(capacity, Math.max(16, left.length * 2));
+            left = Arrays.copyOf(left, newCapacity);
+            right = Arrays.copyOf(right, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.banking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing-wheel payment queue.
+ *
+ * Timestamps are mapped onto 32 unsigned bits and split into four bytes. Level
+ * L has 256 buckets, one per value of byte L. A payment is filed at the level of
+ * the highest byte in which its timestamp differs from the cursor, so level 0
+ * buckets each hold a single timestamp and higher levels hold whole ranges.
+ * When the cursor enters a higher-level bucket, that bucket is cascaded down.
+ *
+ * Insertion is O(1). Releasing a timestamp hands over its level-0 bucket in one
+ * pass, which is what month-end payroll needs: millions of payments due at the
+ * same few timestamps never pay for heap sift operations. Occupancy bitmaps let
+ * the cursor jump over empty buckets, so sparse timestamps cost nothing.
+ */
+class TimingWheelPaymentQueue implements PaymentQueue {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long END_OF_TIME = 1L << (LEVELS * SLOT_BITS);
+
+    private final List<List<ScheduledPayment>> buckets;
+    private final long[][] occupied;
+    private List<ScheduledPayment> overdue;
+    private long cursor;
+    private int size;
+
+    TimingWheelPaymentQueue() {
+        buckets = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            buckets.add(null);
+        }
+        occupied = new long[LEVELS][SLOTS / Long.SIZE];
+        overdue = new ArrayList<>();
+        cursor = 0;
+    }
+
+    @Override
+    public void add(ScheduledPayment payment) {
+        size++;
+        file(payment);
+    }
+
+    @Override
+    public void pollDue(int currentTimestamp, Consumer<ScheduledPayment> consumer) {
+        long limit = unsigned(currentTimestamp);
+        if (!overdue.isEmpty()) {
+            releaseOverdue(limit, consumer);
+        }
+        while (cursor < END_OF_TIME) {
+            int slot = nextOccupied(0, slotOf(cursor, 0));
+            if (slot >= 0) {
+                long time = (cursor & ~(long) SLOT_MASK) | slot;
+                if (time > limit) {
+                    return;
+                }
+                List<ScheduledPayment> released = take(0, slot);
+                sortBySequence(released);
+                release(released, consumer);
+                moveCursor(time + 1);
+                continue;
+            }
+            int level = 1;
+            while (level < LEVELS && (slot = nextOccupied(level, slotOf(cursor, level) + 1)) < 0) {
+                level++;
+            }
+            if (level == LEVELS) {
+                return;
+            }
+            int shift = level * SLOT_BITS;
+            long start = (cursor & (-1L << (shift + SLOT_BITS))) | ((long) slot << shift);
+            if (start > limit) {
+                return;
+            }
+            moveCursor(start);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Files a payment relative to the cursor. Payments already behind the
+     * cursor are released first on the next poll that reaches them.
+     */
+    private void file(ScheduledPayment payment) {
+        long time = unsigned(payment.timestamp);
+        if (time < cursor) {
+            overdue.add(payment);
+            return;
+        }
+        long diff = time ^ cursor;
+        int level = diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+        int slot = slotOf(time, level);
+        int index = level * SLOTS + slot;
+        List<ScheduledPayment> bucket = buckets.get(index);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.set(index, bucket);
+            occupied[level][slot >>> 6] |= 1L << slot;
+        }
+        bucket.add(payment);
+    }
+
+    /**
+     * Advances the cursor. Every payment before the new position has been
+     * released, so the only bucket whose payments now need a finer level is
+     * the one the cursor enters at the highest byte that changed.
+     */
+    private void moveCursor(long position) {
+        long changed = cursor ^ position;
+        cursor = position;
+        if (changed == 0 || position >= END_OF_TIME) {
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(changed)) / SLOT_BITS;
+        if (level == 0) {
+            return;
+        }
+        List<ScheduledPayment> cascaded = take(level, slotOf(position, level));
+        if (cascaded != null) {
+            for (ScheduledPayment payment : cascaded) {
+                file(payment);
+            }
+        }
+    }
+
+    /**
+     * Releases the payments behind the cursor that are due by the limit. A
+     * poll at an earlier timestamp than the last one can leave some behind.
+     */
+    private void releaseOverdue(long limit, Consumer<ScheduledPayment> consumer) {
+        List<ScheduledPayment> released = new ArrayList<>();
+        List<ScheduledPayment> kept = new ArrayList<>();
+        for (ScheduledPayment payment : overdue) {
+            (unsigned(payment.timestamp) <= limit ? released : kept).add(payment);
+        }
+        overdue = kept;
+        released.sort(DUE_ORDER);
+        release(released, consumer);
+    }
+
+    private List<ScheduledPayment> take(int level, int slot) {
+        int index = level * SLOTS + slot;
+        List<ScheduledPayment> bucket = buckets.get(index);
+        if (bucket != null) {
+            buckets.set(index, null);
+            occupied[level][slot >>> 6] &= ~(1L << slot);
+        }
+        return bucket;
+    }
+
+    private void release(List<ScheduledPayment> released, Consumer<ScheduledPayment> consumer) {
+        size -= released.size();
+        for (ScheduledPayment payment : released) {
+            consumer.accept(payment);
+        }
+    }
+
+    /**
+     * Returns the first occupied slot at or after the given one, or -1.
+     */
+    private int nextOccupied(int level, int from) {
+        long[] bits = occupied[level];
+        for (int word = from >>> 6; word < bits.length; word++) {
+            long mask = word == from >>> 6 ? bits[word] & (-1L << from) : bits[word];
+            if (mask != 0) {
+                return word * Long.SIZE + Long.numberOfTrailingZeros(mask);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Level-0 buckets hold a single timestamp. Payments filed directly are in
+     * scheduling order, but cascaded ones arrive after them, so restore the
+     * order only when a cascade disturbed it.
+     */
+    private static void sortBySequence(List<ScheduledPayment> bucket) {
+        for (int i = 1; i < bucket.size(); i++) {
+            if (bucket.get(i - 1).sequence > bucket.get(i).sequence) {
+                bucket.sort(DUE_ORDER);
+                return;
+            }
+        }
+    }
+
+    private static int slotOf(long time, int level) {
+        return (int) (time >>> (level * SLOT_BITS)) & SLOT_MASK;
+    }
+
+    private static long unsigned(int timestamp) {
+        return (long) timestamp - Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,192 @@
+package com.banking;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Top-N Selection
+ *
+ * Picks the n best of a stream of (handle, total) candidates in the ranking
+ * order: total descending, then account ID ascending. Totals are compared as
+ * primitives first; the ID comparator is only called on equal totals.
+ *
+ * While n is small against the number of candidates, only the best n are
+ * kept, in a bounded binary heap with the worst of them at the root, so most
+ * candidates are rejected by a single comparison and the whole selection is
+ * O(A log n). When n is a large share of the candidates the heap would keep
+ * nearly everything anyway, so every candidate is collected and merge-sorted
+ * once at the end instead, which also runs fast over presorted stretches.
+ *
+ * The kept candidates live in two primitive arrays; nothing is allocated per
+ * candidate.
+ */
+final class TopSelection {
+
+    // Collect everything and sort once when n is at least this share of the candidates.
+    private static final int FULL_SORT_RATIO = 4;
+
+    private final int n;
+    private final boolean fullSort;
+    private final IntBinaryOperator compareIds;
+    private final int[] handles;
+    private final long[] totals;
+    private int size;
+
+    /**
+     * @param n The number of entries wanted
+     * @param candidates An upper bound on the number of candidates to be offered
+     * @param compareIds Compares two handles' account IDs like String.compareTo
+     */
+    TopSelection(int n, int candidates, IntBinaryOperator compareIds) {
+        this.n = Math.min(n, candidates);
+        this.compareIds = compareIds;
+        fullSort = (long) n * FULL_SORT_RATIO >= candidates;
+        int capacity = fullSort ? candidates : this.n;
+        handles = new int[capacity];
+        totals = new long[capacity];
+    }
+
+    /**
+     * Offers a candidate. Candidates with a total of zero or less are ignored.
+     */
+    void offer(int handle, long total) {
+        if (total <= 0 || n == 0) {
+            return;
+        }
+        if (fullSort) {
+            handles[size] = handle;
+            totals[size] = total;
+            size++;
+        } else if (size < n) {
+            handles[size] = handle;
+            totals[size] = total;
+            siftUp(size++);
+        } else if (ranksBefore(handle, total, handles[0], totals[0])) {
+            handles[0] = handle;
+            totals[0] = total;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Sorts what was kept into ranking order and returns the number of
+     * entries selected, at most n. Entry i is then read with handle(i) and
+     * total(i).
+     */
+    int finish() {
+        if (fullSort) {
+            mergeSort();
+        } else {
+            // Heap sort: moving the worst remaining entry to the end each
+            // time leaves the array best first.
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+        size = Math.min(size, n);
+        return size;
+    }
+
+    int handle(int i) {
+        return handles[i];
+    }
+
+    long total(int i) {
+        return totals[i];
+    }
+
+    private boolean ranksBefore(int handle, long total, int other, long otherTotal) {
+        return total != otherTotal ? total > otherTotal : compareIds.applyAsInt(handle, other) < 0;
+    }
+
+    /**
+     * Returns true if entry i ranks after entry j, so belongs nearer the root.
+     */
+    private boolean worse(int i, int j) {
+        return ranksBefore(handles[j], totals[j], handles[i], totals[i]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(i, parent)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= end) {
+                return;
+            }
+            if (child + 1 < end && worse(child + 1, child)) {
+                child++;
+            }
+            if (!worse(child, i)) {
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    /**
+     * Bottom-up merge sort of the collected entries into ranking order,
+     * skipping the merge where two runs are already in order.
+     */
+    private void mergeSort() {
+        int[] handleBuffer = new int[size];
+        long[] totalBuffer = new long[size];
+        int[] fromHandles = handles;
+        long[] fromTotals = totals;
+        int[] toHandles = handleBuffer;
+        long[] toTotals = totalBuffer;
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int middle = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int i = low;
+                int j = middle;
+                if (middle < high && !ranksBefore(fromHandles[middle], fromTotals[middle],
+                        fromHandles[middle - 1], fromTotals[middle - 1])) {
+                    System.arraycopy(fromHandles, low, toHandles, low, high - low);
+                    System.arraycopy(fromTotals, low, toTotals, low, high - low);
+                    continue;
+                }
+                for (int k = low; k < high; k++) {
+                    if (j >= high || (i < middle && !ranksBefore(fromHandles[j], fromTotals[j],
+                            fromHandles[i], fromTotals[i]))) {
+                        toHandles[k] = fromHandles[i];
+                        toTotals[k] = fromTotals[i++];
+                    } else {
+                        toHandles[k] = fromHandles[j];
+                        toTotals[k] = fromTotals[j++];
+                    }
+                }
+            }
+            int[] handleSwap = fromHandles;
+            fromHandles = toHandles;
+            toHandles = handleSwap;
+            long[] totalSwap = fromTotals;
+            fromTotals = toTotals;
+            toTotals = totalSwap;
+        }
+        if (fromHandles != handles) {
+            System.arraycopy(fromHandles, 0, handles, 0, size);
+            System.arraycopy(fromTotals, 0, totals, 0, size);
+        }
+    }
+
+    private void swap(int i, int j) {
+        int handle = handles[i];
+        handles[i] = handles[j];
+        handles[j] = handle;
+        long total = totals[i];
+        totals[i] = totals[j];
+        totals[j] = total;
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking;
+
+/**
+ * One entry of a ConcurrentAccount's TransactionLog: one account's side of a
+ * balance movement.
+ */
+class Transaction {
+    final int timestamp;
+    final TransactionCursor.Kind kind;
+    final String counterparty;
+    final int amount;
+
+    /**
+     * @param counterparty The other account's ID for transfers, otherwise null
+     */
+    Transaction(int timestamp, TransactionCursor.Kind kind, String counterparty, int amount) {
+        this.timestamp = timestamp;
+        this.kind = kind;
+        this.counterparty = counterparty;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,344 @@
+package com.banking;
+
+import java.util.Arrays;
+
+/**
+ * Transaction Cursor
+ *
+ * A forward-only view of one account's transactions over a timestamp range.
+ * The rows come from one or more entry lists, each sorted by a key that
+ * orders it by timestamp; every list is positioned by binary search on that
+ * key, and the lists are merged as the cursor advances.
+ *
+ * BankingSystemImpl's cursor reads straight out of the TransactionJournal
+ * through the account's entry positions, one list per account on the merge
+ * chain: nothing is copied and no object is allocated per row. Rows come in
+ * timestamp order, then journal order. A transfer between two accounts that
+ * were later merged appears twice, outgoing side first. The cursor reads the
+ * live state of the system and is valid until that system's next write.
+ *
+ * ConcurrentBankingSystem's cursor reads a sorted snapshot of the account's
+ * TransactionLog taken by the query; see TransactionLog.snapshot(). Wrappers
+ * that share a BankingSystemImpl between threads hand out a detach()ed copy
+ * of its cursor, read under their lock.
+ *
+ * Pagination: continuation() names the last row read. Passing it back to
+ * BankingSystem.history() resumes right after that row, so a page is simply
+ * the rows read before stopping, and the next page starts with a binary
+ * search rather than by skipping rows. Entries committed later with a
+ * timestamp before that row, such as a payment settled late, are not
+ * revisited.
+ */
+public final class TransactionCursor {
+
+    /**
+     * What a row did to the account's balance.
+     */
+    public enum Kind {
+        DEPOSIT,
+        CASHBACK,
+        TRANSFER_OUT,
+        TRANSFER_IN
+    }
+
+    /**
+     * The entry lists a cursor merges. Keys strictly increase within a list,
+     * are unique across lists and carry the row's timestamp in their high 32
+     * bits over a non-zero low half, so no key is FIRST_PAGE.
+     */
+    interface Source {
+        int lists();
+
+        int size(int list);
+
+        long key(int list, int index);
+
+        int amount(int list, int index);
+
+        Kind kind(int list, int index);
+
+        String counterparty(int list, int index);
+    }
+
+    /**
+     * Continuation that starts a query at the beginning of its range.
+     */
+    public static final long FIRST_PAGE = Long.MIN_VALUE;
+
+    private static final int NO_ROW = -1;
+
+    private final Source source;
+    private final int[] next;
+    private final int toTimestamp;
+    private long continuation;
+    private int list;
+    private int index;
+
+    TransactionCursor(AccountRegistry accounts, TransactionJournal journal, int handle,
+                      int fromTimestamp, int toTimestamp, long continuation) {
+        this(new JournalSource(accounts, journal, handle), fromTimestamp, toTimestamp, continuation);
+    }
+
+    TransactionCursor(Source source, int fromTimestamp, int toTimestamp, long continuation) {
+        this.source = source;
+        this.toTimestamp = toTimestamp;
+        next = new int[source.lists()];
+        // Rows with keys from this one on are in range; the continuation
+        // separately excludes rows already read.
+        long from = (long) fromTimestamp << 32;
+        for (int i = 0; i < next.length; i++) {
+            next[i] = seek(i, from, continuation);
+        }
+        this.continuation = continuation;
+        index = NO_ROW;
+    }
+
+    /**
+     * Returns the index of the first entry in the list whose key is at least
+     * from and above after.
+     */
+    private int seek(int list, long from, long after) {
+        int low = 0;
+        int high = source.size(list);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long key = source.key(list, mid);
+            if (key >= from && key > after) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Advances to the next row.
+     *
+     * @return false once the range is exhausted
+     */
+    public boolean next() {
+        int best = NO_ROW;
+        long bestKey = 0;
+        for (int i = 0; i < next.length; i++) {
+            if (next[i] < source.size(i)) {
+                long key = source.key(i, next[i]);
+                if (best == NO_ROW || key < bestKey) {
+                    best = i;
+                    bestKey = key;
+                }
+            }
+        }
+        if (best == NO_ROW || (int) (bestKey >> 32) > toTimestamp) {
+            index = NO_ROW;
+            return false;
+        }
+        list = best;
+        index = next[best]++;
+        continuation = bestKey;
+        return true;
+    }
+
+    /**
+     * Returns the token to pass to BankingSystem.history() to resume after
+     * the last row read. Before the first row, it resumes where this cursor
+     * started.
+     */
+    public long continuation() {
+        return continuation;
+    }
+
+    public int timestamp() {
+        return (int) (source.key(list, current()) >> 32);
+    }
+
+    public int amount() {
+        return source.amount(list, current());
+    }
+
+    public Kind kind() {
+        return source.kind(list, current());
+    }
+
+    /**
+     * Returns the ID the other account of a transfer had at the time, or null
+     * for deposits, cashback and transfers whose other side lives in another
+     * shard.
+     */
+    public String counterparty() {
+        return source.counterparty(list, current());
+    }
+
+    /**
+     * Reads the rest of this cursor's rows into a new cursor that owns a copy
+     * of them, so it stays valid while the system that made this one keeps
+     * changing. Continuations carry over between the two.
+     */
+    TransactionCursor detach() {
+        long start = continuation;
+        long[] keys = new long[16];
+        int[] amounts = new int[16];
+        Kind[] kinds = new Kind[16];
+        String[] counterparties = new String[16];
+        int size = 0;
+        while (next()) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+                kinds = Arrays.copyOf(kinds, size * 2);
+                counterparties = Arrays.copyOf(counterparties, size * 2);
+            }
+            keys[size] = continuation;
+            amounts[size] = amount();
+            kinds[size] = kind();
+            counterparties[size] = counterparty();
+            size++;
+        }
+        Source rows = new CopiedSource(size, keys, amounts, kinds, counterparties);
+        return new TransactionCursor(rows, Integer.MIN_VALUE, toTimestamp, start);
+    }
+
+    private int current() {
+        if (index == NO_ROW) {
+            throw new IllegalStateException("The cursor is not on a row");
+        }
+        return index;
+    }
+
+    /**
+     * Rows copied out of another cursor, in the order it read them.
+     */
+    private static final class CopiedSource implements Source {
+        private final int size;
+        private final long[] keys;
+        private final int[] amounts;
+        private final Kind[] kinds;
+        private final String[] counterparties;
+
+        CopiedSource(int size, long[] keys, int[] amounts, Kind[] kinds, String[] counterparties) {
+            this.size = size;
+            this.keys = keys;
+            this.amounts = amounts;
+            this.kinds = kinds;
+            this.counterparties = counterparties;
+        }
+
+        @Override
+        public int lists() {
+            return 1;
+        }
+
+        @Override
+        public int size(int list) {
+            return size;
+        }
+
+        @Override
+        public long key(int list, int index) {
+            return keys[index];
+        }
+
+        @Override
+        public int amount(int list, int index) {
+            return amounts[index];
+        }
+
+        @Override
+        public Kind kind(int list, int index) {
+            return kinds[index];
+        }
+
+        @Override
+        public String counterparty(int list, int index) {
+            return counterparties[index];
+        }
+    }
+
+    /**
+     * The journal entries of an account of BankingSystemImpl, one list per
+     * account on its merge chain.
+     */
+    private static final class JournalSource implements Source {
+        private final AccountRegistry accounts;
+        private final TransactionJournal journal;
+        private final int[] members;
+
+        JournalSource(AccountRegistry accounts, TransactionJournal journal, int handle) {
+            this.accounts = accounts;
+            this.journal = journal;
+            int memberCount = 0;
+            for (int m = handle; m != AccountRegistry.NO_ACCOUNT; m = accounts.nextMember[m]) {
+                memberCount++;
+            }
+            members = new int[memberCount];
+            int i = 0;
+            for (int m = handle; m != AccountRegistry.NO_ACCOUNT; m = accounts.nextMember[m]) {
+                members[i++] = m;
+            }
+        }
+
+        @Override
+        public int lists() {
+            return members.length;
+        }
+
+        @Override
+        public int size(int list) {
+            return accounts.entryCounts[members[list]];
+        }
+
+        /**
+         * Orders entries by timestamp, then position, then side, so the two
+         * sides of a transfer within one merged account are distinct rows.
+         * Positions are below 2^31 - 1, so the order fits the low 32 bits.
+         */
+        @Override
+        public long key(int list, int index) {
+            int member = members[list];
+            int position = accounts.entries[member][index];
+            long order = ((long) position << 1 | (isIncoming(member, position) ? 1 : 0)) + 1;
+            return (long) journal.timestamps[position] << 32 | order;
+        }
+
+        @Override
+        public int amount(int list, int index) {
+            return journal.amounts[position(list, index)];
+        }
+
+        @Override
+        public Kind kind(int list, int index) {
+            int position = position(list, index);
+            switch (journal.kinds[position]) {
+                case TransactionJournal.DEPOSIT:
+                    return Kind.DEPOSIT;
+                case TransactionJournal.CASHBACK:
+                    return Kind.CASHBACK;
+                case TransactionJournal.TRANSFER_IN:
+                    return Kind.TRANSFER_IN;
+                case TransactionJournal.TRANSFER_OUT:
+                    return Kind.TRANSFER_OUT;
+                default:
+                    return isIncoming(members[list], position) ? Kind.TRANSFER_IN : Kind.TRANSFER_OUT;
+            }
+        }
+
+        @Override
+        public String counterparty(int list, int index) {
+            int position = position(list, index);
+            if (journal.kinds[position] != TransactionJournal.TRANSFER) {
+                return null;
+            }
+            int member = members[list];
+            int other = isIncoming(member, position) ? journal.fromHandles[position] : journal.toHandles[position];
+            return accounts.ids[other];
+        }
+
+        private int position(int list, int index) {
+            return accounts.entries[members[list]][index];
+        }
+
+        private boolean isIncoming(int member, int position) {
+            return journal.kinds[position] == TransactionJournal.TRANSFER && journal.fromHandles[position] != member;
+        }
+    }
+}
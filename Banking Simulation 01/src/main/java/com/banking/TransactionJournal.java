@@ -0,0 +1,88 @@
+package com.banking;
+
+import java.util.Arrays;
+
+/**
+ * Transaction Journal
+ *
+ * One global, append-only record of every committed balance movement, stored
+ * column-wise in parallel primitive arrays: timestamp, from handle, to handle,
+ * amount and kind. A transfer is a single entry shared by both accounts rather
+ * than two objects, and a full-history scan walks dense arrays.
+ *
+ * Accounts keep the positions of the entries that involve them; see
+ * AccountRegistry. Entries are never changed once appended and growing copies
+ * into new arrays, so a reader holding the column arrays and size of a
+ * moment keeps a consistent view while appends continue.
+ */
+class TransactionJournal {
+
+    static final byte DEPOSIT = 0;
+    static final byte TRANSFER = 1;
+    static final byte CASHBACK = 2;
+    // The two halves of a transfer whose accounts live in different shards of
+    // a ShardedBankingSystem; each names only the local account.
+    static final byte TRANSFER_OUT = 3;
+    static final byte TRANSFER_IN = 4;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    int[] timestamps;
+    int[] fromHandles;
+    int[] toHandles;
+    int[] amounts;
+    byte[] kinds;
+    int size;
+
+    TransactionJournal() {
+        this(INITIAL_CAPACITY);
+    }
+
+    TransactionJournal(int capacity) {
+        capacity = Math.max(INITIAL_CAPACITY, capacity);
+        timestamps = new int[capacity];
+        fromHandles = new int[capacity];
+        toHandles = new int[capacity];
+        amounts = new int[capacity];
+        kinds = new byte[capacity];
+    }
+
+    /**
+     * Appends an entry and returns its position. Deposits and cashback credits
+     * use the credited account as both from and to.
+     */
+    int append(int timestamp, int fromHandle, int toHandle, int amount, byte kind) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        int position = size++;
+        timestamps[position] = timestamp;
+        fromHandles[position] = fromHandle;
+        toHandles[position] = toHandle;
+        amounts[position] = amount;
+        kinds[position] = kind;
+        return position;
+    }
+
+    /**
+     * Makes room for the given number of entries, so a batch of appends
+     * triggers at most one copy.
+     */
+    void ensureCapacity(int capacity) {
+        if (capacity > timestamps.length) {
+            resize(Math.max(capacity, timestamps.length * 2));
+        }
+    }
+
+    private void grow() {
+        resize(timestamps.length * 2);
+    }
+
+    private void resize(int capacity) {
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        fromHandles = Arrays.copyOf(fromHandles, capacity);
+        toHandles = Arrays.copyOf(toHandles, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+    }
+}
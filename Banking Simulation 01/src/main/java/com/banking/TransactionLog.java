@@ -0,0 +1,156 @@
+package com.banking;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-Free Transaction Log
+ *
+ * Append-only per-account history shared by concurrent writers. The log is a
+ * linked list of fixed-size chunks: a writer claims a slot with a single
+ * getAndIncrement on the tail chunk and publishes its entry into that slot, so
+ * concurrent appends never block each other. When a chunk fills up, writers
+ * race to link the next chunk with a compare-and-set.
+ *
+ * A slot can be claimed but not yet published while a later slot already is;
+ * readers skip such slots, so a read sees every append that completed before
+ * it started and possibly some racing ones.
+ */
+class TransactionLog {
+
+    private static final int CHUNK_SIZE = 64;
+
+    private static final class Chunk {
+        final AtomicReferenceArray<Transaction> slots = new AtomicReferenceArray<>(CHUNK_SIZE);
+        final AtomicInteger claimed = new AtomicInteger();
+        final AtomicReference<Chunk> next = new AtomicReference<>();
+    }
+
+    private final Chunk head;
+    private final AtomicReference<Chunk> tail;
+
+    TransactionLog() {
+        head = new Chunk();
+        tail = new AtomicReference<>(head);
+    }
+
+    /**
+     * Appends a transaction without taking any lock.
+     */
+    void append(Transaction transaction) {
+        while (true) {
+            Chunk chunk = tail.get();
+            int index = chunk.claimed.getAndIncrement();
+            if (index < CHUNK_SIZE) {
+                chunk.slots.set(index, transaction);
+                return;
+            }
+            Chunk next = chunk.next.get();
+            if (next == null) {
+                Chunk created = new Chunk();
+                next = chunk.next.compareAndSet(null, created) ? created : chunk.next.get();
+            }
+            tail.compareAndSet(chunk, next);
+        }
+    }
+
+    /**
+     * Appends every entry of another log, in order, by linking its chunks
+     * after this log's tail: constant time whatever the length. Appends to
+     * either log may race this one. The two logs then share their chunks, so
+     * a late append to the other log still lands in this one.
+     */
+    void appendAll(TransactionLog other) {
+        Chunk last = tail.get();
+        while (true) {
+            // Seal the chunk so racing appends move past it; they skip no
+            // entry, since readers already skip unpublished slots.
+            last.claimed.accumulateAndGet(CHUNK_SIZE, Math::max);
+            if (last.next.compareAndSet(null, other.head)) {
+                break;
+            }
+            last = last.next.get();
+        }
+        tail.set(other.tail.get());
+    }
+
+    /**
+     * Returns the published entries sorted by timestamp, then append order,
+     * as the single entry list of a TransactionCursor. A row's key is its
+     * timestamp over its slot number in the log plus one, which stays the
+     * same for as long as the entry is in the log, so continuations carry
+     * over from one snapshot to the next.
+     */
+    TransactionCursor.Source snapshot() {
+        int chunks = 0;
+        int count = 0;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next.get()) {
+            chunks++;
+            count += Math.min(chunk.claimed.get(), CHUNK_SIZE);
+        }
+        Transaction[] bySlot = new Transaction[chunks * CHUNK_SIZE];
+        long[] keys = new long[count];
+        int size = 0;
+        int base = 0;
+        for (Chunk chunk = head; chunk != null && base < bySlot.length; chunk = chunk.next.get()) {
+            int claimed = Math.min(chunk.claimed.get(), CHUNK_SIZE);
+            for (int i = 0; i < claimed && size < keys.length; i++) {
+                Transaction transaction = chunk.slots.get(i);
+                if (transaction != null) {
+                    bySlot[base + i] = transaction;
+                    keys[size++] = (long) transaction.timestamp << 32 | (base + i + 1);
+                }
+            }
+            base += CHUNK_SIZE;
+        }
+        keys = Arrays.copyOf(keys, size);
+        Arrays.sort(keys);
+        return new Snapshot(bySlot, keys);
+    }
+
+    private static final class Snapshot implements TransactionCursor.Source {
+        private final Transaction[] bySlot;
+        private final long[] keys;
+
+        Snapshot(Transaction[] bySlot, long[] keys) {
+            this.bySlot = bySlot;
+            this.keys = keys;
+        }
+
+        @Override
+        public int lists() {
+            return 1;
+        }
+
+        @Override
+        public int size(int list) {
+            return keys.length;
+        }
+
+        @Override
+        public long key(int list, int index) {
+            return keys[index];
+        }
+
+        @Override
+        public int amount(int list, int index) {
+            return row(index).amount;
+        }
+
+        @Override
+        public TransactionCursor.Kind kind(int list, int index) {
+            return row(index).kind;
+        }
+
+        @Override
+        public String counterparty(int list, int index) {
+            return row(index).counterparty;
+        }
+
+        private Transaction row(int index) {
+            return bySlot[(int) keys[index] - 1];
+        }
+    }
+}
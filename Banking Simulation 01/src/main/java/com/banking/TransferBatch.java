@@ -0,0 +1,78 @@
+package com.banking;
+
+import java.util.Arrays;
+
+/**
+ * A reusable batch of transfers for BankingSystem.transferBatch, stored as
+ * parallel arrays rather than one object per transfer.
+ */
+public final class TransferBatch {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    String[] fromIds;
+    String[] toIds;
+    int[] timestamps;
+    int[] amounts;
+    int size;
+
+    public TransferBatch() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TransferBatch(int capacity) {
+        capacity = Math.max(1, capacity);
+        fromIds = new String[capacity];
+        toIds = new String[capacity];
+        timestamps = new int[capacity];
+        amounts = new int[capacity];
+    }
+
+    /**
+     * Appends a transfer to the batch.
+     */
+    public TransferBatch add(String fromId, String toId, int timestamp, int amount) {
+        if (size == fromIds.length) {
+            int capacity = size * 2;
+            fromIds = Arrays.copyOf(fromIds, capacity);
+            toIds = Arrays.copyOf(toIds, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+        fromIds[size] = fromId;
+        toIds[size] = toId;
+        timestamps[size] = timestamp;
+        amounts[size] = amount;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String fromId(int index) {
+        return fromIds[index];
+    }
+
+    public String toId(int index) {
+        return toIds[index];
+    }
+
+    public int timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public int amount(int index) {
+        return amounts[index];
+    }
+
+    /**
+     * Empties the batch, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(fromIds, 0, size, null);
+        Arrays.fill(toIds, 0, size, null);
+        size = 0;
+    }
+}
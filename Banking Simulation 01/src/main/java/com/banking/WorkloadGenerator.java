@@ -0,0 +1,186 @@
+package com.banking;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Workload Generator
+ *
+ * Generates a WorkloadTrace from a WorkloadSpec. Everything is drawn from one
+ * SplittableRandom seeded by the spec, so a spec always yields the same trace.
+ *
+ * The trace opens every account with the spec's opening balance, then runs
+ * the mixed operations at one timestamp each:
+ * - accounts are drawn by Zipf popularity, the popular ones scattered over
+ *   the ID range rather than being acc0, acc1, ...;
+ * - payments fall due 1 to 100 ticks after they are scheduled, and status
+ *   checks ask about one of the last 1000 payments, as its payer;
+ * - rankings ask for the top 1 to 10, a quarter of them at a past timestamp;
+ * - an ID merged away is opened again, empty, right after the merge, so the
+ *   account population stays the same.
+ * Every burst interval, a payroll cutoff schedules the burst's payments from
+ * popular accounts to uniformly drawn ones, all due at the next tick, and
+ * processes them there.
+ */
+public final class WorkloadGenerator {
+
+    private static final int MAX_DUE_DELAY = 100;
+    private static final int STATUS_WINDOW = 1000;
+
+    private final WorkloadSpec spec;
+    private final SplittableRandom random;
+    private final int[] popular;
+    private final double[] popularity;
+    private final WorkloadTrace trace;
+    private int[] paymentSources;
+    private int timestamp;
+
+    private WorkloadGenerator(WorkloadSpec spec) {
+        this.spec = spec;
+        random = new SplittableRandom(spec.seed);
+        popular = new int[spec.accounts];
+        popularity = new double[spec.accounts];
+        trace = new WorkloadTrace(spec.accounts);
+        paymentSources = new int[1024];
+    }
+
+    public static WorkloadTrace generate(WorkloadSpec spec) {
+        return new WorkloadGenerator(spec).run();
+    }
+
+    private WorkloadTrace run() {
+        int[] cumulativeWeights = new int[spec.weights.length];
+        int totalWeight = 0;
+        for (int i = 0; i < spec.weights.length; i++) {
+            totalWeight += spec.weights[i];
+            cumulativeWeights[i] = totalWeight;
+        }
+        if (totalWeight == 0 && spec.operations > 0) {
+            throw new IllegalArgumentException("Every operation has weight zero");
+        }
+        rankAccounts();
+
+        for (int account = 0; account < spec.accounts; account++) {
+            trace.add(BankingProtocol.CREATE_ACCOUNT, 0, account, 0, 0, 0);
+            trace.add(BankingProtocol.DEPOSIT, 0, account, 0, spec.openingBalance, 0);
+        }
+        trace.setupSize = trace.size;
+
+        timestamp = 1;
+        BankingOperation[] operations = BankingOperation.values();
+        for (int i = 0; i < spec.operations; i++) {
+            if (spec.burstInterval > 0 && i > 0 && i % spec.burstInterval == 0) {
+                payroll();
+            }
+            int draw = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= draw) {
+                index++;
+            }
+            next(operations[index]);
+            timestamp++;
+        }
+        return trace;
+    }
+
+    /**
+     * Shuffles which account has which popularity rank, and lays out the
+     * Zipf distribution's cumulative probabilities by rank.
+     */
+    private void rankAccounts() {
+        for (int i = 0; i < popular.length; i++) {
+            popular[i] = i;
+        }
+        for (int i = popular.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = popular[i];
+            popular[i] = popular[j];
+            popular[j] = swap;
+        }
+        double total = 0;
+        for (int rank = 0; rank < popularity.length; rank++) {
+            total += 1 / Math.pow(rank + 1, spec.zipfExponent);
+            popularity[rank] = total;
+        }
+        for (int rank = 0; rank < popularity.length; rank++) {
+            popularity[rank] /= total;
+        }
+    }
+
+    private int popularAccount() {
+        int rank = Arrays.binarySearch(popularity, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return popular[Math.min(rank, popular.length - 1)];
+    }
+
+    /**
+     * Returns a popular account other than the given one.
+     */
+    private int otherAccount(int account) {
+        int other = popularAccount();
+        return other != account ? other : (account + 1 + random.nextInt(spec.accounts - 1)) % spec.accounts;
+    }
+
+    private void next(BankingOperation operation) {
+        switch (operation) {
+            case DEPOSIT:
+                trace.add(BankingProtocol.DEPOSIT, timestamp, popularAccount(), 0, 1 + random.nextInt(1000), 0);
+                break;
+            case TRANSFER:
+                int from = popularAccount();
+                trace.add(BankingProtocol.TRANSFER, timestamp, from, otherAccount(from), 1 + random.nextInt(500), 0);
+                break;
+            case TOP_SPENDERS:
+                int at = random.nextInt(4) == 0 ? 1 + random.nextInt(timestamp) : timestamp;
+                trace.add(BankingProtocol.TOP_SPENDERS, at, 0, 0, 0, 1 + random.nextInt(10));
+                break;
+            case SCHEDULE_PAYMENT:
+                from = popularAccount();
+                schedule(from, otherAccount(from), timestamp + 1 + random.nextInt(MAX_DUE_DELAY));
+                break;
+            case GET_PAYMENT_STATUS:
+                if (trace.payments == 0) {
+                    trace.add(BankingProtocol.PROCESS_SCHEDULED_PAYMENTS, timestamp, 0, 0, 0, 0);
+                    break;
+                }
+                int payment = trace.payments - 1 - random.nextInt(Math.min(trace.payments, STATUS_WINDOW));
+                trace.add(BankingProtocol.GET_PAYMENT_STATUS, timestamp, paymentSources[payment], 0, 0, payment);
+                break;
+            case PROCESS_SCHEDULED_PAYMENTS:
+                trace.add(BankingProtocol.PROCESS_SCHEDULED_PAYMENTS, timestamp, 0, 0, 0, 0);
+                break;
+            case MERGE_ACCOUNTS:
+                int survivor = popularAccount();
+                int merged = otherAccount(survivor);
+                trace.add(BankingProtocol.MERGE_ACCOUNTS, timestamp, survivor, merged, 0, 0);
+                trace.add(BankingProtocol.CREATE_ACCOUNT, timestamp, merged, 0, 0, 0);
+                break;
+            default:
+                throw new IllegalStateException("No generator for " + operation);
+        }
+    }
+
+    /**
+     * Schedules a burst of payments due at the next tick and processes them there.
+     */
+    private void payroll() {
+        int cutoff = timestamp + 1;
+        for (int i = 0; i < spec.burstSize; i++) {
+            int employer = popularAccount();
+            int employee = (employer + 1 + random.nextInt(spec.accounts - 1)) % spec.accounts;
+            schedule(employer, employee, cutoff);
+        }
+        trace.add(BankingProtocol.PROCESS_SCHEDULED_PAYMENTS, cutoff, 0, 0, 0, 0);
+        timestamp = cutoff + 1;
+    }
+
+    private void schedule(int source, int target, int due) {
+        if (trace.payments == paymentSources.length) {
+            paymentSources = Arrays.copyOf(paymentSources, trace.payments * 2);
+        }
+        paymentSources[trace.payments] = source;
+        trace.add(BankingProtocol.SCHEDULE_PAYMENT, due, source, target, 1 + random.nextInt(500), random.nextInt(31));
+    }
+}
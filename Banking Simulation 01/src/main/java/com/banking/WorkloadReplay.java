@@ -0,0 +1,166 @@
+package com.banking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Workload Replay
+ *
+ * Replays a WorkloadTrace against a BankingSystem on the calling thread and
+ * reports throughput and, per operation, calls, failures and latency
+ * percentiles.
+ *
+ * The setup records that open the accounts are applied first and not
+ * measured. The rest run either at full speed, back to back, or paced at a
+ * target rate. When paced, each operation's latency is measured from the
+ * time it was due to start, not from when it actually started, so an
+ * operation stuck behind a slow one is charged for the wait, as a client
+ * issuing requests at that rate would see it.
+ *
+ * Account IDs and payment IDs are prepared or remembered as plain arrays, so
+ * the replay loop itself allocates only what the system under test does.
+ */
+public final class WorkloadReplay {
+
+    // Park while further than this from an operation's start; spin closer in.
+    private static final long SPIN_NANOS = 100_000;
+
+    private final WorkloadTrace trace;
+    private final BankingSystem bank;
+    private final String[] ids;
+    private final String[] paymentIds;
+    private int payments;
+
+    private WorkloadReplay(WorkloadTrace trace, BankingSystem bank) {
+        this.trace = trace;
+        this.bank = bank;
+        ids = new String[trace.accounts];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "acc" + i;
+        }
+        paymentIds = new String[trace.payments];
+    }
+
+    /**
+     * Replays the trace at full speed.
+     */
+    public static WorkloadReport replay(WorkloadTrace trace, BankingSystem bank) {
+        return replay(trace, bank, 0);
+    }
+
+    /**
+     * Replays the trace at the given rate, or at full speed if the rate is zero.
+     */
+    public static WorkloadReport replay(WorkloadTrace trace, BankingSystem bank, long operationsPerSecond) {
+        if (operationsPerSecond < 0) {
+            throw new IllegalArgumentException("Negative rate " + operationsPerSecond);
+        }
+        return new WorkloadReplay(trace, bank).run(operationsPerSecond);
+    }
+
+    private WorkloadReport run(long operationsPerSecond) {
+        for (int i = 0; i < trace.setupSize; i++) {
+            apply(i);
+        }
+        BankingOperation[] operations = BankingOperation.values();
+        InstrumentedBankingSystem.OperationRecorder[] recorders =
+                new InstrumentedBankingSystem.OperationRecorder[operations.length];
+        for (BankingOperation operation : operations) {
+            recorders[operation.ordinal()] = new InstrumentedBankingSystem.OperationRecorder();
+        }
+
+        double interval = operationsPerSecond > 0 ? 1e9 / operationsPerSecond : 0;
+        long start = System.nanoTime();
+        for (int i = trace.setupSize; i < trace.size; i++) {
+            long begin;
+            if (operationsPerSecond > 0) {
+                begin = start + (long) ((i - trace.setupSize) * interval);
+                waitUntil(begin);
+            } else {
+                begin = System.nanoTime();
+            }
+            int result = apply(i);
+            recorders[operation(trace.opcodes[i]).ordinal()].record(System.nanoTime() - begin, result);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        List<OperationMetrics> metrics = new ArrayList<>();
+        for (BankingOperation operation : operations) {
+            metrics.add(recorders[operation.ordinal()].snapshot(operation));
+        }
+        return new WorkloadReport(trace.size - trace.setupSize, elapsed, operationsPerSecond, metrics);
+    }
+
+    /**
+     * Applies record i and returns its result as a status code: the
+     * tryDeposit/tryTransfer result for those, otherwise 0 on success and
+     * REJECTED for a false or null answer.
+     */
+    private int apply(int i) {
+        int timestamp = trace.timestamps[i];
+        switch (trace.opcodes[i]) {
+            case BankingProtocol.CREATE_ACCOUNT:
+                return bank.createAccount(ids[trace.firsts[i]], timestamp) ? 0 : OperationStatus.REJECTED;
+            case BankingProtocol.DEPOSIT:
+                return bank.tryDeposit(ids[trace.firsts[i]], timestamp, trace.amounts[i]);
+            case BankingProtocol.TRANSFER:
+                return bank.tryTransfer(ids[trace.firsts[i]], ids[trace.seconds[i]], timestamp, trace.amounts[i]);
+            case BankingProtocol.TOP_SPENDERS:
+                bank.topSpenders(timestamp, trace.arguments[i]);
+                return 0;
+            case BankingProtocol.SCHEDULE_PAYMENT:
+                String paymentId = bank.schedulePayment(ids[trace.firsts[i]], ids[trace.seconds[i]], timestamp,
+                        trace.amounts[i], trace.arguments[i] / 10.0);
+                paymentIds[payments++] = paymentId;
+                return paymentId != null ? 0 : OperationStatus.REJECTED;
+            case BankingProtocol.GET_PAYMENT_STATUS:
+                paymentId = paymentIds[trace.arguments[i]];
+                // A payment the system refused to schedule has no ID to ask about.
+                return paymentId != null && bank.getPaymentStatus(ids[trace.firsts[i]], timestamp, paymentId) != null
+                        ? 0 : OperationStatus.REJECTED;
+            case BankingProtocol.PROCESS_SCHEDULED_PAYMENTS:
+                bank.processScheduledPayments(timestamp);
+                return 0;
+            case BankingProtocol.MERGE_ACCOUNTS:
+                bank.mergeAccounts(ids[trace.firsts[i]], ids[trace.seconds[i]]);
+                return 0;
+            default:
+                throw new IllegalStateException("Unknown opcode " + trace.opcodes[i]);
+        }
+    }
+
+    static BankingOperation operation(byte opcode) {
+        switch (opcode) {
+            case BankingProtocol.CREATE_ACCOUNT:
+                return BankingOperation.CREATE_ACCOUNT;
+            case BankingProtocol.DEPOSIT:
+                return BankingOperation.DEPOSIT;
+            case BankingProtocol.TRANSFER:
+                return BankingOperation.TRANSFER;
+            case BankingProtocol.TOP_SPENDERS:
+                return BankingOperation.TOP_SPENDERS;
+            case BankingProtocol.SCHEDULE_PAYMENT:
+                return BankingOperation.SCHEDULE_PAYMENT;
+            case BankingProtocol.GET_PAYMENT_STATUS:
+                return BankingOperation.GET_PAYMENT_STATUS;
+            case BankingProtocol.PROCESS_SCHEDULED_PAYMENTS:
+                return BankingOperation.PROCESS_SCHEDULED_PAYMENTS;
+            case BankingProtocol.MERGE_ACCOUNTS:
+                return BankingOperation.MERGE_ACCOUNTS;
+            default:
+                throw new IllegalStateException("Unknown opcode " + opcode);
+        }
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
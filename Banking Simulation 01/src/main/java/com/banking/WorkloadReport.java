@@ -0,0 +1,73 @@
+package com.banking;
+
+import java.util.List;
+
+/**
+ * The outcome of a WorkloadReplay: how many operations ran in how long, and
+ * the metrics of each operation. Latencies are in nanoseconds and accurate
+ * to within 6.25%.
+ */
+public final class WorkloadReport {
+
+    private final long operations;
+    private final long elapsedNanos;
+    private final long targetRate;
+    private final List<OperationMetrics> metrics;
+
+    WorkloadReport(long operations, long elapsedNanos, long targetRate, List<OperationMetrics> metrics) {
+        this.operations = operations;
+        this.elapsedNanos = elapsedNanos;
+        this.targetRate = targetRate;
+        this.metrics = List.copyOf(metrics);
+    }
+
+    /**
+     * Returns the number of measured operations, not counting the setup.
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the rate the replay was paced at, or 0 for full speed.
+     */
+    public long getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Returns the achieved throughput in operations per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the metrics of every operation, in BankingOperation order.
+     */
+    public List<OperationMetrics> getMetrics() {
+        return metrics;
+    }
+
+    public OperationMetrics metrics(BankingOperation operation) {
+        return metrics.get(operation.ordinal());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%,d operations in %,d ms: %,.0f ops/s", operations,
+                elapsedNanos / 1_000_000, getThroughput()));
+        report.append(targetRate > 0 ? String.format(" (target %,d ops/s)", targetRate) : " (full speed)");
+        for (OperationMetrics operation : metrics) {
+            if (operation.getCalls() > 0) {
+                report.append(System.lineSeparator()).append("  ").append(operation);
+            }
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package com.banking;
+
+/**
+ * Workload Specification
+ *
+ * The shape of a generated workload: how many accounts, how many operations,
+ * how skewed account popularity is, the mix of operations and the payroll
+ * bursts. Setters return the spec so one can be written as a chain:
+ *
+ *   new WorkloadSpec().seed(7).accounts(100_000).operations(5_000_000)
+ *           .zipfExponent(1.1).weight(BankingOperation.MERGE_ACCOUNTS, 0)
+ *
+ * The same spec and seed always generate the same trace.
+ */
+public final class WorkloadSpec {
+
+    long seed = 1;
+    int accounts = 10_000;
+    int operations = 1_000_000;
+    double zipfExponent = 1.0;
+    int openingBalance = 10_000;
+    int burstInterval = 100_000;
+    int burstSize = 5_000;
+    final int[] weights = new int[BankingOperation.values().length];
+
+    /**
+     * Starts from the default mix, in relative weights: mostly transfers and
+     * deposits, some scheduled payments and status checks, occasional
+     * rankings, processing ticks and merges.
+     */
+    public WorkloadSpec() {
+        weights[BankingOperation.DEPOSIT.ordinal()] = 300;
+        weights[BankingOperation.TRANSFER.ordinal()] = 500;
+        weights[BankingOperation.TOP_SPENDERS.ordinal()] = 10;
+        weights[BankingOperation.SCHEDULE_PAYMENT.ordinal()] = 100;
+        weights[BankingOperation.GET_PAYMENT_STATUS.ordinal()] = 50;
+        weights[BankingOperation.PROCESS_SCHEDULED_PAYMENTS.ordinal()] = 30;
+        weights[BankingOperation.MERGE_ACCOUNTS.ordinal()] = 2;
+    }
+
+    public WorkloadSpec seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public WorkloadSpec accounts(int accounts) {
+        if (accounts < 2) {
+            throw new IllegalArgumentException("A workload needs at least 2 accounts, got " + accounts);
+        }
+        this.accounts = accounts;
+        return this;
+    }
+
+    /**
+     * Sets the number of mixed operations, not counting the accounts'
+     * opening operations and the payroll bursts.
+     */
+    public WorkloadSpec operations(int operations) {
+        if (operations < 0) {
+            throw new IllegalArgumentException("Negative operation count " + operations);
+        }
+        this.operations = operations;
+        return this;
+    }
+
+    /**
+     * Sets the skew of account popularity: the k-th most popular account is
+     * picked with probability proportional to 1 / k^exponent. Zero picks
+     * uniformly.
+     */
+    public WorkloadSpec zipfExponent(double zipfExponent) {
+        if (!(zipfExponent >= 0)) {
+            throw new IllegalArgumentException("Zipf exponent must be non-negative, got " + zipfExponent);
+        }
+        this.zipfExponent = zipfExponent;
+        return this;
+    }
+
+    public WorkloadSpec openingBalance(int openingBalance) {
+        if (openingBalance <= 0) {
+            throw new IllegalArgumentException("Opening balance must be positive, got " + openingBalance);
+        }
+        this.openingBalance = openingBalance;
+        return this;
+    }
+
+    /**
+     * Sets the relative weight of an operation in the mix. CREATE_ACCOUNT is
+     * not drawn from the mix: accounts are opened up front, and an ID merged
+     * away is opened again right after the merge.
+     */
+    public WorkloadSpec weight(BankingOperation operation, int weight) {
+        if (operation == BankingOperation.CREATE_ACCOUNT) {
+            throw new IllegalArgumentException("CREATE_ACCOUNT has no weight in the mix");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight " + weight + " for " + operation);
+        }
+        weights[operation.ordinal()] = weight;
+        return this;
+    }
+
+    /**
+     * Every interval mixed operations, schedules size payments all due at
+     * the next tick and processes them there, like a payroll cutoff. An
+     * interval of zero turns bursts off.
+     */
+    public WorkloadSpec bursts(int interval, int size) {
+        if (interval < 0 || size < 0) {
+            throw new IllegalArgumentException("Negative burst interval or size");
+        }
+        this.burstInterval = interval;
+        this.burstSize = size;
+        return this;
+    }
+}
@@ -0,0 +1,294 @@
+package com.banking;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Workload Trace
+ *
+ * A recorded stream of BankingSystem operations, held as parallel primitive
+ * columns rather than one object per operation, so a trace of tens of
+ * millions of operations replays without touching the allocator.
+ *
+ * Accounts are referred to by index; replay turns index i into the ID
+ * "acc<i>". Scheduled payments are referred to by ordinal, the n-th
+ * SCHEDULE_PAYMENT of the trace, so a status check finds whatever ID the
+ * system under test returned for it. Opcodes are those of BankingProtocol.
+ *
+ * The columns per opcode (unused ones are zero):
+ *   CREATE_ACCOUNT              account
+ *   DEPOSIT                     account, amount
+ *   TRANSFER                    account, other, amount
+ *   TOP_SPENDERS                argument = n
+ *   SCHEDULE_PAYMENT            account, other, amount, argument = cashback in tenths of a percent
+ *   GET_PAYMENT_STATUS          account, argument = payment ordinal
+ *   PROCESS_SCHEDULED_PAYMENTS  (timestamp only)
+ *   MERGE_ACCOUNTS              account, other
+ * The timestamp column holds the timestamp argument of the call, which for
+ * SCHEDULE_PAYMENT is the due timestamp.
+ *
+ * File format: int magic, byte version, then as unsigned LEB128 varints the
+ * account count, the setup size and the record count, then the records. A
+ * record is its opcode byte, the zigzag varint difference between its
+ * timestamp and the previous record's, then its used columns as varints in
+ * the order above. A typical record takes 5 to 8 bytes.
+ */
+public final class WorkloadTrace {
+
+    private static final int MAGIC = 0x424B5754;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    final int accounts;
+    int setupSize;
+    byte[] opcodes;
+    int[] timestamps;
+    int[] firsts;
+    int[] seconds;
+    int[] amounts;
+    int[] arguments;
+    int size;
+    int payments;
+
+    WorkloadTrace(int accounts) {
+        this(accounts, INITIAL_CAPACITY);
+    }
+
+    private WorkloadTrace(int accounts, int capacity) {
+        this.accounts = accounts;
+        capacity = Math.max(1, capacity);
+        opcodes = new byte[capacity];
+        timestamps = new int[capacity];
+        firsts = new int[capacity];
+        seconds = new int[capacity];
+        amounts = new int[capacity];
+        arguments = new int[capacity];
+    }
+
+    /**
+     * Returns the number of accounts the trace refers to.
+     */
+    public int accounts() {
+        return accounts;
+    }
+
+    /**
+     * Returns the number of leading records that open the accounts; replay
+     * applies them before it starts measuring.
+     */
+    public int setupSize() {
+        return setupSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    void add(byte opcode, int timestamp, int first, int second, int amount, int argument) {
+        if (size == opcodes.length) {
+            int capacity = size * 2;
+            opcodes = Arrays.copyOf(opcodes, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            arguments = Arrays.copyOf(arguments, capacity);
+        }
+        opcodes[size] = opcode;
+        timestamps[size] = timestamp;
+        firsts[size] = first;
+        seconds[size] = second;
+        amounts[size] = amount;
+        arguments[size] = argument;
+        size++;
+        if (opcode == BankingProtocol.SCHEDULE_PAYMENT) {
+            payments++;
+        }
+    }
+
+    // ========== Encoding ==========
+
+    public void write(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    public static WorkloadTrace read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Writes the trace to the stream, flushing but not closing it.
+     */
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarint(out, accounts);
+        writeVarint(out, setupSize);
+        writeVarint(out, size);
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            byte opcode = opcodes[i];
+            out.writeByte(opcode);
+            int delta = timestamps[i] - previous;
+            writeVarint(out, (delta << 1) ^ (delta >> 31));
+            previous = timestamps[i];
+            switch (opcode) {
+                case BankingProtocol.CREATE_ACCOUNT:
+                    writeVarint(out, firsts[i]);
+                    break;
+                case BankingProtocol.DEPOSIT:
+                    writeVarint(out, firsts[i]);
+                    writeVarint(out, amounts[i]);
+                    break;
+                case BankingProtocol.TRANSFER:
+                    writeVarint(out, firsts[i]);
+                    writeVarint(out, seconds[i]);
+                    writeVarint(out, amounts[i]);
+                    break;
+                case BankingProtocol.TOP_SPENDERS:
+                    writeVarint(out, arguments[i]);
+                    break;
+                case BankingProtocol.SCHEDULE_PAYMENT:
+                    writeVarint(out, firsts[i]);
+                    writeVarint(out, seconds[i]);
+                    writeVarint(out, amounts[i]);
+                    writeVarint(out, arguments[i]);
+                    break;
+                case BankingProtocol.GET_PAYMENT_STATUS:
+                    writeVarint(out, firsts[i]);
+                    writeVarint(out, arguments[i]);
+                    break;
+                case BankingProtocol.PROCESS_SCHEDULED_PAYMENTS:
+                    break;
+                case BankingProtocol.MERGE_ACCOUNTS:
+                    writeVarint(out, firsts[i]);
+                    writeVarint(out, seconds[i]);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + opcode);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a trace written by write, checking every account index and
+     * payment ordinal against the header.
+     */
+    public static WorkloadTrace read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a workload trace");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported workload trace version " + version);
+        }
+        int accounts = readVarint(in);
+        int setupSize = readVarint(in);
+        int size = readVarint(in);
+        if (accounts < 0 || size < 0 || setupSize < 0 || setupSize > size) {
+            throw new IOException("Corrupt workload trace header");
+        }
+        // The columns grow as records arrive, so a corrupt size cannot force a huge allocation.
+        WorkloadTrace trace = new WorkloadTrace(accounts, Math.min(size, 1 << 20));
+        trace.setupSize = setupSize;
+        int timestamp = 0;
+        for (int i = 0; i < size; i++) {
+            byte opcode = in.readByte();
+            int zigzag = readVarint(in);
+            timestamp += (zigzag >>> 1) ^ -(zigzag & 1);
+            int first = 0;
+            int second = 0;
+            int amount = 0;
+            int argument = 0;
+            switch (opcode) {
+                case BankingProtocol.CREATE_ACCOUNT:
+                    first = readAccount(in, accounts);
+                    break;
+                case BankingProtocol.DEPOSIT:
+                    first = readAccount(in, accounts);
+                    amount = readVarint(in);
+                    break;
+                case BankingProtocol.TRANSFER:
+                    first = readAccount(in, accounts);
+                    second = readAccount(in, accounts);
+                    amount = readVarint(in);
+                    break;
+                case BankingProtocol.TOP_SPENDERS:
+                    argument = readVarint(in);
+                    break;
+                case BankingProtocol.SCHEDULE_PAYMENT:
+                    first = readAccount(in, accounts);
+                    second = readAccount(in, accounts);
+                    amount = readVarint(in);
+                    argument = readVarint(in);
+                    break;
+                case BankingProtocol.GET_PAYMENT_STATUS:
+                    first = readAccount(in, accounts);
+                    argument = readVarint(in);
+                    if (argument >= trace.payments) {
+                        throw new IOException("Corrupt workload trace: status of payment " + argument
+                                + " before it was scheduled");
+                    }
+                    break;
+                case BankingProtocol.PROCESS_SCHEDULED_PAYMENTS:
+                    break;
+                case BankingProtocol.MERGE_ACCOUNTS:
+                    first = readAccount(in, accounts);
+                    second = readAccount(in, accounts);
+                    break;
+                default:
+                    throw new IOException("Corrupt workload trace: unknown opcode " + opcode);
+            }
+            trace.add(opcode, timestamp, first, second, amount, argument);
+        }
+        return trace;
+    }
+
+    private static int readAccount(DataInputStream in, int accounts) throws IOException {
+        int account = readVarint(in);
+        if (account >= accounts) {
+            throw new IOException("Corrupt workload trace: account " + account + " of " + accounts);
+        }
+        return account;
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated workload trace");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt workload trace: varint too long");
+    }
+}
@@ -0,0 +1,291 @@
+package com.banking;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Write-Ahead Log
+ *
+ * An append-only file of opaque binary records. Each record is framed as
+ * [int payload length][int CRC32 of payload][payload], so a record torn by a
+ * crash is detected on the next open and cut off.
+ *
+ * Appends only copy into an in-memory batch and return the log position just
+ * past the record. awaitDurable(position) then writes the batch out: the first
+ * waiting caller writes (and, in FSYNC_PER_BATCH mode, forces) everything
+ * appended so far while later callers queue behind it, so one write and one
+ * fsync cover every record appended in the meantime.
+ *
+ * Once a write fails the log is unusable and every later awaitDurable throws.
+ */
+class WriteAheadLog implements Closeable {
+
+    static final int HEADER_BYTES = 8;
+
+    private static final int INITIAL_BATCH_CAPACITY = 64 * 1024;
+
+    private final FileChannel channel;
+    private final DurabilityMode mode;
+    private final Object flushLock = new Object();
+    private final Object progress = new Object();
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService syncer;
+
+    // Guarded by this
+    private ByteBuffer pending;
+    private long appendedPosition;
+
+    // Guarded by flushLock
+    private ByteBuffer spare;
+    private volatile long writtenPosition;
+    private volatile long durablePosition;
+    private volatile IOException failure;
+
+    private WriteAheadLog(FileChannel channel, DurabilityMode mode, long end, long syncIntervalMillis) {
+        this.channel = channel;
+        this.mode = mode;
+        pending = ByteBuffer.allocate(INITIAL_BATCH_CAPACITY);
+        spare = ByteBuffer.allocate(INITIAL_BATCH_CAPACITY);
+        appendedPosition = end;
+        writtenPosition = end;
+        durablePosition = end;
+        if (mode == DurabilityMode.PERIODIC) {
+            syncer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "wal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::periodicSync, syncIntervalMillis, syncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    /**
+     * Opens the log, creating it if needed, and hands the payload of every
+     * intact record from the given position on to the consumer in log order.
+     * A torn or corrupt tail is truncated.
+     */
+    static WriteAheadLog open(Path file, DurabilityMode mode, long syncIntervalMillis,
+                              long from, Consumer<ByteBuffer> replay) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (from > channel.size()) {
+                throw new IOException("Write-ahead log " + file + " ends before position " + from);
+            }
+            long end = readRecords(channel, from, replay);
+            if (end < channel.size()) {
+                channel.truncate(end);
+                channel.force(false);
+            }
+            channel.position(end);
+            return new WriteAheadLog(channel, mode, end, syncIntervalMillis);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads records from the given position until the end of the channel or
+     * the first incomplete or corrupt record. Returns the position just past
+     * the last intact record.
+     */
+    static long readRecords(FileChannel channel, long from, Consumer<ByteBuffer> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BATCH_CAPACITY);
+        CRC32 checksum = new CRC32();
+        long size = channel.size();
+        long position = from;
+        long readPosition = from;
+        boolean eof = false;
+        buffer.flip();
+        while (true) {
+            if (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt(buffer.position());
+                int expected = buffer.getInt(buffer.position() + 4);
+                if (length < 0 || length > size - position - HEADER_BYTES) {
+                    return position;
+                }
+                if (buffer.remaining() >= HEADER_BYTES + length) {
+                    ByteBuffer payload = buffer.duplicate();
+                    payload.position(buffer.position() + HEADER_BYTES).limit(buffer.position() + HEADER_BYTES + length);
+                    checksum.reset();
+                    checksum.update(payload.duplicate());
+                    if ((int) checksum.getValue() != expected) {
+                        return position;
+                    }
+                    consumer.accept(payload.slice().asReadOnlyBuffer());
+                    buffer.position(buffer.position() + HEADER_BYTES + length);
+                    position += HEADER_BYTES + length;
+                    continue;
+                }
+                if (HEADER_BYTES + length > buffer.capacity()) {
+                    buffer = ByteBuffer.allocate(HEADER_BYTES + length).put(buffer);
+                    buffer.flip();
+                }
+            }
+            if (eof) {
+                return position;
+            }
+            buffer.compact();
+            int read = channel.read(buffer, readPosition);
+            if (read < 0) {
+                eof = true;
+            } else {
+                readPosition += read;
+            }
+            buffer.flip();
+        }
+    }
+
+    /**
+     * Appends the payload's remaining bytes as one record and returns the log
+     * position just past it. Nothing is written until awaitDurable.
+     */
+    synchronized long append(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (pending.remaining() < HEADER_BYTES + length) {
+            int capacity = Math.max(pending.capacity() * 2, pending.position() + HEADER_BYTES + length);
+            pending = ByteBuffer.allocate(capacity).put(pending.flip());
+        }
+        crc.reset();
+        if (payload.hasArray()) {
+            crc.update(payload.array(), payload.arrayOffset() + payload.position(), length);
+        } else {
+            crc.update(payload.duplicate());
+        }
+        pending.putInt(length).putInt((int) crc.getValue()).put(payload);
+        appendedPosition += HEADER_BYTES + length;
+        return appendedPosition;
+    }
+
+    /**
+     * Blocks until every record up to the given position is as durable as the
+     * mode requires: written to the file, and forced in FSYNC_PER_BATCH mode.
+     */
+    void awaitDurable(long position) {
+        boolean force = mode == DurabilityMode.FSYNC_PER_BATCH;
+        if (failure == null && (force ? durablePosition : writtenPosition) >= position) {
+            return;
+        }
+        synchronized (flushLock) {
+            if (failure == null && (force ? durablePosition : writtenPosition) >= position) {
+                return;
+            }
+            flush(force);
+        }
+    }
+
+    /**
+     * Writes and forces everything appended so far.
+     */
+    void sync() {
+        synchronized (flushLock) {
+            flush(true);
+        }
+    }
+
+    /**
+     * Returns the log position just past the last record written to the file.
+     * Records before it can be read back from the file, forced or not.
+     */
+    long writtenPosition() {
+        return writtenPosition;
+    }
+
+    /**
+     * Blocks until records past the given position have been written to the
+     * file or the timeout elapses, and returns the written position.
+     */
+    long awaitWritten(long position, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            long remaining = timeoutMillis;
+            while (writtenPosition <= position && remaining > 0) {
+                progress.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+        return writtenPosition;
+    }
+
+    /**
+     * Returns the log position just past the last appended record.
+     */
+    synchronized long appendedPosition() {
+        return appendedPosition;
+    }
+
+    private void flush(boolean force) {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed earlier", failure);
+        }
+        ByteBuffer batch;
+        long end;
+        synchronized (this) {
+            batch = pending;
+            pending = spare;
+            end = appendedPosition;
+        }
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            batch.clear();
+            spare = batch;
+            writtenPosition = end;
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+            if (force && durablePosition < end) {
+                channel.force(false);
+                durablePosition = end;
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void periodicSync() {
+        try {
+            sync();
+        } catch (UncheckedIOException e) {
+            // Recorded in failure; surfaced to the next caller of awaitDurable.
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncer != null) {
+            syncer.shutdown();
+            try {
+                syncer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (failure == null) {
+                sync();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Account Index Test Cases
+ *
+ * Tests the open-addressing account ID to handle map against HashMap.
+ */
+@DisplayName("Account Index")
+class AccountIndexTest {
+
+    @Test
+    @DisplayName("Should match HashMap under random puts and removes")
+    void testMatchesHashMap() {
+        Random random = new Random(1);
+        AccountIndex index = new AccountIndex();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            String key = "acc" + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? AccountIndex.NOT_FOUND : removed, index.remove(key));
+            } else {
+                boolean added = expected.putIfAbsent(key, i) == null;
+                assertEquals(added, index.putIfAbsent(key, i));
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (int i = 0; i < 5_000; i++) {
+            String key = "acc" + i;
+            assertEquals(expected.getOrDefault(key, AccountIndex.NOT_FOUND), index.get(key));
+        }
+    }
+}
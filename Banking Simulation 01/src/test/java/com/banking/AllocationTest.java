@@ -0,0 +1,132 @@
+package com.banking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation Test Cases
+ *
+ * Regression tests for the primitive status-reporting API: tryDeposit and
+ * tryTransfer, and the handle-based operations, must not allocate on the
+ * success or the failure path. Allocation is read from the thread's
+ * allocated-bytes counter around windows of calls. Growing the journal and
+ * the per-account arrays allocates now and then, so each check takes the
+ * least-allocating of several windows, which is zero unless every call
+ * allocates.
+ */
+@DisplayName("Allocation")
+class AllocationTest {
+
+    private static final int ACCOUNTS = 64;
+    private static final int CALLS = 1000;
+    private static final int WINDOWS = 20;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private final String[] ids = new String[ACCOUNTS];
+    private int timestamp;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void checkSupport() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+    }
+
+    @Test
+    @DisplayName("Should not allocate in BankingSystemImpl")
+    void testBankingSystemImpl() {
+        BankingSystemImpl bank = new BankingSystemImpl();
+        assertAllocationFree(bank);
+
+        int[] handles = new int[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            handles[i] = bank.accountHandle(ids[i]);
+        }
+        assertEquals(0, bytesPerWindow(() -> {
+            for (int i = 0; i < CALLS; i++) {
+                bank.depositByHandle(handles[i % ACCOUNTS], ++timestamp, 10);
+                bank.transferByHandle(handles[i % ACCOUNTS], handles[(i + 1) % ACCOUNTS], timestamp, 1);
+                bank.transferByHandle(handles[0], handles[1], timestamp, Integer.MAX_VALUE);
+            }
+        }), "handle-based operations");
+    }
+
+    @Test
+    @DisplayName("Should not allocate in InstrumentedBankingSystem")
+    void testInstrumentedBankingSystem() {
+        assertAllocationFree(new InstrumentedBankingSystem(new BankingSystemImpl()));
+    }
+
+    @Test
+    @DisplayName("Should not allocate in DurableBankingSystem")
+    void testDurableBankingSystem() throws Exception {
+        try (DurableBankingSystem bank = DurableBankingSystem.open(directory.resolve("bank.wal"), DurabilityMode.NONE)) {
+            assertAllocationFree(bank);
+        }
+    }
+
+    /**
+     * Creates and funds the accounts, then checks every success and failure
+     * path of tryDeposit and tryTransfer.
+     */
+    private void assertAllocationFree(BankingSystem bank) {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = "acc" + i;
+            bank.createAccount(ids[i], 0);
+            bank.tryDeposit(ids[i], 0, 1_000_000);
+        }
+        assertEquals(0, bytesPerWindow(() -> {
+            for (int i = 0; i < CALLS; i++) {
+                assertTrue(bank.tryDeposit(ids[i % ACCOUNTS], ++timestamp, 10) > 0);
+            }
+        }), "successful deposits");
+        assertEquals(0, bytesPerWindow(() -> {
+            for (int i = 0; i < CALLS; i++) {
+                assertTrue(bank.tryTransfer(ids[i % ACCOUNTS], ids[(i + 1) % ACCOUNTS], ++timestamp, 1) > 0);
+            }
+        }), "successful transfers");
+        assertEquals(0, bytesPerWindow(() -> {
+            for (int i = 0; i < CALLS; i++) {
+                assertTrue(bank.tryDeposit("missing", timestamp, 10) < 0);
+                assertTrue(bank.tryDeposit(ids[0], timestamp, 0) < 0);
+                assertTrue(bank.tryTransfer(ids[0], "missing", timestamp, 1) < 0);
+                assertTrue(bank.tryTransfer(ids[0], ids[1], timestamp, Integer.MAX_VALUE) < 0);
+            }
+        }), "failed operations");
+    }
+
+    /**
+     * Returns the fewest bytes the calls allocated over several windows, less
+     * what reading the counter costs.
+     */
+    private static long bytesPerWindow(Runnable calls) {
+        long overhead = leastAllocated(() -> { });
+        return leastAllocated(calls) - overhead;
+    }
+
+    private static long leastAllocated(Runnable calls) {
+        long threadId = Thread.currentThread().getId();
+        // The first windows load classes and fill caches.
+        calls.run();
+        calls.run();
+        long least = Long.MAX_VALUE;
+        for (int window = 0; window < WINDOWS; window++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            calls.run();
+            least = Math.min(least, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        return least;
+    }
+}
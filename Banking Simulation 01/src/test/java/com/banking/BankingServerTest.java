@@ -0,0 +1,166 @@
+package com.banking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Banking Server Test Cases
+ *
+ * Tests for the TCP front-end on localhost:
+ * - Every operation gives the same result as the system it exposes
+ * - Many pipelined requests on one connection, answered in order
+ * - Errors fail only their request; a closed server fails the client
+ * - Batch sizes the protocol does not allow close only their connection
+ */
+@DisplayName("Banking Server")
+class BankingServerTest {
+
+    private BankingServer server;
+    private BankingClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = BankingServer.start(new ConcurrentBankingSystem() {
+            @Override
+            public void processScheduledPayments(int currentTimestamp) {
+                if (currentTimestamp < 0) {
+                    throw new IllegalArgumentException("negative timestamp");
+                }
+                super.processScheduledPayments(currentTimestamp);
+            }
+        }, 0);
+        client = BankingClient.connect("localhost", server.port());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should give the same results as the system it exposes")
+    void testMatchesLocalSystem() {
+        BankingSystem reference = new ConcurrentBankingSystem();
+        Random random = new Random(3);
+        for (int timestamp = 1; timestamp <= 2000; timestamp++) {
+            String a = "acc" + random.nextInt(12);
+            String b = "acc" + random.nextInt(12);
+            int amount = random.nextInt(300) - 10;
+            switch (random.nextInt(8)) {
+                case 0:
+                    assertEquals(reference.createAccount(a, timestamp), client.createAccount(a, timestamp));
+                    break;
+                case 1:
+                    assertEquals(reference.deposit(a, timestamp, amount), client.deposit(a, timestamp, amount));
+                    break;
+                case 2:
+                    assertEquals(reference.transfer(a, b, timestamp, amount), client.transfer(a, b, timestamp, amount));
+                    break;
+                case 3:
+                    String paymentId = reference.schedulePayment(a, b, timestamp + 10, amount, 2.5);
+                    assertEquals(paymentId, client.schedulePayment(a, b, timestamp + 10, amount, 2.5));
+                    break;
+                case 4:
+                    reference.processScheduledPayments(timestamp);
+                    client.processScheduledPayments(timestamp);
+                    String payment = random.nextBoolean() ? null : PaymentScheduler.paymentId(1 + random.nextInt(30));
+                    assertEquals(reference.getPaymentStatus(a, timestamp, payment),
+                            client.getPaymentStatus(a, timestamp, payment));
+                    break;
+                case 5:
+                    if (random.nextInt(10) == 0) {
+                        reference.mergeAccounts(a, b);
+                        client.mergeAccounts(a, b);
+                    }
+                    break;
+                case 6:
+                    DepositBatch deposits = new DepositBatch().add(a, timestamp, amount).add(b, timestamp, 5);
+                    TransferBatch transfers = new TransferBatch().add(a, b, timestamp, amount).add(b, a, timestamp, 1);
+                    assertArrayEquals(reference.depositBatch(deposits), client.depositBatch(deposits));
+                    assertArrayEquals(reference.transferBatch(transfers), client.transferBatch(transfers));
+                    break;
+                default:
+                    assertEquals(reference.topSpenders(timestamp, 4), client.topSpenders(timestamp, 4));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer many pipelined requests on one connection in order")
+    void testPipelining() {
+        client.createAccount("acc1", 1);
+        List<CompletableFuture<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            responses.add(client.tryDepositAsync("acc1", 2, 1));
+        }
+        assertTrue(client.inFlight() > 0 || responses.get(responses.size() - 1).isDone());
+
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals(i + 1, responses.get(i).join());
+        }
+        assertEquals(0, client.inFlight());
+    }
+
+    @Test
+    @DisplayName("Should fail only the request that throws and keep the connection")
+    void testErrors() {
+        client.createAccount("acc1", 1);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> client.processScheduledPayments(-1));
+        assertTrue(error.getMessage().contains("negative timestamp"));
+        assertThrows(NullPointerException.class, () -> client.createAccount(null, 1));
+
+        assertEquals(10, client.deposit("acc1", 2, 10).get());
+    }
+
+    @Test
+    @DisplayName("Should close a connection that sends an impossible batch size")
+    void testBadBatchSize() throws IOException {
+        client.createAccount("acc1", 1);
+        for (int size : new int[] {-1, Integer.MAX_VALUE, BankingProtocol.MAX_LIST_SIZE + 1}) {
+            try (Socket socket = new Socket("localhost", server.port())) {
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeLong(1);
+                out.writeByte(BankingProtocol.DEPOSIT_BATCH);
+                out.writeInt(size);
+                out.flush();
+                assertEquals(-1, new DataInputStream(socket.getInputStream()).read(),
+                        "Connection should close without a response for size " + size);
+            }
+        }
+
+        assertEquals(10, client.deposit("acc1", 2, 10).get());
+    }
+
+    @Test
+    @DisplayName("Should fail requests once the server is gone")
+    void testServerClosed() throws IOException {
+        client.createAccount("acc1", 1);
+
+        server.close();
+
+        CompletionException error = assertThrows(CompletionException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                client.tryDepositAsync("acc1", 2, 1).join();
+            }
+        });
+        assertTrue(error.getCause() instanceof UncheckedIOException);
+    }
+}
@@ -0,0 +1,128 @@
+package com.banking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Banking Snapshot Test Cases
+ *
+ * Tests for snapshots of BankingSystemImpl:
+ * - A restored system matches the original, derived indexes included
+ * - Startup from a snapshot replays only the log tail
+ * - Writers keep going while a snapshot is written
+ */
+@DisplayName("Banking Snapshots")
+class BankingSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private BankingSystemImpl bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new BankingSystemImpl();
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.createAccount("acc3", 1000);
+        bank.deposit("acc1", 1100, 1000);
+        bank.deposit("acc2", 1100, 500);
+        bank.transfer("acc1", "acc2", 1200, 300);
+        bank.transfer("acc2", "acc3", 1300, 100);
+        bank.schedulePayment("acc1", "acc3", 1400, 200, 5.0);
+        bank.schedulePayment("acc3", "acc1", 1400, 5000, 0);
+        bank.schedulePayment("acc2", "acc1", 9000, 50, 0);
+        bank.processScheduledPayments(1400);
+        bank.mergeAccounts("acc1", "acc2");
+    }
+
+    @Test
+    @DisplayName("Should restore the same state and rebuild derived indexes")
+    void testRoundTrip() throws IOException {
+        Path file = directory.resolve("bank.snapshot");
+        BankingSnapshot.capture(bank, 42).writeTo(file);
+
+        BankingSnapshot.Restored restored = BankingSnapshot.restore(file, SchedulerBackend.TIMING_WHEEL);
+        BankingSystemImpl copy = restored.system;
+
+        assertEquals(42, restored.logPosition);
+        assertEquals(bank.accounts.count, copy.accounts.count);
+        for (int handle = 0; handle < bank.accounts.count; handle++) {
+            assertEquals(bank.accounts.ids[handle], copy.accounts.ids[handle]);
+            assertEquals(bank.accounts.balance[handle], copy.accounts.balance[handle]);
+            assertEquals(bank.accounts.outgoing[handle], copy.accounts.outgoing[handle]);
+            if (bank.accounts.isOpen(handle)) {
+                assertArrayEquals(bank.accounts.entriesOf(handle), copy.accounts.entriesOf(handle));
+            }
+        }
+        for (int timestamp : new int[] {1150, 1250, 1350, 1500}) {
+            assertEquals(bank.topSpenders(timestamp, 5), copy.topSpenders(timestamp, 5));
+        }
+        for (String paymentId : List.of("payment1", "payment2", "payment3")) {
+            assertEquals(bank.getPaymentStatus("acc1", 1500, paymentId), copy.getPaymentStatus("acc1", 1500, paymentId));
+            assertEquals(bank.getPaymentStatus("acc3", 1500, paymentId), copy.getPaymentStatus("acc3", 1500, paymentId));
+        }
+        assertEquals(-1, copy.accountHandle("acc2"));
+        assertEquals("payment4", copy.schedulePayment("acc1", "acc3", 1500, 10, 0));
+
+        bank.processScheduledPayments(9000);
+        copy.processScheduledPayments(9000);
+        assertEquals("PROCESSED", copy.getPaymentStatus("acc1", 9000, "payment3"));
+        assertEquals(bank.deposit("acc1", 9100, 1), copy.deposit("acc1", 9100, 1).map(balance -> balance + 10));
+    }
+
+    @Test
+    @DisplayName("Should start from the snapshot plus the log tail")
+    void testSnapshotPlusLogTail() throws Exception {
+        Path log = directory.resolve("bank.wal");
+        Path snapshot = directory.resolve("bank.snapshot");
+        try (DurableBankingSystem durable = DurableBankingSystem.open(log, snapshot, DurabilityMode.NONE)) {
+            durable.createAccount("acc1", 1000);
+            durable.deposit("acc1", 1100, 100);
+            durable.snapshot(snapshot).get();
+            durable.deposit("acc1", 1200, 20);
+            durable.createAccount("acc2", 1200);
+            durable.transfer("acc1", "acc2", 1300, 50);
+        }
+
+        try (DurableBankingSystem durable = DurableBankingSystem.open(log, snapshot, DurabilityMode.NONE)) {
+            assertEquals(Optional.of(71), durable.deposit("acc1", 1400, 1));
+            assertEquals(Optional.of(51), durable.deposit("acc2", 1400, 1));
+            assertEquals(List.of("acc1(50)"), durable.topSpenders(1400, 5));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep accepting writes while a snapshot is written")
+    void testWritesDuringSnapshot() throws Exception {
+        Path log = directory.resolve("bank.wal");
+        Path snapshot = directory.resolve("bank.snapshot");
+        try (DurableBankingSystem durable = DurableBankingSystem.open(log, snapshot, DurabilityMode.NONE)) {
+            durable.createAccount("acc1", 0);
+            for (int i = 1; i <= 20_000; i++) {
+                durable.deposit("acc1", i, 1);
+            }
+            CompletableFuture<Void> written = durable.snapshot(snapshot);
+            for (int i = 20_001; i <= 40_000; i++) {
+                durable.deposit("acc1", i, 1);
+            }
+            written.get();
+        }
+
+        BankingSnapshot.Restored restored = BankingSnapshot.restore(snapshot, SchedulerBackend.HEAP);
+        assertEquals(20_000, restored.system.balanceByHandle(restored.system.accountHandle("acc1")));
+        try (DurableBankingSystem durable = DurableBankingSystem.open(log, snapshot, DurabilityMode.NONE)) {
+            assertEquals(Optional.of(40_001), durable.deposit("acc1", 50_000, 1));
+        }
+    }
+}
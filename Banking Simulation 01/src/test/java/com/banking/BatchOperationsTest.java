@@ -0,0 +1,114 @@
+package com.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch Operations Test Cases
+ *
+ * Tests for depositBatch and transferBatch:
+ * - Same results and state as the equivalent single calls
+ * - Status codes for failed entries
+ * - The interface defaults and the durable wrapper
+ */
+@DisplayName("Batch Operations")
+class BatchOperationsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should match the equivalent single calls")
+    void testMatchesSingleCalls() {
+        BankingSystemImpl batched = new BankingSystemImpl();
+        BankingSystemImpl single = new BankingSystemImpl();
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            batched.createAccount("acc" + i, 0);
+            single.createAccount("acc" + i, 0);
+        }
+        for (int round = 0; round < 20; round++) {
+            DepositBatch deposits = new DepositBatch();
+            TransferBatch transfers = new TransferBatch();
+            for (int i = 0; i < 50; i++) {
+                int timestamp = 1 + random.nextInt(1000);
+                deposits.add("acc" + random.nextInt(22), timestamp, random.nextInt(200) - 10);
+                String from = "acc" + random.nextInt(22);
+                transfers.add(from, random.nextBoolean() ? from : "acc" + random.nextInt(22),
+                        timestamp, random.nextInt(300) - 10);
+            }
+
+            int[] depositResults = batched.depositBatch(deposits);
+            int[] transferResults = batched.transferBatch(transfers);
+            for (int i = 0; i < deposits.size(); i++) {
+                int expected = single.depositByHandle(single.accountHandle(deposits.accountId(i)),
+                        deposits.timestamp(i), deposits.amount(i));
+                assertEquals(expected, depositResults[i]);
+            }
+            for (int i = 0; i < transfers.size(); i++) {
+                int expected = single.transferByHandle(single.accountHandle(transfers.fromId(i)),
+                        single.accountHandle(transfers.toId(i)), transfers.timestamp(i), transfers.amount(i));
+                assertEquals(expected, transferResults[i]);
+            }
+            assertEquals(single.topSpenders(2000, 25), batched.topSpenders(2000, 25));
+            assertEquals(single.topSpenders(500, 25), batched.topSpenders(500, 25));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report a status code for each failed entry")
+    void testStatusCodes() {
+        BankingSystemImpl bank = new BankingSystemImpl();
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.deposit("acc1", 1100, 500);
+
+        int[] results = bank.transferBatch(new TransferBatch()
+                .add("acc1", "acc2", 1200, 200)
+                .add("acc1", "missing", 1200, 10)
+                .add("acc1", "acc2", 1200, 0)
+                .add("acc1", "acc2", 1200, 400)
+                .add("acc1", "acc2", 1200, 300));
+
+        assertArrayEquals(new int[] {300, OperationStatus.MISSING_ACCOUNT, OperationStatus.NON_POSITIVE_AMOUNT,
+                OperationStatus.INSUFFICIENT_FUNDS, 0}, results);
+    }
+
+    @Test
+    @DisplayName("Should fall back to single calls through the interface defaults")
+    void testInterfaceDefaults() {
+        BankingSystem bank = new ConcurrentBankingSystem();
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+
+        assertArrayEquals(new int[] {100, OperationStatus.MISSING_ACCOUNT},
+                bank.depositBatch(new DepositBatch().add("acc1", 1100, 100).add("missing", 1100, 5)));
+        assertArrayEquals(new int[] {60, OperationStatus.INSUFFICIENT_FUNDS},
+                bank.transferBatch(new TransferBatch().add("acc1", "acc2", 1200, 40).add("acc2", "acc1", 1200, 90)));
+    }
+
+    @Test
+    @DisplayName("Should log every successful batch entry")
+    void testDurableBatch() throws IOException {
+        Path file = directory.resolve("bank.wal");
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.FSYNC_PER_BATCH)) {
+            bank.createAccount("acc1", 1000);
+            bank.createAccount("acc2", 1000);
+            bank.depositBatch(new DepositBatch().add("acc1", 1100, 100).add("acc2", 1100, 0).add("acc2", 1100, 7));
+            bank.transferBatch(new TransferBatch().add("acc1", "acc2", 1200, 30).add("acc2", "acc1", 1200, 500));
+        }
+
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.NONE)) {
+            assertEquals(Optional.of(71), bank.deposit("acc1", 1300, 1));
+            assertEquals(Optional.of(38), bank.deposit("acc2", 1300, 1));
+        }
+    }
+}
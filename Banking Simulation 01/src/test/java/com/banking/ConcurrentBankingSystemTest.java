@@ -0,0 +1,295 @@
+package com.banking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent Banking System Test Cases
+ *
+ * Tests for:
+ * - Sequential semantics matching BankingSystemImpl
+ * - Balance conservation under concurrent transfers
+ * - Deadlock freedom for opposing transfers
+ * - Consistent spend rankings, listing every spender, read during
+ *   concurrent transfers
+ * - No deposit lost to a merge of its account
+ * - Every concurrent deposit recorded in the account's history
+ */
+@DisplayName("Concurrent Banking System")
+class ConcurrentBankingSystemTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    private BankingSystem bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new ConcurrentBankingSystem();
+    }
+
+    // ========== Sequential Semantics Tests ==========
+
+    @Test
+    @DisplayName("Should behave like the sequential implementation")
+    void testSequentialSemantics() {
+        assertTrue(bank.createAccount("acc1", 1000));
+        assertFalse(bank.createAccount("acc1", 1100));
+        assertTrue(bank.createAccount("acc2", 1000));
+
+        assertEquals(1000, bank.deposit("acc1", 1100, 1000).get());
+        assertFalse(bank.deposit("acc1", 1100, 0).isPresent());
+        assertEquals(700, bank.transfer("acc1", "acc2", 1200, 300).get());
+        assertFalse(bank.transfer("acc1", "acc2", 1300, 800).isPresent());
+        assertFalse(bank.transfer("acc1", "missing", 1300, 100).isPresent());
+
+        assertEquals(List.of("acc1(300)"), bank.topSpenders(1300, 5));
+        assertTrue(bank.topSpenders(1100, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should fold spend and balance on merge")
+    void testMerge() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.createAccount("acc3", 1000);
+        bank.deposit("acc1", 1100, 2000);
+        bank.deposit("acc2", 1100, 2000);
+        bank.transfer("acc1", "acc3", 1200, 500);
+        bank.transfer("acc2", "acc3", 1300, 300);
+
+        bank.mergeAccounts("acc1", "acc2");
+
+        assertEquals(List.of("acc1(800)"), bank.topSpenders(1400, 5));
+        assertEquals(List.of("acc1(500)"), bank.topSpenders(1200, 5));
+        assertEquals(3200, bank.deposit("acc1", 1500, 1).get() - 1);
+        assertFalse(bank.deposit("acc2", 1500, 1).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should process scheduled payments in due order with cashback")
+    void testScheduledPayments() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.deposit("acc1", 1100, 1000);
+
+        String first = bank.schedulePayment("acc1", "acc2", 2000, 600, 10.0);
+        String second = bank.schedulePayment("acc1", "acc2", 2000, 600, 10.0);
+        String later = bank.schedulePayment("acc1", "acc2", 3000, 100, 0.0);
+
+        bank.processScheduledPayments(2000);
+
+        assertEquals("PROCESSED", bank.getPaymentStatus("acc1", 2100, first));
+        assertEquals("FAILED", bank.getPaymentStatus("acc1", 2100, second));
+        assertEquals("SCHEDULED", bank.getPaymentStatus("acc1", 2100, later));
+        assertNull(bank.getPaymentStatus("acc2", 2100, first));
+        assertEquals(461, bank.deposit("acc1", 2100, 1).get());
+        assertEquals(List.of("acc1(600)"), bank.topSpenders(2100, 5));
+    }
+
+    // ========== Concurrency Tests ==========
+
+    @Test
+    @DisplayName("Should conserve total balance under concurrent transfers")
+    void testConcurrentTransfersConserveBalance() throws Exception {
+        int accounts = 16;
+        for (int i = 0; i < accounts; i++) {
+            bank.createAccount("acc" + i, 1000);
+            bank.deposit("acc" + i, 1000, 1_000);
+        }
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                String from = "acc" + random.nextInt(accounts);
+                String to = "acc" + random.nextInt(accounts);
+                bank.transfer(from, to, 2000, 1 + random.nextInt(50));
+            }
+        });
+
+        long total = 0;
+        for (int i = 0; i < accounts; i++) {
+            int balance = bank.deposit("acc" + i, 3000, 1).get() - 1;
+            assertTrue(balance >= 0, "Balance should never go negative");
+            total += balance;
+        }
+        assertEquals(accounts * 1_000L, total, "Transfers should neither create nor destroy money");
+    }
+
+    @Test
+    @DisplayName("Should not deadlock on opposing transfers")
+    void testOpposingTransfers() throws Exception {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.deposit("acc1", 1000, 1_000_000);
+        bank.deposit("acc2", 1000, 1_000_000);
+
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                bank.transfer("acc1", "acc2", 2000, 1);
+                bank.transfer("acc2", "acc1", 2000, 1);
+            }
+        });
+
+        int balance1 = bank.deposit("acc1", 3000, 1).get() - 1;
+        int balance2 = bank.deposit("acc2", 3000, 1).get() - 1;
+        assertEquals(2_000_000, balance1 + balance2);
+        assertEquals(List.of("acc1(" + THREADS * OPERATIONS_PER_THREAD + ")",
+                "acc2(" + THREADS * OPERATIONS_PER_THREAD + ")"), bank.topSpenders(3000, 2));
+    }
+
+    @Test
+    @DisplayName("Should keep rankings sorted and duplicate-free while transfers run")
+    void testTopSpendersDuringTransfers() throws Exception {
+        for (int i = 0; i < THREADS; i++) {
+            bank.createAccount("acc" + i, 1000);
+            bank.deposit("acc" + i, 1000, THREADS * OPERATIONS_PER_THREAD);
+        }
+
+        // Thread t sends t + 1 per transfer to its neighbour, so every total is distinct.
+        AtomicInteger nextThread = new AtomicInteger();
+        runConcurrently(() -> {
+            int thread = nextThread.getAndIncrement();
+            String from = "acc" + thread;
+            String to = "acc" + (thread + 1) % THREADS;
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                bank.transfer(from, to, 2000, thread + 1);
+                if (i % 100 == 0) {
+                    assertRanked(bank.topSpenders(2000, THREADS));
+                }
+            }
+        });
+
+        List<String> expected = new ArrayList<>();
+        for (int i = THREADS - 1; i >= 0; i--) {
+            expected.add("acc" + i + "(" + (i + 1) * OPERATIONS_PER_THREAD + ")");
+        }
+        assertEquals(expected, bank.topSpenders(3000, THREADS));
+    }
+
+    @Test
+    @DisplayName("Should rank every account with spend in every read during transfers")
+    void testTopSpendersListEveryAccount() throws Exception {
+        int accounts = 64;
+        for (int i = 0; i < accounts; i++) {
+            bank.createAccount("acc" + i, 1000);
+            bank.deposit("acc" + i, 1000, 1_000_000);
+        }
+        for (int i = 0; i < accounts; i++) {
+            bank.transfer("acc" + i, "acc" + (i + 1) % accounts, 1500, 1);
+        }
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                bank.transfer("acc" + random.nextInt(accounts), "acc" + random.nextInt(accounts), 2000,
+                        1 + random.nextInt(10));
+                if (i % 50 == 0) {
+                    List<String> ranking = bank.topSpenders(2000, accounts);
+                    assertEquals(accounts, ranking.size(), "Every account has spent: " + ranking);
+                    assertRanked(ranking);
+                }
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should not lose deposits racing a merge of their account")
+    void testDepositsDuringMerge() throws Exception {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+
+        AtomicInteger nextThread = new AtomicInteger();
+        AtomicLong deposited = new AtomicLong();
+        runConcurrently(() -> {
+            boolean merger = nextThread.getAndIncrement() == 0;
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (merger && i == OPERATIONS_PER_THREAD / 2) {
+                    bank.mergeAccounts("acc1", "acc2");
+                }
+                if (bank.tryDeposit("acc2", 2000, 1) >= 0) {
+                    deposited.incrementAndGet();
+                }
+            }
+        });
+
+        assertTrue(deposited.get() >= OPERATIONS_PER_THREAD / 2, "Deposits before the merge should succeed");
+        assertEquals(deposited.get(), (long) bank.deposit("acc1", 3000, 1).get() - 1,
+                "Every accepted deposit should end up with the survivor");
+    }
+
+    @Test
+    @DisplayName("Should record every concurrent deposit in the account's history")
+    void testConcurrentDepositHistory() throws Exception {
+        bank.createAccount("acc1", 1000);
+
+        AtomicInteger nextThread = new AtomicInteger();
+        runConcurrently(() -> {
+            int thread = nextThread.getAndIncrement();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                bank.deposit("acc1", 2000 + i, thread + 1);
+            }
+        });
+
+        TransactionCursor history = bank.history("acc1", 0, Integer.MAX_VALUE, TransactionCursor.FIRST_PAGE);
+        int[] perAmount = new int[THREADS + 1];
+        int last = Integer.MIN_VALUE;
+        while (history.next()) {
+            assertEquals(TransactionCursor.Kind.DEPOSIT, history.kind());
+            assertTrue(history.timestamp() >= last, "History should come in timestamp order");
+            last = history.timestamp();
+            perAmount[history.amount()]++;
+        }
+        for (int thread = 0; thread < THREADS; thread++) {
+            assertEquals(OPERATIONS_PER_THREAD, perAmount[thread + 1], "Deposits of thread " + thread);
+        }
+    }
+
+    private static void assertRanked(List<String> ranking) {
+        List<String> ids = new ArrayList<>();
+        long previous = Long.MAX_VALUE;
+        for (String entry : ranking) {
+            int open = entry.indexOf('(');
+            String id = entry.substring(0, open);
+            long total = Long.parseLong(entry.substring(open + 1, entry.length() - 1));
+            assertFalse(ids.contains(id), "Account listed twice: " + ranking);
+            assertTrue(total <= previous, "Ranking out of order: " + ranking);
+            ids.add(id);
+            previous = total;
+        }
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.banking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Deposit Contention Benchmark
+ *
+ * Measures deposit throughput when every thread deposits into the same
+ * merchant account, comparing a BankingSystemImpl guarded by one monitor with
+ * the lock-free deposit path of ConcurrentBankingSystem.
+ *
+ * Each run performs a fixed number of deposits on a fresh system, since every
+ * deposit is kept in the account history.
+ *
+ * Not run by the test suite. Run with:
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes com.banking.DepositContentionBenchmark [maxThreads]
+ */
+public class DepositContentionBenchmark {
+
+    private static final int DEPOSITS_PER_RUN = 4_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-12s %8s %16s%n", "system", "threads", "deposits/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            report("synchronized", threads, best(SynchronizedBankingSystem::new, threads));
+            report("cas", threads, best(ConcurrentBankingSystem::new, threads));
+        }
+    }
+
+    private static double best(Supplier<BankingSystem> factory, int threads) throws InterruptedException {
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            BankingSystem bank = factory.get();
+            bank.createAccount("merchant", 0);
+            best = Math.max(best, run(bank, threads));
+        }
+        return best;
+    }
+
+    private static double run(BankingSystem bank, int threads) throws InterruptedException {
+        int perThread = DEPOSITS_PER_RUN / threads;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < perThread; j++) {
+                    bank.deposit("merchant", j, 1);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        return (double) perThread * threads * 1_000_000_000L / elapsed;
+    }
+
+    private static void report(String system, int threads, double throughput) {
+        System.out.printf("%-12s %8d %,16.0f%n", system, threads, throughput);
+    }
+
+    /**
+     * BankingSystemImpl behind a single monitor, the way callers had to share it.
+     */
+    private static final class SynchronizedBankingSystem extends BankingSystemImpl {
+        @Override
+        public synchronized boolean createAccount(String accountId, int timestamp) {
+            return super.createAccount(accountId, timestamp);
+        }
+
+        @Override
+        public synchronized Optional<Integer> deposit(String accountId, int timestamp, int amount) {
+            return super.deposit(accountId, timestamp, amount);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.banking;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Durable Banking System Test Cases
+ *
+ * Tests for the write-ahead log:
+ * - Reopening a log rebuilds the same state, history included, in every
+ *   durability mode
+ * - A torn record at the end of the log is cut off
+ * - Concurrent callers lose nothing under group commit
+ */
+@DisplayName("Durable Banking System")
+class DurableBankingSystemTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(DurabilityMode.class)
+    @DisplayName("Should rebuild every level's state when reopened")
+    void testReplay(DurabilityMode mode) throws IOException {
+        Path file = directory.resolve("bank.wal");
+        String paymentId;
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, mode)) {
+            bank.createAccount("acc1", 1000);
+            bank.createAccount("acc2", 1000);
+            bank.createAccount("acc3", 1000);
+            bank.deposit("acc1", 1100, 1000);
+            bank.deposit("acc3", 1100, 500);
+            bank.transfer("acc1", "acc2", 1200, 300);
+            paymentId = bank.schedulePayment("acc1", "acc3", 1300, 200, 10.0);
+            bank.processScheduledPayments(1300);
+            bank.mergeAccounts("acc2", "acc3");
+        }
+
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, mode)) {
+            assertEquals(Optional.of(521), bank.deposit("acc1", 1400, 1));
+            assertEquals(Optional.of(1001), bank.deposit("acc2", 1400, 1));
+            assertTrue(bank.deposit("acc3", 1400, 1).isEmpty());
+            assertEquals("PROCESSED", bank.getPaymentStatus("acc1", 1400, paymentId));
+            assertEquals(List.of("acc1(500)"), bank.topSpenders(1400, 5));
+            TransactionCursor history = bank.history("acc1", 1200, 1300, TransactionCursor.FIRST_PAGE);
+            assertTrue(history.next());
+            assertEquals(TransactionCursor.Kind.TRANSFER_OUT, history.kind());
+            assertEquals("acc2", history.counterparty());
+            assertTrue(history.next());
+            assertTrue(history.next());
+            assertEquals(TransactionCursor.Kind.CASHBACK, history.kind());
+            assertFalse(history.next());
+            assertEquals("payment2", bank.schedulePayment("acc1", "acc2", 1500, 10, 0));
+        }
+    }
+
+    @Test
+    @DisplayName("Should log account IDs outside ASCII as UTF-8")
+    void testNonAsciiIds() throws IOException {
+        Path file = directory.resolve("bank.wal");
+        String[] ids = {"café", "счёт", "口座", "acc💰", "bad\uD800"};
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.NONE)) {
+            for (String id : ids) {
+                bank.createAccount(id, 1000);
+                bank.deposit(id, 1100, 100);
+            }
+        }
+
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.NONE)) {
+            for (int i = 0; i < ids.length - 1; i++) {
+                assertEquals(Optional.of(101), bank.deposit(ids[i], 1200, 1));
+            }
+            // An unpaired surrogate is logged as '?', as String.getBytes encodes it.
+            assertEquals(Optional.of(101), bank.deposit("bad?", 1200, 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a torn record at the end of the log")
+    void testTornTail() throws IOException {
+        Path file = directory.resolve("bank.wal");
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.FSYNC_PER_BATCH)) {
+            bank.createAccount("acc1", 1000);
+            bank.deposit("acc1", 1100, 100);
+        }
+        long intact = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.FSYNC_PER_BATCH)) {
+            assertEquals(intact, Files.size(file));
+            assertEquals(Optional.of(150), bank.deposit("acc1", 1200, 50));
+        }
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.FSYNC_PER_BATCH)) {
+            assertEquals(Optional.of(151), bank.deposit("acc1", 1300, 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep every concurrent operation")
+    void testConcurrentGroupCommit() throws Exception {
+        Path file = directory.resolve("bank.wal");
+        int threads = 4;
+        int depositsPerThread = 500;
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.FSYNC_PER_BATCH)) {
+            bank.createAccount("merchant", 0);
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Thread worker = new Thread(() -> {
+                    for (int j = 0; j < depositsPerThread; j++) {
+                        bank.deposit("merchant", j, 1);
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, DurabilityMode.NONE)) {
+            assertEquals(Optional.of(threads * depositsPerThread + 1), bank.deposit("merchant", 10_000, 1));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.banking;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durable Log Benchmark
+ *
+ * Measures transfer throughput of DurableBankingSystem in each DurabilityMode
+ * for a growing number of threads. Each thread transfers between its own pair
+ * of accounts for a fixed time, so the cost is dominated by logging and group
+ * commit rather than by contention on accounts.
+ *
+ * The log is written to a temporary directory, or to the directory given as
+ * the second argument so a specific disk can be measured.
+ *
+ * Not run by the test suite. Run with:
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes com.banking.DurableLogBenchmark [maxThreads] [directory]
+ */
+public class DurableLogBenchmark {
+
+    private static final long RUN_MILLIS = 3_000;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("wal-benchmark");
+        System.out.printf("%-16s %8s %16s%n", "mode", "threads", "transfers/s");
+        for (DurabilityMode mode : DurabilityMode.values()) {
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                Path file = directory.resolve(mode + "-" + threads + ".wal");
+                System.out.printf("%-16s %8d %,16.0f%n", mode, threads, run(file, mode, threads));
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static double run(Path file, DurabilityMode mode, int threads) throws IOException, InterruptedException {
+        LongAdder transfers = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        long elapsed;
+        try (DurableBankingSystem bank = DurableBankingSystem.open(file, mode)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String from = "from" + i;
+                String to = "to" + i;
+                bank.createAccount(from, 0);
+                bank.createAccount(to, 0);
+                bank.deposit(from, 0, Integer.MAX_VALUE / 2);
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int timestamp = 1; !stop.get(); timestamp++) {
+                        bank.transfer(from, to, timestamp, 1);
+                        transfers.increment();
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            Thread.sleep(RUN_MILLIS);
+            stop.set(true);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            elapsed = System.nanoTime() - begin;
+        }
+        return (double) transfers.sum() * 1_000_000_000L / elapsed;
+    }
+}
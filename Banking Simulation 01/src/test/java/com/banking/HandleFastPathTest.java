@@ -0,0 +1,77 @@
+package com.banking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Handle Fast Path Test Cases
+ *
+ * Tests for the handle-based operations on BankingSystemImpl:
+ * - Status codes for each failure
+ * - Interleaving with the String-based API
+ * - Handles of merged accounts
+ */
+@DisplayName("Handle-Based Fast Path")
+class HandleFastPathTest {
+
+    private BankingSystemImpl bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new BankingSystemImpl();
+    }
+
+    @Test
+    @DisplayName("Should report each failure with its status code")
+    void testStatusCodes() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        int acc1 = bank.accountHandle("acc1");
+        int acc2 = bank.accountHandle("acc2");
+
+        assertEquals(OperationStatus.MISSING_ACCOUNT, bank.accountHandle("missing"));
+        assertEquals(500, bank.depositByHandle(acc1, 1100, 500));
+        assertEquals(OperationStatus.NON_POSITIVE_AMOUNT, bank.depositByHandle(acc1, 1100, 0));
+        assertEquals(OperationStatus.MISSING_ACCOUNT, bank.depositByHandle(42, 1100, 10));
+        assertEquals(OperationStatus.INSUFFICIENT_FUNDS, bank.transferByHandle(acc1, acc2, 1200, 600));
+        assertEquals(200, bank.transferByHandle(acc1, acc2, 1200, 300));
+        assertEquals(300, bank.balanceByHandle(acc2));
+    }
+
+    @Test
+    @DisplayName("Should share state with the String-based API")
+    void testSharedState() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.deposit("acc1", 1100, 1000);
+        int acc1 = bank.accountHandle("acc1");
+        int acc2 = bank.accountHandle("acc2");
+
+        bank.transferByHandle(acc1, acc2, 1200, 400);
+
+        assertEquals(List.of("acc1(400)"), bank.topSpenders(1300, 5));
+        assertEquals(401, bank.deposit("acc2", 1300, 1).get());
+    }
+
+    @Test
+    @DisplayName("Should invalidate the handle of a merged account")
+    void testMergedHandle() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.deposit("acc2", 1100, 300);
+        int acc2 = bank.accountHandle("acc2");
+
+        bank.mergeAccounts("acc1", "acc2");
+        bank.createAccount("acc2", 1200);
+
+        assertEquals(OperationStatus.MISSING_ACCOUNT, bank.depositByHandle(acc2, 1300, 10));
+        assertNotEquals(acc2, bank.accountHandle("acc2"));
+        assertEquals(10, bank.depositByHandle(bank.accountHandle("acc2"), 1300, 10));
+        assertEquals(300, bank.balanceByHandle(bank.accountHandle("acc1")));
+    }
+}
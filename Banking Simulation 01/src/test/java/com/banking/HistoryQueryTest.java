@@ -0,0 +1,228 @@
+package com.banking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * History Query Test Cases
+ *
+ * Tests for the paginated transaction history cursor:
+ * - Rows come in timestamp order within the requested range
+ * - Payments settled after their due time are placed at their due time
+ * - Merged accounts read as one history
+ * - Reading page by page yields the same rows as one pass
+ * - ConcurrentBankingSystem's logs hold the same rows as the journal
+ */
+@DisplayName("History Query")
+class HistoryQueryTest {
+
+    private BankingSystemImpl bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new BankingSystemImpl();
+    }
+
+    @Test
+    @DisplayName("Should return the rows in the timestamp range with their kinds")
+    void testRangeQuery() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.deposit("acc1", 1100, 500);
+        bank.transfer("acc1", "acc2", 1200, 200);
+        bank.transfer("acc2", "acc1", 1300, 50);
+        bank.deposit("acc2", 1400, 10);
+        bank.deposit("acc1", 1500, 70);
+
+        assertEquals(List.of("1200 TRANSFER_OUT 200 acc2", "1300 TRANSFER_IN 50 acc2"),
+                read(bank.history("acc1", 1150, 1450, TransactionCursor.FIRST_PAGE)));
+        assertEquals(List.of("1100 DEPOSIT 500 null", "1200 TRANSFER_OUT 200 acc2",
+                        "1300 TRANSFER_IN 50 acc2", "1500 DEPOSIT 70 null"),
+                read(bank.history("acc1", 0, Integer.MAX_VALUE, TransactionCursor.FIRST_PAGE)));
+        assertEquals(List.of(), read(bank.history("acc1", 1600, 2000, TransactionCursor.FIRST_PAGE)));
+        assertNull(bank.history("acc3", 0, 2000, TransactionCursor.FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Should return every row for the full timestamp range")
+    void testFullRange() {
+        for (BankingSystem system : List.of(bank, new ConcurrentBankingSystem())) {
+            system.createAccount("acc1", Integer.MIN_VALUE);
+            system.deposit("acc1", Integer.MIN_VALUE, 5);
+            system.deposit("acc1", -10, 7);
+            system.deposit("acc1", Integer.MAX_VALUE, 9);
+
+            List<String> all = List.of(Integer.MIN_VALUE + " DEPOSIT 5 null", "-10 DEPOSIT 7 null",
+                    Integer.MAX_VALUE + " DEPOSIT 9 null");
+            assertEquals(all, read(system.history("acc1", Integer.MIN_VALUE, Integer.MAX_VALUE,
+                    TransactionCursor.FIRST_PAGE)));
+            assertEquals(all, readPaged(system, "acc1", Integer.MIN_VALUE, Integer.MAX_VALUE));
+            assertEquals(all.subList(0, 1), read(system.history("acc1", Integer.MIN_VALUE, Integer.MIN_VALUE,
+                    TransactionCursor.FIRST_PAGE)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should place a payment settled late at its due timestamp")
+    void testBackDatedPayment() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.deposit("acc1", 1100, 500);
+        bank.schedulePayment("acc1", "acc2", 1200, 100, 10);
+        bank.deposit("acc1", 1300, 40);
+        bank.processScheduledPayments(1400);
+
+        assertEquals(List.of("1100 DEPOSIT 500 null", "1200 TRANSFER_OUT 100 acc2", "1200 CASHBACK 10 null",
+                        "1300 DEPOSIT 40 null"),
+                read(bank.history("acc1", 0, 2000, TransactionCursor.FIRST_PAGE)));
+        assertEquals(List.of("1200 TRANSFER_IN 100 acc1"),
+                read(bank.history("acc2", 1200, 1200, TransactionCursor.FIRST_PAGE)));
+    }
+
+    @Test
+    @DisplayName("Should read a merged account as one history")
+    void testMergedHistory() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.deposit("acc2", 1100, 300);
+        bank.deposit("acc1", 1200, 20);
+        bank.transfer("acc2", "acc1", 1300, 100);
+        bank.mergeAccounts("acc1", "acc2");
+        bank.deposit("acc1", 1400, 5);
+
+        assertEquals(List.of("1100 DEPOSIT 300 null", "1200 DEPOSIT 20 null", "1300 TRANSFER_OUT 100 acc1",
+                        "1300 TRANSFER_IN 100 acc2", "1400 DEPOSIT 5 null"),
+                read(bank.history("acc1", 0, 2000, TransactionCursor.FIRST_PAGE)));
+        assertNull(bank.history("acc2", 0, 2000, TransactionCursor.FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Should read the same rows page by page as in one pass")
+    void testPagination() {
+        runWorkload(bank);
+
+        for (int i = 0; i < 10; i++) {
+            TransactionCursor all = bank.history("acc" + i, 1000, 4000, TransactionCursor.FIRST_PAGE);
+            if (all == null) {
+                continue;
+            }
+            List<String> expected = read(all);
+            assertInOrder(expected, 1000, 4000);
+            assertEquals(expected, readPaged(bank, "acc" + i, 1000, 4000));
+        }
+    }
+
+    @Test
+    @DisplayName("ConcurrentBankingSystem should keep the same history as the journal")
+    void testConcurrentLogMatchesJournal() {
+        ConcurrentBankingSystem concurrent = new ConcurrentBankingSystem();
+        runWorkload(bank);
+        runWorkload(concurrent);
+
+        for (int i = 0; i < 10; i++) {
+            TransactionCursor expected = bank.history("acc" + i, 1000, 4000, TransactionCursor.FIRST_PAGE);
+            TransactionCursor actual = concurrent.history("acc" + i, 1000, 4000, TransactionCursor.FIRST_PAGE);
+            if (expected == null) {
+                assertNull(actual);
+                continue;
+            }
+            List<String> rows = read(actual);
+            assertInOrder(rows, 1000, 4000);
+            // Rows sharing a timestamp may come in another order after a merge.
+            List<String> sorted = new ArrayList<>(rows);
+            List<String> expectedSorted = read(expected);
+            sorted.sort(null);
+            expectedSorted.sort(null);
+            assertEquals(expectedSorted, sorted);
+            assertEquals(rows, readPaged(concurrent, "acc" + i, 1000, 4000));
+        }
+    }
+
+    private static void runWorkload(BankingSystem bank) {
+        Random random = new Random(3);
+        for (int i = 0; i < 10; i++) {
+            bank.createAccount("acc" + i, 0);
+            bank.deposit("acc" + i, 0, 1000);
+        }
+        for (int timestamp = 1; timestamp <= 5000; timestamp++) {
+            String a = "acc" + random.nextInt(10);
+            String b = "acc" + random.nextInt(10);
+            switch (random.nextInt(5)) {
+                case 0:
+                    bank.deposit(a, timestamp, 1 + random.nextInt(100));
+                    break;
+                case 1:
+                    bank.schedulePayment(a, b, timestamp + random.nextInt(50), 1 + random.nextInt(100), 5);
+                    break;
+                case 2:
+                    bank.processScheduledPayments(timestamp);
+                    break;
+                default:
+                    bank.transfer(a, b, timestamp, 1 + random.nextInt(100));
+            }
+            if (timestamp % 1000 == 0) {
+                bank.mergeAccounts("acc" + random.nextInt(10), "acc" + random.nextInt(10));
+            }
+        }
+    }
+
+    private static void assertInOrder(List<String> rows, int fromTimestamp, int toTimestamp) {
+        int last = fromTimestamp;
+        for (String row : rows) {
+            int timestamp = Integer.parseInt(row.substring(0, row.indexOf(' ')));
+            assertTrue(timestamp >= last && timestamp <= toTimestamp, "Row out of order or range: " + row);
+            last = timestamp;
+        }
+    }
+
+    private static List<String> readPaged(BankingSystem bank, String accountId, int fromTimestamp, int toTimestamp) {
+        List<String> paged = new ArrayList<>();
+        long continuation = TransactionCursor.FIRST_PAGE;
+        while (true) {
+            TransactionCursor page = bank.history(accountId, fromTimestamp, toTimestamp, continuation);
+            int rows = 0;
+            while (rows < 7 && page.next()) {
+                paged.add(row(page));
+                rows++;
+            }
+            if (rows == 0) {
+                return paged;
+            }
+            continuation = page.continuation();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject history queries where no history is kept")
+    void testUnsupported() {
+        BankingSystem offHeap = new OffHeapBankingSystem();
+        offHeap.createAccount("acc1", 1000);
+        assertThrows(UnsupportedOperationException.class,
+                () -> offHeap.history("acc1", 0, 2000, TransactionCursor.FIRST_PAGE));
+        TransactionCursor cursor = bank.history("acc1", 0, 2000, TransactionCursor.FIRST_PAGE);
+        assertNull(cursor);
+        bank.createAccount("acc1", 1000);
+        TransactionCursor empty = bank.history("acc1", 0, 2000, TransactionCursor.FIRST_PAGE);
+        assertFalse(empty.next());
+        assertThrows(IllegalStateException.class, empty::amount);
+    }
+
+    private static List<String> read(TransactionCursor cursor) {
+        List<String> rows = new ArrayList<>();
+        while (cursor.next()) {
+            rows.add(row(cursor));
+        }
+        return rows;
+    }
+
+    private static String row(TransactionCursor cursor) {
+        return cursor.timestamp() + " " + cursor.kind() + " " + cursor.amount() + " " + cursor.counterparty();
+    }
+}
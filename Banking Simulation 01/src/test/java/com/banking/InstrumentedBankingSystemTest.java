@@ -0,0 +1,106 @@
+package com.banking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Instrumented Banking System Test Cases
+ *
+ * Tests for the metrics decorator:
+ * - Call counts and failure reasons per operation
+ * - Percentiles of the latency histogram
+ * - The JMX view
+ */
+@DisplayName("Instrumented Banking System")
+class InstrumentedBankingSystemTest {
+
+    private InstrumentedBankingSystem bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new InstrumentedBankingSystem(new BankingSystemImpl());
+    }
+
+    @Test
+    @DisplayName("Should count calls and failure reasons")
+    void testCountsAndFailureReasons() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        bank.createAccount("acc1", 1000);
+        bank.deposit("acc1", 1100, 500);
+        bank.deposit("acc1", 1100, 0);
+        bank.deposit("missing", 1100, 10);
+        bank.transfer("acc1", "acc2", 1200, 100);
+        bank.transfer("acc1", "acc2", 1200, 1000);
+        bank.transferBatch(new TransferBatch().add("acc2", "missing", 1300, 1).add("acc2", "acc1", 1300, 1));
+
+        OperationMetrics create = bank.metrics(BankingOperation.CREATE_ACCOUNT);
+        assertEquals(3, create.getCalls());
+        assertEquals(1, create.getFailures());
+
+        OperationMetrics deposit = bank.metrics(BankingOperation.DEPOSIT);
+        assertEquals(3, deposit.getCalls());
+        assertEquals(2, deposit.getFailures());
+        assertEquals(1, deposit.getNonPositiveAmountFailures());
+        assertEquals(1, deposit.getMissingAccountFailures());
+
+        OperationMetrics transfer = bank.metrics(BankingOperation.TRANSFER);
+        assertEquals(4, transfer.getCalls());
+        assertEquals(2, transfer.getFailures());
+        assertEquals(1, transfer.getInsufficientFundsFailures());
+        assertEquals(1, transfer.getMissingAccountFailures());
+        assertTrue(transfer.getP50Nanos() <= transfer.getP999Nanos());
+        assertTrue(transfer.getP999Nanos() <= transfer.getMaxNanos());
+
+        bank.reset();
+        assertEquals(0, bank.metrics(BankingOperation.TRANSFER).getCalls());
+    }
+
+    @Test
+    @DisplayName("Should report percentiles within the histogram's precision")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos);
+        }
+        long[] counts = histogram.counts();
+
+        assertEquals(50_000, LatencyHistogram.percentile(counts, histogram.max(), 0.50), 50_000 / 16.0);
+        assertEquals(99_000, LatencyHistogram.percentile(counts, histogram.max(), 0.99), 99_000 / 16.0);
+        assertEquals(99_900, LatencyHistogram.percentile(counts, histogram.max(), 0.999), 99_900 / 16.0);
+        assertEquals(100_000, histogram.max());
+        for (long value : new long[] {0, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.upperBound(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < value);
+        }
+    }
+
+    @Test
+    @DisplayName("Should expose metrics through JMX")
+    void testJmx() throws Exception {
+        bank.createAccount("acc1", 1000);
+        bank.deposit("acc1", 1100, 100);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = bank.registerMBean("test");
+        try {
+            CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "Operations");
+            CompositeData deposit = operations[BankingOperation.DEPOSIT.ordinal()];
+            assertEquals("DEPOSIT", deposit.get("operation"));
+            assertEquals(1L, deposit.get("calls"));
+
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertEquals(0, bank.metrics(BankingOperation.DEPOSIT).getCalls());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
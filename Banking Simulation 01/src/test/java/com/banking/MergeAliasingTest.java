@@ -0,0 +1,88 @@
+package com.banking;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Merge Aliasing Test Cases
+ *
+ * Tests for chains of merges, where each merged account becomes an alias of
+ * the survivor instead of having its history copied:
+ * - Closed IDs are rejected after a chain of merges
+ * - Current and historical spend report the merged totals under the survivor
+ * - Scheduled payments follow the whole chain
+ */
+@DisplayName("Merge Aliasing")
+class MergeAliasingTest {
+
+    static Stream<Arguments> implementations() {
+        return Stream.of(
+                Arguments.of("BankingSystemImpl", (Supplier<BankingSystem>) BankingSystemImpl::new),
+                Arguments.of("ConcurrentBankingSystem", (Supplier<BankingSystem>) ConcurrentBankingSystem::new));
+    }
+
+    private static BankingSystem chain(Supplier<BankingSystem> factory) {
+        BankingSystem bank = factory.get();
+        for (String id : List.of("acc1", "acc2", "acc3", "acc4")) {
+            bank.createAccount(id, 1000);
+            bank.deposit(id, 1001, 1000);
+        }
+        bank.transfer("acc1", "acc4", 1100, 100);
+        bank.transfer("acc2", "acc4", 1200, 200);
+        bank.transfer("acc3", "acc4", 1300, 300);
+        bank.schedulePayment("acc3", "acc4", 1800, 50, 10);
+
+        bank.mergeAccounts("acc2", "acc3");
+        bank.mergeAccounts("acc1", "acc2");
+        return bank;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("implementations")
+    @DisplayName("Should reject every closed ID in a chain of merges")
+    void testClosedIdsRejected(String name, Supplier<BankingSystem> factory) {
+        BankingSystem bank = chain(factory);
+
+        assertEquals(Optional.empty(), bank.deposit("acc2", 1400, 10));
+        assertEquals(Optional.empty(), bank.deposit("acc3", 1400, 10));
+        assertEquals(Optional.empty(), bank.transfer("acc3", "acc4", 1400, 10));
+        assertEquals(Optional.of(2410), bank.deposit("acc1", 1400, 10));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("implementations")
+    @DisplayName("Should report merged spend under the survivor at every timestamp")
+    void testMergedSpend(String name, Supplier<BankingSystem> factory) {
+        BankingSystem bank = chain(factory);
+
+        assertEquals(List.of("acc1(600)"), bank.topSpenders(1400, 5));
+        assertEquals(List.of("acc1(300)"), bank.topSpenders(1250, 5));
+        assertEquals(List.of("acc1(100)"), bank.topSpenders(1150, 5));
+
+        bank.transfer("acc1", "acc4", 1500, 50);
+        assertEquals(List.of("acc1(650)"), bank.topSpenders(1500, 5));
+        assertEquals(List.of("acc1(600)"), bank.topSpenders(1450, 5));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("implementations")
+    @DisplayName("Should charge a payment of a twice-merged account to the survivor")
+    void testPaymentFollowsChain(String name, Supplier<BankingSystem> factory) {
+        BankingSystem bank = chain(factory);
+
+        bank.processScheduledPayments(1900);
+
+        assertEquals("PROCESSED", bank.getPaymentStatus("acc1", 1900, "payment1"));
+        assertEquals(Optional.of(2356), bank.deposit("acc1", 1900, 1));
+        assertEquals(List.of("acc1(650)"), bank.topSpenders(1900, 5));
+    }
+}
@@ -0,0 +1,114 @@
+package com.banking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Network Load Test
+ *
+ * Drives a BankingServer with a mixed deposit/transfer workload over several
+ * connections, each keeping a fixed window of pipelined requests in flight,
+ * and reports throughput and latency percentiles. Latency is measured from
+ * sending a request to its response arriving, so it includes queueing behind
+ * the rest of the window.
+ *
+ * Without a host it starts an in-process server on a ConcurrentBankingSystem.
+ *
+ * Not run by the test suite. Run with:
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes com.banking.NetworkLoadTest \
+ *       [connections] [window] [seconds] [accounts] [host port]
+ */
+public class NetworkLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int window = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int accounts = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        BankingServer server = null;
+        String host = "localhost";
+        int port;
+        if (args.length > 5) {
+            host = args[4];
+            port = Integer.parseInt(args[5]);
+        } else {
+            server = BankingServer.start(new ConcurrentBankingSystem(), 0);
+            port = server.port();
+        }
+
+        String[] ids = new String[accounts];
+        try (BankingClient setup = BankingClient.connect(host, port)) {
+            for (int i = 0; i < accounts; i++) {
+                ids[i] = "acc" + i;
+                setup.createAccountAsync(ids[i], 0);
+                setup.tryDepositAsync(ids[i], 0, Integer.MAX_VALUE / 2);
+            }
+            setup.topSpenders(0, 1);
+        }
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder completed = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> drivers = new ArrayList<>();
+        List<BankingClient> clients = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            BankingClient client = BankingClient.connect(host, port);
+            clients.add(client);
+            SplittableRandom random = new SplittableRandom(c);
+            Thread driver = new Thread(() -> drive(client, ids, window, deadline, random, latencies, completed),
+                    "load-" + c);
+            drivers.add(driver);
+        }
+        long begin = System.nanoTime();
+        for (Thread driver : drivers) {
+            driver.start();
+        }
+        for (Thread driver : drivers) {
+            driver.join();
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        for (BankingClient client : clients) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+
+        long[] counts = latencies.counts();
+        long max = latencies.max();
+        System.out.printf("connections %d, window %d, %d accounts%n", connections, window, accounts);
+        System.out.printf("throughput  %,.0f ops/s%n", completed.sum() / elapsed);
+        System.out.printf("latency     p50 %s  p99 %s  p99.9 %s  max %s%n",
+                micros(LatencyHistogram.percentile(counts, max, 0.50)),
+                micros(LatencyHistogram.percentile(counts, max, 0.99)),
+                micros(LatencyHistogram.percentile(counts, max, 0.999)),
+                micros(max));
+    }
+
+    private static void drive(BankingClient client, String[] ids, int window, long deadline,
+                              SplittableRandom random, LatencyHistogram latencies, LongAdder completed) {
+        Semaphore permits = new Semaphore(window);
+        while (System.nanoTime() < deadline) {
+            permits.acquireUninterruptibly();
+            String from = ids[random.nextInt(ids.length)];
+            long start = System.nanoTime();
+            (random.nextInt(4) == 0
+                    ? client.tryDepositAsync(from, 1, 1)
+                    : client.tryTransferAsync(from, ids[random.nextInt(ids.length)], 1, 1))
+                    .whenComplete((result, error) -> {
+                        latencies.record(System.nanoTime() - start);
+                        completed.increment();
+                        permits.release();
+                    });
+        }
+        permits.acquireUninterruptibly(window);
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1fus", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Off-Heap Banking System Test Cases
+ *
+ * Tests the off-heap storage engine against BankingSystemImpl:
+ * - Every operation answers the same over a mixed workload
+ * - The ID index survives growth, removal and reuse of IDs
+ * - IDs rank in String order whatever their characters
+ */
+@DisplayName("Off-Heap Banking System")
+class OffHeapBankingSystemTest {
+
+    @Test
+    @DisplayName("Should answer every operation like BankingSystemImpl")
+    void testMatchesHeapImplementation() {
+        BankingSystem heap = new BankingSystemImpl();
+        OffHeapBankingSystem offHeap = new OffHeapBankingSystem();
+        Random random = new Random(12);
+        List<String> paymentIds = new ArrayList<>();
+        for (int timestamp = 1; timestamp <= 20_000; timestamp++) {
+            String a = "acc" + random.nextInt(200);
+            String b = "acc" + random.nextInt(200);
+            switch (random.nextInt(12)) {
+                case 0:
+                case 1:
+                    assertEquals(heap.createAccount(a, timestamp), offHeap.createAccount(a, timestamp));
+                    break;
+                case 2:
+                case 3:
+                    int amount = random.nextInt(500) - 20;
+                    assertEquals(heap.deposit(a, timestamp, amount), offHeap.deposit(a, timestamp, amount));
+                    break;
+                case 4:
+                case 5:
+                case 6:
+                    amount = random.nextInt(300);
+                    assertEquals(heap.tryTransfer(a, b, timestamp, amount), offHeap.tryTransfer(a, b, timestamp, amount));
+                    break;
+                case 7:
+                    int due = timestamp + random.nextInt(30);
+                    amount = random.nextInt(150);
+                    String paymentId = heap.schedulePayment(a, b, due, amount, 2.5);
+                    assertEquals(paymentId, offHeap.schedulePayment(a, b, due, amount, 2.5));
+                    if (paymentId != null) {
+                        paymentIds.add(paymentId);
+                    }
+                    break;
+                case 8:
+                    heap.processScheduledPayments(timestamp);
+                    offHeap.processScheduledPayments(timestamp);
+                    break;
+                case 9:
+                    int at = random.nextBoolean() ? timestamp : random.nextInt(timestamp);
+                    int n = 1 + random.nextInt(15);
+                    assertEquals(heap.topSpenders(at, n), offHeap.topSpenders(at, n));
+                    break;
+                case 10:
+                    if (!paymentIds.isEmpty()) {
+                        String id = paymentIds.get(random.nextInt(paymentIds.size()));
+                        assertEquals(heap.getPaymentStatus(a, timestamp, id), offHeap.getPaymentStatus(a, timestamp, id));
+                    }
+                    break;
+                default:
+                    if (random.nextInt(4) == 0) {
+                        heap.mergeAccounts(a, b);
+                        offHeap.mergeAccounts(a, b);
+                    }
+            }
+        }
+        assertEquals(heap.topSpenders(Integer.MAX_VALUE, 300), offHeap.topSpenders(Integer.MAX_VALUE, 300));
+    }
+
+    @Test
+    @DisplayName("Should find accounts across chunks and after IDs are reused")
+    void testIndexGrowthAndReuse() {
+        OffHeapBankingSystem bank = new OffHeapBankingSystem();
+        int accounts = 100_000;
+        for (int i = 0; i < accounts; i++) {
+            assertTrue(bank.createAccount("account" + i, i));
+            assertEquals(i + 1, bank.tryDeposit("account" + i, i, i + 1));
+        }
+        assertFalse(bank.createAccount("account5", accounts));
+        for (int i = 1; i < accounts; i += 2) {
+            bank.mergeAccounts("account" + (i - 1), "account" + i);
+        }
+        for (int i = 0; i < accounts; i += 2) {
+            assertEquals(2 * i + 3 + 1, bank.tryDeposit("account" + i, accounts, 1));
+            assertEquals(OperationStatus.MISSING_ACCOUNT, bank.tryDeposit("account" + (i + 1), accounts, 1));
+        }
+        // A merged-away ID can be created again as a new, empty account.
+        assertTrue(bank.createAccount("account1", accounts));
+        assertEquals(1, bank.tryDeposit("account1", accounts, 1));
+        assertTrue(bank.offHeapBytes() > accounts * 48L);
+    }
+
+    @Test
+    @DisplayName("Should rank IDs in String order")
+    void testIdOrder() {
+        OffHeapBankingSystem bank = new OffHeapBankingSystem();
+        String[] ids = {"zeta", "Zeta", "été", "口座", "acc💰", "acc", "accA"};
+        bank.createAccount("sink", 0);
+        for (String id : ids) {
+            bank.createAccount(id, 0);
+            bank.deposit(id, 0, 100);
+            bank.transfer(id, "sink", 1, 10);
+        }
+        List<String> expected = new ArrayList<>();
+        List<String> sorted = new ArrayList<>(List.of(ids));
+        sorted.sort(String::compareTo);
+        for (String id : sorted) {
+            expected.add(id + "(10)");
+        }
+        assertEquals(expected, bank.topSpenders(1, ids.length));
+        assertEquals(expected.subList(0, 3), bank.topSpenders(1, 3));
+    }
+}
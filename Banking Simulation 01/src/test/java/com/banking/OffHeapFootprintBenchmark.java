@@ -0,0 +1,101 @@
+package com.banking;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Off-Heap Footprint Benchmark
+ *
+ * Compares the heap-based BankingSystemImpl with the OffHeapBankingSystem at
+ * the same number of accounts: heap and direct memory retained once the
+ * accounts are built, the time the collector spent while building them and
+ * while running a transfer workload over them, and the duration of a full
+ * collection with all the accounts live.
+ *
+ * Run each engine in its own JVM so neither sees the other's garbage.
+ * Not run by the test suite. Run with:
+ *   mvn test-compile
+ *   java -Xmx8g -XX:MaxDirectMemorySize=8g -cp target/classes:target/test-classes \
+ *       com.banking.OffHeapFootprintBenchmark impl|offheap [accounts] [transfers]
+ */
+public class OffHeapFootprintBenchmark {
+
+    public static void main(String[] args) {
+        String engine = args.length > 0 ? args[0] : "offheap";
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int transfers = args.length > 2 ? Integer.parseInt(args[2]) : 20_000_000;
+        BankingSystem bank;
+        switch (engine) {
+            case "impl":
+                bank = new BankingSystemImpl();
+                break;
+            case "offheap":
+                bank = new OffHeapBankingSystem();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine + "; use impl or offheap");
+        }
+
+        long[] gc = collectorTotals();
+        long start = System.nanoTime();
+        for (int i = 0; i < accounts; i++) {
+            String id = "account" + i;
+            bank.createAccount(id, i);
+            bank.tryDeposit(id, i, 1_000);
+        }
+        long built = System.nanoTime();
+        long[] afterBuild = collectorTotals();
+        System.out.printf("%-8s %,d accounts built in %,d ms; %d collections, %,d ms collecting%n", engine,
+                accounts, (built - start) / 1_000_000, afterBuild[0] - gc[0], afterBuild[1] - gc[1]);
+
+        long fullStart = System.nanoTime();
+        System.gc();
+        long fullGc = (System.nanoTime() - fullStart) / 1_000_000;
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%-8s retained heap %,d MB, direct %,d MB; full collection %,d ms%n", engine,
+                heap >> 20, directBytes() >> 20, fullGc);
+
+        // The transfer workload hashes fresh ID strings, so it makes young
+        // garbage at the same rate for both engines.
+        Random random = new Random(1);
+        gc = collectorTotals();
+        start = System.nanoTime();
+        for (int i = 0; i < transfers; i++) {
+            bank.tryTransfer("account" + random.nextInt(accounts), "account" + random.nextInt(accounts),
+                    accounts + i, 1 + random.nextInt(10));
+        }
+        long ran = System.nanoTime();
+        long[] afterRun = collectorTotals();
+        System.out.printf("%-8s %,d transfers in %,d ms; %d collections, %,d ms collecting%n", engine,
+                transfers, (ran - start) / 1_000_000, afterRun[0] - gc[0], afterRun[1] - gc[1]);
+
+        start = System.nanoTime();
+        List<String> top = bank.topSpenders(Integer.MAX_VALUE, 3);
+        System.out.printf("%-8s topSpenders %s in %,d ms%n", engine, top, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the collection count and milliseconds spent collecting, summed
+     * over all collectors.
+     */
+    private static long[] collectorTotals() {
+        long[] totals = new long[2];
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(0, collector.getCollectionCount());
+            totals[1] += Math.max(0, collector.getCollectionTime());
+        }
+        return totals;
+    }
+
+    private static long directBytes() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outgoing History Test Cases
+ *
+ * Tests for the time-indexed cumulative outgoing totals behind
+ * historical topSpenders queries.
+ */
+@DisplayName("Outgoing History")
+class OutgoingHistoryTest {
+
+    @Test
+    @DisplayName("Should answer spend as of any timestamp")
+    void testSpentAt() {
+        OutgoingHistory history = new OutgoingHistory();
+        history.record(1200, 300);
+        history.record(1500, 200);
+        history.record(1500, 100);
+
+        assertEquals(0, history.spentAt(1100));
+        assertEquals(300, history.spentAt(1200));
+        assertEquals(300, history.spentAt(1499));
+        assertEquals(600, history.spentAt(1500));
+        assertEquals(600, history.total());
+    }
+
+    @Test
+    @DisplayName("Should shift later totals for back-dated entries")
+    void testBackDatedRecord() {
+        OutgoingHistory history = new OutgoingHistory();
+        history.record(1200, 300);
+        history.record(1500, 200);
+        history.record(1000, 50);
+        history.record(1200, 10);
+
+        assertEquals(50, history.spentAt(1100));
+        assertEquals(360, history.spentAt(1200));
+        assertEquals(560, history.spentAt(2000));
+    }
+
+    @Test
+    @DisplayName("Should sum both histories at every timestamp after merge")
+    void testMerge() {
+        OutgoingHistory first = new OutgoingHistory();
+        first.record(1200, 1000);
+        first.record(1300, 500);
+        OutgoingHistory second = new OutgoingHistory();
+        second.record(1250, 800);
+        second.record(1300, 600);
+
+        first.merge(second);
+
+        assertEquals(1000, first.spentAt(1200));
+        assertEquals(1800, first.spentAt(1250));
+        assertEquals(2900, first.spentAt(1300));
+        assertEquals(2900, first.total());
+    }
+}
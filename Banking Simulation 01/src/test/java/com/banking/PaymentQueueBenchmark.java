@@ -0,0 +1,68 @@
+package com.banking;
+
+import java.util.Random;
+
+/**
+ * Payment Queue Benchmark
+ *
+ * Schedules 10M pending payments into each scheduler backend and drains them,
+ * for two shapes of due timestamps:
+ * - payroll: every payment due at one of a few month-end timestamps
+ * - spread: due timestamps uniformly spread over a year of seconds
+ *
+ * Not run by the test suite. Needs a few GB of heap. Run with:
+ *   mvn test-compile
+ *   java -Xmx4g -cp target/classes:target/test-classes com.banking.PaymentQueueBenchmark [payments]
+ */
+public class PaymentQueueBenchmark {
+
+    private static final int PAYROLL_DATES = 12;
+    private static final int YEAR_SECONDS = 365 * 24 * 3600;
+
+    public static void main(String[] args) {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.printf("%-8s %-13s %12s %12s%n", "shape", "backend", "insert ms", "drain ms");
+        for (String shape : new String[] {"payroll", "spread"}) {
+            int[] timestamps = timestamps(shape, payments);
+            for (int round = 0; round < 2; round++) {
+                for (SchedulerBackend backend : SchedulerBackend.values()) {
+                    run(shape, backend, timestamps);
+                }
+            }
+        }
+    }
+
+    private static void run(String shape, SchedulerBackend backend, int[] timestamps) {
+        ScheduledPayment[] payments = new ScheduledPayment[timestamps.length];
+        for (int i = 0; i < timestamps.length; i++) {
+            payments[i] = new ScheduledPayment(i, 0, 0, timestamps[i], 100, 0.0);
+        }
+        PaymentQueue queue = backend.newQueue();
+        long start = System.nanoTime();
+        for (ScheduledPayment payment : payments) {
+            queue.add(payment);
+        }
+        long inserted = System.nanoTime();
+        long[] checksum = new long[1];
+        for (int month = 1; month <= PAYROLL_DATES; month++) {
+            queue.pollDue(month * (YEAR_SECONDS / PAYROLL_DATES), payment -> checksum[0] += payment.sequence);
+        }
+        long drained = System.nanoTime();
+        if (queue.size() != 0 || checksum[0] != (long) timestamps.length * (timestamps.length - 1) / 2) {
+            throw new IllegalStateException(backend + " lost payments");
+        }
+        System.out.printf("%-8s %-13s %12d %12d%n", shape, backend,
+                (inserted - start) / 1_000_000, (drained - inserted) / 1_000_000);
+    }
+
+    private static int[] timestamps(String shape, int payments) {
+        Random random = new Random(7);
+        int[] timestamps = new int[payments];
+        for (int i = 0; i < payments; i++) {
+            timestamps[i] = "payroll".equals(shape)
+                    ? (1 + random.nextInt(PAYROLL_DATES)) * (YEAR_SECONDS / PAYROLL_DATES)
+                    : 1 + random.nextInt(YEAR_SECONDS - 1);
+        }
+        return timestamps;
+    }
+}
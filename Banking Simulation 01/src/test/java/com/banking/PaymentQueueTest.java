@@ -0,0 +1,145 @@
+package com.banking;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payment Queue Test Cases
+ *
+ * Tests that every scheduler backend releases payments in due order:
+ * timestamp first, then scheduling order.
+ */
+@DisplayName("Payment Queue Backends")
+class PaymentQueueTest {
+
+    private long nextSequence = 1;
+
+    @ParameterizedTest
+    @EnumSource(SchedulerBackend.class)
+    @DisplayName("Should release only due payments, in due order")
+    void testReleaseInDueOrder(SchedulerBackend backend) {
+        PaymentQueue queue = backend.newQueue();
+        ScheduledPayment late = payment(3000);
+        ScheduledPayment first = payment(2000);
+        ScheduledPayment second = payment(2000);
+        ScheduledPayment early = payment(1500);
+        queue.add(late);
+        queue.add(first);
+        queue.add(second);
+        queue.add(early);
+
+        assertEquals(List.of(early, first, second), poll(queue, 2000));
+        assertEquals(1, queue.size());
+        assertTrue(poll(queue, 2999).isEmpty());
+        assertEquals(List.of(late), poll(queue, 3000));
+        assertEquals(0, queue.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SchedulerBackend.class)
+    @DisplayName("Should release payments scheduled behind the last poll")
+    void testOverduePayments(SchedulerBackend backend) {
+        PaymentQueue queue = backend.newQueue();
+        queue.add(payment(5000));
+        poll(queue, 4000);
+        ScheduledPayment overdue = payment(1000);
+        ScheduledPayment sameTick = payment(4000);
+        queue.add(overdue);
+        queue.add(sameTick);
+
+        assertEquals(List.of(overdue, sameTick), poll(queue, 4000));
+    }
+
+    @Test
+    @DisplayName("Timing wheel should match the heap on random workloads")
+    void testTimingWheelMatchesHeap() {
+        Random random = new Random(42);
+        PaymentQueue heap = SchedulerBackend.HEAP.newQueue();
+        PaymentQueue wheel = SchedulerBackend.TIMING_WHEEL.newQueue();
+        int now = -50_000;
+        for (int round = 0; round < 2_000; round++) {
+            int adds = random.nextInt(20);
+            for (int i = 0; i < adds; i++) {
+                ScheduledPayment payment = payment(randomTimestamp(random, now));
+                heap.add(payment);
+                wheel.add(payment);
+            }
+            now += random.nextInt(random.nextBoolean() ? 300 : 70_000);
+            assertEquals(poll(heap, now), poll(wheel, now), "Release order at " + now);
+            assertEquals(heap.size(), wheel.size());
+        }
+        assertEquals(poll(heap, Integer.MAX_VALUE), poll(wheel, Integer.MAX_VALUE));
+        assertEquals(0, wheel.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SchedulerBackend.class)
+    @DisplayName("Should hold back overdue payments not yet due at an earlier poll")
+    void testOverduePaymentsAfterEarlierPoll(SchedulerBackend backend) {
+        PaymentQueue queue = backend.newQueue();
+        queue.add(payment(4000));
+        poll(queue, 4000);
+        ScheduledPayment early = payment(1000);
+        ScheduledPayment later = payment(3000);
+        queue.add(early);
+        queue.add(later);
+
+        assertEquals(List.of(early), poll(queue, 2000));
+        assertEquals(1, queue.size());
+        assertEquals(List.of(later), poll(queue, 3000));
+    }
+
+    @Test
+    @DisplayName("Timing wheel should match the heap when polls go back in time")
+    void testTimingWheelMatchesHeapOnNonMonotonePolls() {
+        Random random = new Random(7);
+        PaymentQueue heap = SchedulerBackend.HEAP.newQueue();
+        PaymentQueue wheel = SchedulerBackend.TIMING_WHEEL.newQueue();
+        int now = 0;
+        for (int round = 0; round < 2_000; round++) {
+            int adds = random.nextInt(20);
+            for (int i = 0; i < adds; i++) {
+                ScheduledPayment payment = payment(randomTimestamp(random, now));
+                heap.add(payment);
+                wheel.add(payment);
+            }
+            now += random.nextInt(70_000) - 35_000;
+            assertEquals(poll(heap, now), poll(wheel, now), "Release order at " + now);
+            assertEquals(heap.size(), wheel.size());
+        }
+        assertEquals(poll(heap, Integer.MAX_VALUE), poll(wheel, Integer.MAX_VALUE));
+        assertEquals(0, wheel.size());
+    }
+
+    private int randomTimestamp(Random random, int now) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return now + random.nextInt(256);
+            case 1:
+                return now + random.nextInt(1 << 20) - 1_000;
+            case 2:
+                return (now & ~0xFFFF) + 0x10000 * random.nextInt(3);
+            default:
+                return random.nextInt();
+        }
+    }
+
+    private ScheduledPayment payment(int timestamp) {
+        long sequence = nextSequence++;
+        return new ScheduledPayment(sequence, 0, 0, timestamp, 100, 0.0);
+    }
+
+    private static List<ScheduledPayment> poll(PaymentQueue queue, int timestamp) {
+        List<ScheduledPayment> released = new ArrayList<>();
+        queue.pollDue(timestamp, released::add);
+        return released;
+    }
+}
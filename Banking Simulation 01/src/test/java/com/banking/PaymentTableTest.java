@@ -0,0 +1,88 @@
+package com.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payment Table Test Cases
+ *
+ * Tests the open-addressing payment table and the parsing of payment IDs
+ * back into sequence numbers.
+ */
+@DisplayName("Payment Table")
+class PaymentTableTest {
+
+    @Test
+    @DisplayName("Should keep every payment's columns across resizes")
+    void testInsertAndFind() {
+        PaymentTable table = new PaymentTable();
+        Random random = new Random(2);
+        long[] sequences = new long[50_000];
+        for (int i = 0; i < sequences.length; i++) {
+            // Dense runs with occasional gaps, as restored shards might leave.
+            sequences[i] = (i == 0 ? 0 : sequences[i - 1]) + 1 + (random.nextInt(10) == 0 ? random.nextInt(1000) : 0);
+            long sequence = sequences[i];
+            table.insert(sequence, (int) sequence % 97, (int) sequence % 89, (int) sequence * 3, i,
+                    i / 7.0, PaymentStatus.VALUES[i % 3]);
+        }
+        assertEquals(sequences.length, table.size());
+        for (int i = 0; i < sequences.length; i++) {
+            long sequence = sequences[i];
+            int slot = table.find(sequence);
+            assertNotEquals(PaymentTable.NOT_FOUND, slot);
+            assertEquals(sequence, table.sequences[slot]);
+            assertEquals((int) sequence % 97, table.sources[slot]);
+            assertEquals((int) sequence % 89, table.targets[slot]);
+            assertEquals((int) sequence * 3, table.timestamps[slot]);
+            assertEquals(i, table.amounts[slot]);
+            assertEquals(i / 7.0, table.cashbackPercentages[slot]);
+            assertEquals(PaymentStatus.VALUES[i % 3], table.status(slot));
+        }
+        assertEquals(PaymentTable.NOT_FOUND, table.find(sequences[sequences.length - 1] + 1));
+        assertEquals(PaymentTable.NOT_FOUND, table.find(-5));
+    }
+
+    @Test
+    @DisplayName("Should update a payment's status in place")
+    void testSetStatus() {
+        PaymentTable table = new PaymentTable();
+        int slot = table.insert(7, 1, 2, 100, 50, 2.5, PaymentStatus.SCHEDULED);
+        table.setStatus(slot, PaymentStatus.FAILED);
+        assertEquals(PaymentStatus.FAILED, table.status(table.find(7)));
+    }
+
+    @Test
+    @DisplayName("Should parse only IDs that payment IDs are rendered as")
+    void testParseSequence() {
+        assertEquals(1, PaymentScheduler.parseSequence("payment1"));
+        assertEquals(1234567, PaymentScheduler.parseSequence(PaymentScheduler.paymentId(1234567)));
+        assertEquals(Long.MAX_VALUE, PaymentScheduler.parseSequence(PaymentScheduler.paymentId(Long.MAX_VALUE)));
+
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence(null));
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence("payment"));
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence("payment0"));
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence("payment01"));
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence("payment-1"));
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence("payment+1"));
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence("payment1x"));
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence("Payment1"));
+        assertEquals(PaymentScheduler.NO_PAYMENT, PaymentScheduler.parseSequence("payment9223372036854775808"));
+    }
+
+    @Test
+    @DisplayName("Should report statuses through the scheduler by payment ID")
+    void testSchedulerLookup() {
+        PaymentScheduler scheduler = new PaymentScheduler(SchedulerBackend.HEAP.newQueue());
+        long first = scheduler.schedule(0, 1, 100, 10, 0);
+        long second = scheduler.schedule(1, 0, 200, 10, 0);
+        scheduler.pollDue(150, payment -> scheduler.settle(payment, PaymentStatus.PROCESSED));
+
+        assertEquals(PaymentStatus.PROCESSED, scheduler.table.status(scheduler.find(PaymentScheduler.paymentId(first))));
+        assertEquals(PaymentStatus.SCHEDULED, scheduler.table.status(scheduler.find(PaymentScheduler.paymentId(second))));
+        assertEquals(PaymentTable.NOT_FOUND, scheduler.find("payment3"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.banking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payment Waves Test Cases
+ *
+ * Tests the parallel execution of due payments:
+ * - Payments running at the same time never share an account
+ * - Each account sees its payments in due order, and statuses are settled in due order
+ * - ConcurrentBankingSystem settles payroll bursts exactly like BankingSystemImpl
+ */
+@DisplayName("Payment Waves")
+class PaymentWavesTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should run only disjoint payments together, in due order per account")
+    void testWavesAreDisjointAndOrdered() {
+        Random random = new Random(24);
+        int keys = 20_000;
+        PaymentWaves waves = new PaymentWaves(pool);
+        for (int batch = 0; batch < 3; batch++) {
+            int size = 5_000;
+            for (int i = 0; i < size; i++) {
+                // A few hot keys, like employers paying out a payroll.
+                int source = random.nextInt(20) == 0 ? random.nextInt(5) : random.nextInt(keys);
+                int target = random.nextInt(keys);
+                waves.add(new ScheduledPayment(i, source, target, 1, 1, 0), source, target);
+            }
+            AtomicIntegerArray busy = new AtomicIntegerArray(keys);
+            long[] lastSeen = new long[keys];
+            Arrays.fill(lastSeen, -1);
+            List<Long> settled = new ArrayList<>();
+            AtomicInteger pooled = new AtomicInteger();
+            waves.run((payment, source, target) -> {
+                if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+                    pooled.incrementAndGet();
+                }
+                assertTrue(busy.compareAndSet(source, 0, 1), "key " + source + " shared within a wave");
+                assertTrue(source == target || busy.compareAndSet(target, 0, 1), "key " + target + " shared within a wave");
+                // Writes are guarded by the busy flags and published between waves.
+                assertTrue(lastSeen[source] < payment.sequence);
+                assertTrue(lastSeen[target] < payment.sequence);
+                lastSeen[source] = payment.sequence;
+                lastSeen[target] = payment.sequence;
+                busy.set(target, 0);
+                busy.set(source, 0);
+                return payment.sequence % 3 == 0 ? PaymentStatus.FAILED : PaymentStatus.PROCESSED;
+            }, (payment, status) -> {
+                assertEquals(payment.sequence % 3 == 0 ? PaymentStatus.FAILED : PaymentStatus.PROCESSED, status);
+                settled.add(payment.sequence);
+            });
+            assertTrue(pooled.get() > 0, "no wave ran on the pool");
+            assertEquals(size, settled.size());
+            for (int i = 0; i < size; i++) {
+                assertEquals(i, (long) settled.get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should settle payroll bursts like sequential processing")
+    void testMatchesSequentialProcessing() {
+        BankingSystem sequential = new BankingSystemImpl();
+        BankingSystem parallel = new ConcurrentBankingSystem(SchedulerBackend.HEAP, pool);
+        Random random = new Random(2024);
+        int accounts = 4_000;
+        for (int i = 0; i < accounts; i++) {
+            String id = "acc" + i;
+            sequential.createAccount(id, 0);
+            parallel.createAccount(id, 0);
+            int amount = 1 + random.nextInt(i < 10 ? 200_000 : 2_000);
+            assertEquals(sequential.deposit(id, 0, amount), parallel.deposit(id, 0, amount));
+        }
+
+        List<String> paymentIds = new ArrayList<>();
+        List<String> payers = new ArrayList<>();
+        int timestamp = 1;
+        for (int cutoff = 1; cutoff <= 4; cutoff++) {
+            // Payroll from a few employers or scattered payments, all due at the
+            // cutoff: the first serialize on the employers, the second spread
+            // into wide waves.
+            int due = cutoff * 1_000;
+            int employerShare = cutoff % 2 == 0 ? 2 : 20;
+            for (int i = 0; i < 3_000; i++) {
+                String source = "acc" + (random.nextInt(employerShare) == 0 ? random.nextInt(10) : random.nextInt(accounts));
+                String target = "acc" + random.nextInt(accounts);
+                int amount = 1 + random.nextInt(900);
+                double cashback = random.nextInt(4) * 1.5;
+                int dueAt = due - random.nextInt(3);
+                String paymentId = sequential.schedulePayment(source, target, dueAt, amount, cashback);
+                assertEquals(paymentId, parallel.schedulePayment(source, target, dueAt, amount, cashback));
+                if (paymentId != null) {
+                    paymentIds.add(paymentId);
+                    payers.add(source);
+                }
+            }
+            // Merges between scheduling and processing redirect pending payments.
+            String survivor = "acc" + (10 + random.nextInt(accounts - 10));
+            String merged = "acc" + (10 + random.nextInt(accounts - 10));
+            sequential.mergeAccounts(survivor, merged);
+            parallel.mergeAccounts(survivor, merged);
+
+            timestamp = due;
+            sequential.processScheduledPayments(timestamp);
+            parallel.processScheduledPayments(timestamp);
+
+            for (int i = 0; i < paymentIds.size(); i++) {
+                String payer = payers.get(i);
+                assertEquals(sequential.getPaymentStatus(payer, timestamp, paymentIds.get(i)),
+                        parallel.getPaymentStatus(payer, timestamp, paymentIds.get(i)), paymentIds.get(i));
+            }
+            for (int at : new int[] {timestamp, timestamp - 1, timestamp - 2}) {
+                assertEquals(sequential.topSpenders(at, accounts), parallel.topSpenders(at, accounts));
+            }
+        }
+        for (int i = 0; i < accounts; i++) {
+            String id = "acc" + i;
+            assertEquals(sequential.deposit(id, timestamp, 1), parallel.deposit(id, timestamp, 1), id);
+        }
+    }
+}
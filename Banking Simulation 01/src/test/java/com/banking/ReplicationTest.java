@@ -0,0 +1,236 @@
+package com.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replication Test Cases
+ *
+ * Tests for log shipping from a leader to read-only followers on localhost:
+ * - Followers answer reads, history included, like the leader once caught up
+ * - Followers catch up from the leader's or a local snapshot plus the log after it
+ * - Writes are rejected and reads fail once the staleness bound is exceeded
+ */
+@DisplayName("Replication")
+class ReplicationTest {
+
+    private static final long WAIT_MILLIS = 10_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should answer reads like the leader once caught up")
+    void testFollowerMatchesLeader() throws Exception {
+        try (DurableBankingSystem leader = DurableBankingSystem.open(directory.resolve("bank.wal"), DurabilityMode.NONE);
+             ReplicationLeader shipping = ReplicationLeader.start(leader, 0);
+             ReplicaBankingSystem first = ReplicaBankingSystem.connect("localhost", shipping.port(), 5_000)) {
+            List<String> paymentIds = new ArrayList<>();
+            runWorkload(leader, new Random(5), 1, 3000, paymentIds);
+            // A follower joining late replays the whole log.
+            try (ReplicaBankingSystem second = ReplicaBankingSystem.connect("localhost", shipping.port(), 5_000)) {
+                runWorkload(leader, new Random(6), 3001, 6000, paymentIds);
+
+                long position = leader.logPosition();
+                assertTrue(first.awaitPosition(position, WAIT_MILLIS));
+                assertTrue(second.awaitPosition(position, WAIT_MILLIS));
+                assertSameReads(leader, first, paymentIds);
+                assertSameReads(leader, second, paymentIds);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should catch up from the leader's snapshot and the log after it")
+    void testCatchUpFromLeaderSnapshot() throws Exception {
+        Path snapshot = directory.resolve("bank.snapshot");
+        try (DurableBankingSystem leader = DurableBankingSystem.open(directory.resolve("bank.wal"), DurabilityMode.NONE);
+             ReplicationLeader shipping = ReplicationLeader.start(leader, 0, snapshot)) {
+            List<String> paymentIds = new ArrayList<>();
+            runWorkload(leader, new Random(7), 1, 2000, paymentIds);
+            leader.snapshot(snapshot).join();
+            long snapshotPosition = leader.logPosition();
+            runWorkload(leader, new Random(8), 2001, 4000, paymentIds);
+
+            try (ReplicaBankingSystem replica = ReplicaBankingSystem.connect("localhost", shipping.port(), 5_000)) {
+                assertEquals(snapshotPosition, replica.startPosition);
+                runWorkload(leader, new Random(9), 4001, 5000, paymentIds);
+
+                assertTrue(replica.awaitPosition(leader.logPosition(), WAIT_MILLIS));
+                assertSameReads(leader, replica, paymentIds);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should catch up from a local snapshot and the log after it")
+    void testCatchUpFromLocalSnapshot() throws Exception {
+        Path snapshot = directory.resolve("local.snapshot");
+        try (DurableBankingSystem leader = DurableBankingSystem.open(directory.resolve("bank.wal"), DurabilityMode.NONE);
+             ReplicationLeader shipping = ReplicationLeader.start(leader, 0)) {
+            List<String> paymentIds = new ArrayList<>();
+            runWorkload(leader, new Random(10), 1, 2000, paymentIds);
+            leader.snapshot(snapshot).join();
+            runWorkload(leader, new Random(11), 2001, 4000, paymentIds);
+
+            try (ReplicaBankingSystem replica = ReplicaBankingSystem.connect("localhost", shipping.port(),
+                    snapshot, 5_000)) {
+                assertTrue(replica.startPosition > 0);
+                assertTrue(replica.awaitPosition(leader.logPosition(), WAIT_MILLIS));
+                assertSameReads(leader, replica, paymentIds);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep up with concurrent writers on the leader")
+    void testConcurrentWriters() throws Exception {
+        try (DurableBankingSystem leader = DurableBankingSystem.open(directory.resolve("bank.wal"), DurabilityMode.NONE);
+             ReplicationLeader shipping = ReplicationLeader.start(leader, 0);
+             ReplicaBankingSystem replica = ReplicaBankingSystem.connect("localhost", shipping.port(), 5_000)) {
+            for (int i = 0; i < 8; i++) {
+                leader.createAccount("acc" + i, 0);
+                leader.deposit("acc" + i, 0, 1_000_000);
+            }
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                Thread writer = new Thread(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 2000; i++) {
+                        leader.transfer("acc" + random.nextInt(8), "acc" + random.nextInt(8), 1, 1 + random.nextInt(50));
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            assertTrue(replica.awaitPosition(leader.logPosition(), WAIT_MILLIS));
+            assertEquals(leader.topSpenders(1, 8), replica.topSpenders(1, 8));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject writes and stale reads")
+    void testReadOnlyAndStaleness() throws Exception {
+        try (DurableBankingSystem leader = DurableBankingSystem.open(directory.resolve("bank.wal"), DurabilityMode.NONE)) {
+            ReplicationLeader shipping = ReplicationLeader.start(leader, 0);
+            try (ReplicaBankingSystem replica = ReplicaBankingSystem.connect("localhost", shipping.port(), 300)) {
+                leader.createAccount("acc1", 1);
+                assertTrue(replica.awaitPosition(leader.logPosition(), WAIT_MILLIS));
+
+                assertThrows(UnsupportedOperationException.class, () -> replica.createAccount("acc2", 2));
+                assertThrows(UnsupportedOperationException.class, () -> replica.deposit("acc1", 2, 10));
+                assertThrows(UnsupportedOperationException.class,
+                        () -> replica.depositBatch(new DepositBatch().add("acc1", 2, 10)));
+                // Heartbeats keep an idle follower fresh.
+                Thread.sleep(3 * ReplicationLeader.HEARTBEAT_MILLIS);
+                assertEquals(List.of(), replica.topSpenders(2, 5));
+
+                shipping.close();
+                Thread.sleep(500);
+                assertThrows(IllegalStateException.class, () -> replica.topSpenders(2, 5));
+                assertTrue(replica.stalenessMillis() > 300);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to replay from a position outside the log")
+    void testPositionOutsideLog() throws IOException {
+        try (DurableBankingSystem leader = DurableBankingSystem.open(directory.resolve("bank.wal"), DurabilityMode.NONE);
+             ReplicationLeader shipping = ReplicationLeader.start(leader, 0)) {
+            leader.createAccount("acc1", 1);
+            Path snapshot = directory.resolve("ahead.snapshot");
+            try (DurableBankingSystem ahead = DurableBankingSystem.open(directory.resolve("ahead.wal"), DurabilityMode.NONE)) {
+                for (int i = 0; i < 100; i++) {
+                    ahead.createAccount("acc" + i, i);
+                }
+                ahead.snapshot(snapshot).join();
+            }
+
+            try (ReplicaBankingSystem replica = ReplicaBankingSystem.connect("localhost", shipping.port(),
+                    snapshot, 5_000)) {
+                assertThrows(IllegalStateException.class, () -> replica.topSpenders(1, 5));
+            }
+        }
+    }
+
+    /**
+     * Runs a mixed workload on the leader, collecting scheduled payment IDs.
+     */
+    private static void runWorkload(BankingSystem bank, Random random, int fromTimestamp, int toTimestamp,
+                                    List<String> paymentIds) {
+        for (int timestamp = fromTimestamp; timestamp <= toTimestamp; timestamp++) {
+            String a = "acc" + random.nextInt(40);
+            String b = "acc" + random.nextInt(40);
+            switch (random.nextInt(10)) {
+                case 0:
+                case 1:
+                    bank.createAccount(a, timestamp);
+                    break;
+                case 2:
+                case 3:
+                    bank.deposit(a, timestamp, random.nextInt(500));
+                    break;
+                case 4:
+                case 5:
+                case 6:
+                    bank.transfer(a, b, timestamp, random.nextInt(200));
+                    break;
+                case 7:
+                    String paymentId = bank.schedulePayment(a, b, timestamp + random.nextInt(20), random.nextInt(100), 1.5);
+                    if (paymentId != null) {
+                        paymentIds.add(paymentId);
+                    }
+                    break;
+                case 8:
+                    bank.processScheduledPayments(timestamp);
+                    break;
+                default:
+                    if (random.nextInt(20) == 0) {
+                        bank.mergeAccounts(a, b);
+                    }
+            }
+        }
+    }
+
+    private static List<String> rows(TransactionCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        List<String> rows = new ArrayList<>();
+        while (cursor.next()) {
+            rows.add(cursor.timestamp() + " " + cursor.kind() + " " + cursor.amount() + " " + cursor.counterparty());
+        }
+        return rows;
+    }
+
+    private static void assertSameReads(BankingSystem leader, ReplicaBankingSystem replica, List<String> paymentIds) {
+        for (int timestamp : new int[] {0, 500, 1500, 2500, 3500, 4500, 5500, Integer.MAX_VALUE}) {
+            assertEquals(leader.topSpenders(timestamp, 10), replica.topSpenders(timestamp, 10));
+        }
+        for (int account = 0; account < 40; account++) {
+            assertEquals(rows(leader.history("acc" + account, 0, Integer.MAX_VALUE, TransactionCursor.FIRST_PAGE)),
+                    rows(replica.history("acc" + account, 0, Integer.MAX_VALUE, TransactionCursor.FIRST_PAGE)));
+        }
+        for (String paymentId : paymentIds) {
+            for (int account = 0; account < 40; account++) {
+                assertEquals(leader.getPaymentStatus("acc" + account, 0, paymentId),
+                        replica.getPaymentStatus("acc" + account, 0, paymentId));
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.banking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ring-Buffer Banking System Test Cases
+ *
+ * Tests for:
+ * - Same results as BankingSystemImpl for a random mix of every operation
+ * - Balance conservation with many callers wrapping a small ring
+ * - Failures reported to the calling thread only
+ */
+@DisplayName("Ring-Buffer Banking System")
+class RingBufferBankingSystemTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 10_000;
+
+    private RingBufferBankingSystem bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new RingBufferBankingSystem(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bank.close();
+    }
+
+    @Test
+    @DisplayName("Should match the sequential implementation on a random workload")
+    void testMatchesImpl() {
+        BankingSystem reference = new BankingSystemImpl();
+        Random random = new Random(11);
+        for (int timestamp = 1; timestamp <= 4000; timestamp++) {
+            String a = "acc" + random.nextInt(16);
+            String b = "acc" + random.nextInt(16);
+            int amount = random.nextInt(400) - 20;
+            switch (random.nextInt(9)) {
+                case 0:
+                    assertEquals(reference.createAccount(a, timestamp), bank.createAccount(a, timestamp));
+                    break;
+                case 1:
+                case 2:
+                    assertEquals(reference.tryDeposit(a, timestamp, amount), bank.tryDeposit(a, timestamp, amount));
+                    break;
+                case 3:
+                case 4:
+                    assertEquals(reference.tryTransfer(a, b, timestamp, amount), bank.tryTransfer(a, b, timestamp, amount));
+                    break;
+                case 5:
+                    String paymentId = reference.schedulePayment(a, b, timestamp + 20, amount, 5);
+                    assertEquals(paymentId, bank.schedulePayment(a, b, timestamp + 20, amount, 5));
+                    break;
+                case 6:
+                    reference.processScheduledPayments(timestamp);
+                    bank.processScheduledPayments(timestamp);
+                    String payment = PaymentScheduler.paymentId(1 + random.nextInt(50));
+                    assertEquals(reference.getPaymentStatus(a, timestamp, payment),
+                            bank.getPaymentStatus(a, timestamp, payment));
+                    break;
+                case 7:
+                    if (random.nextInt(8) == 0) {
+                        reference.mergeAccounts(a, b);
+                        bank.mergeAccounts(a, b);
+                    }
+                    break;
+                default:
+                    int at = timestamp - random.nextInt(500);
+                    assertEquals(reference.topSpenders(at, 5), bank.topSpenders(at, 5));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should conserve total balance with many callers on a small ring")
+    void testConcurrentTransfersConserveBalance() throws Exception {
+        int accounts = 16;
+        for (int i = 0; i < accounts; i++) {
+            bank.createAccount("acc" + i, 1000);
+            bank.deposit("acc" + i, 1000, 1_000);
+        }
+        long before = bank.commandsApplied();
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                String from = "acc" + random.nextInt(accounts);
+                String to = "acc" + random.nextInt(accounts);
+                bank.transfer(from, to, 2000, 1 + random.nextInt(50));
+            }
+        });
+
+        assertEquals(before + (long) THREADS * OPERATIONS_PER_THREAD, bank.commandsApplied());
+        assertTrue(bank.batchesApplied() <= bank.commandsApplied());
+        long total = 0;
+        for (int i = 0; i < accounts; i++) {
+            int balance = bank.deposit("acc" + i, 3000, 1).get() - 1;
+            assertTrue(balance >= 0, "Balance should never go negative");
+            total += balance;
+        }
+        assertEquals(accounts * 1_000L, total, "Transfers should neither create nor destroy money");
+    }
+
+    @Test
+    @DisplayName("Should rethrow a failing command to its caller and keep running")
+    void testFailingCommand() {
+        bank.createAccount("acc1", 1000);
+
+        assertThrows(NullPointerException.class, () -> bank.mergeAccounts(null, "acc1"));
+
+        assertEquals(100, bank.deposit("acc1", 1100, 100).get());
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
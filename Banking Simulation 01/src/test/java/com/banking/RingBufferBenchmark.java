@@ -0,0 +1,97 @@
+package com.banking;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Ring-Buffer Benchmark
+ *
+ * Measures the throughput of a mixed deposit/transfer workload over a set of
+ * accounts, comparing the lock-based ConcurrentBankingSystem with the
+ * single-writer RingBufferBankingSystem at increasing thread counts. Also
+ * reports the ring's average batch size, which grows with the number of
+ * callers.
+ *
+ * Not run by the test suite. Run with:
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes com.banking.RingBufferBenchmark [maxThreads] [accounts]
+ */
+public class RingBufferBenchmark {
+
+    private static final int OPERATIONS_PER_RUN = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        String[] ids = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = "acc" + i;
+        }
+        System.out.printf("%-12s %8s %16s %10s%n", "system", "threads", "ops/s", "batch");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            best("concurrent", ConcurrentBankingSystem::new, ids, threads);
+            best("ring", RingBufferBankingSystem::new, ids, threads);
+        }
+    }
+
+    private static void best(String name, Supplier<BankingSystem> factory, String[] ids, int threads)
+            throws Exception {
+        double best = 0;
+        double batch = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            BankingSystem bank = factory.get();
+            for (String id : ids) {
+                bank.createAccount(id, 0);
+                bank.deposit(id, 0, Integer.MAX_VALUE / 2);
+            }
+            best = Math.max(best, run(bank, ids, threads));
+            if (bank instanceof RingBufferBankingSystem) {
+                RingBufferBankingSystem ring = (RingBufferBankingSystem) bank;
+                batch = (double) ring.commandsApplied() / ring.batchesApplied();
+            }
+            if (bank instanceof Closeable) {
+                ((Closeable) bank).close();
+            }
+        }
+        System.out.printf("%-12s %8d %,16.0f %10s%n", name, threads, best,
+                batch > 0 ? String.format("%.1f", batch) : "-");
+    }
+
+    private static double run(BankingSystem bank, String[] ids, int threads) throws InterruptedException {
+        int perThread = OPERATIONS_PER_RUN / threads;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < perThread; j++) {
+                    String from = ids[random.nextInt(ids.length)];
+                    if ((j & 3) == 0) {
+                        bank.tryDeposit(from, 1, 1);
+                    } else {
+                        bank.tryTransfer(from, ids[random.nextInt(ids.length)], 1, 1);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        return (double) perThread * threads * 1_000_000_000L / elapsed;
+    }
+}
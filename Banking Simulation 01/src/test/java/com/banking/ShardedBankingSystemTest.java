@@ -0,0 +1,193 @@
+package com.banking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sharded Banking System Test Cases
+ *
+ * Tests for:
+ * - Same results as BankingSystemImpl for a random mix of every operation
+ * - Released reservations when a cross-shard target is missing
+ * - Merges and payments across shards
+ * - No overdraft and balance conservation under concurrent cross-shard transfers
+ */
+@DisplayName("Sharded Banking System")
+class ShardedBankingSystemTest {
+
+    private static final int SHARDS = 4;
+    private static final int THREADS = 4;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+
+    private ShardedBankingSystem bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new ShardedBankingSystem(SHARDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bank.close();
+    }
+
+    @Test
+    @DisplayName("Should match the single-shard implementation on a random workload")
+    void testMatchesImpl() {
+        BankingSystem reference = new BankingSystemImpl();
+        Random random = new Random(7);
+        List<String> paymentIds = new ArrayList<>();
+        for (int timestamp = 1; timestamp <= 4000; timestamp++) {
+            String a = "acc" + random.nextInt(24);
+            String b = "acc" + random.nextInt(24);
+            int amount = random.nextInt(400) - 20;
+            switch (random.nextInt(10)) {
+                case 0:
+                    assertEquals(reference.createAccount(a, timestamp), bank.createAccount(a, timestamp));
+                    break;
+                case 1:
+                case 2:
+                    assertEquals(reference.tryDeposit(a, timestamp, amount), bank.tryDeposit(a, timestamp, amount));
+                    break;
+                case 3:
+                case 4:
+                case 5:
+                    assertEquals(reference.tryTransfer(a, b, timestamp, amount), bank.tryTransfer(a, b, timestamp, amount));
+                    break;
+                case 6:
+                    int due = timestamp + random.nextInt(50);
+                    String paymentId = reference.schedulePayment(a, b, due, amount, 5);
+                    assertEquals(paymentId, bank.schedulePayment(a, b, due, amount, 5));
+                    if (paymentId != null) {
+                        paymentIds.add(paymentId);
+                    }
+                    break;
+                case 7:
+                    reference.processScheduledPayments(timestamp);
+                    bank.processScheduledPayments(timestamp);
+                    break;
+                case 8:
+                    if (random.nextInt(8) == 0) {
+                        reference.mergeAccounts(a, b);
+                        bank.mergeAccounts(a, b);
+                    }
+                    break;
+                default:
+                    int at = timestamp - random.nextInt(500);
+                    assertEquals(reference.topSpenders(at, 5), bank.topSpenders(at, 5));
+            }
+        }
+        for (String paymentId : paymentIds) {
+            for (int i = 0; i < 24; i++) {
+                assertEquals(reference.getPaymentStatus("acc" + i, 5000, paymentId),
+                        bank.getPaymentStatus("acc" + i, 5000, paymentId));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should release the reservation when the target is missing")
+    void testMissingTargetReleases() {
+        for (int i = 0; i < 8; i++) {
+            bank.createAccount("acc" + i, 1000);
+            bank.deposit("acc" + i, 1000, 100);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(OperationStatus.MISSING_ACCOUNT, bank.tryTransfer("acc" + i, "missing" + i, 1100, 50));
+            assertEquals(OperationStatus.INSUFFICIENT_FUNDS, bank.tryTransfer("acc" + i, "acc" + (7 - i), 1100, 500));
+            assertEquals(101, bank.deposit("acc" + i, 1200, 1).get());
+        }
+        assertTrue(bank.topSpenders(1200, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should move funds, spend and payments in a merge across shards")
+    void testMergeAcrossShards() {
+        for (int i = 0; i < 8; i++) {
+            bank.createAccount("acc" + i, 1000);
+            bank.deposit("acc" + i, 1000, 1000);
+        }
+        bank.transfer("acc1", "acc0", 1100, 100);
+        bank.transfer("acc2", "acc0", 1200, 200);
+        String payment = bank.schedulePayment("acc2", "acc0", 1500, 50, 10);
+        assertNotEquals(bank.shardIndex("acc1"), bank.shardIndex("acc2"));
+
+        bank.mergeAccounts("acc1", "acc2");
+
+        assertFalse(bank.deposit("acc2", 1300, 10).isPresent());
+        assertEquals(List.of("acc1(300)"), bank.topSpenders(1300, 1));
+        assertEquals(List.of("acc1(100)"), bank.topSpenders(1150, 1));
+        assertNull(bank.getPaymentStatus("acc2", 1300, payment));
+        assertEquals("SCHEDULED", bank.getPaymentStatus("acc1", 1300, payment));
+
+        bank.processScheduledPayments(1500);
+
+        assertEquals("PROCESSED", bank.getPaymentStatus("acc1", 1500, payment));
+        assertEquals(1656, bank.deposit("acc1", 1600, 1).get());
+        assertEquals(List.of("acc1(350)"), bank.topSpenders(1600, 1));
+        assertTrue(bank.createAccount("acc2", 1700));
+    }
+
+    @Test
+    @DisplayName("Should never overdraw or lose money under concurrent cross-shard transfers")
+    void testConcurrentTransfersConserveBalance() throws Exception {
+        int accounts = 16;
+        for (int i = 0; i < accounts; i++) {
+            bank.createAccount("acc" + i, 1000);
+            bank.deposit("acc" + i, 1000, 1_000);
+        }
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                String from = "acc" + random.nextInt(accounts);
+                String to = "acc" + random.nextInt(accounts);
+                int balance = bank.tryTransfer(from, to, 2000, 1 + random.nextInt(200));
+                assertTrue(balance >= 0 || balance == OperationStatus.INSUFFICIENT_FUNDS);
+            }
+        });
+
+        long total = 0;
+        for (int i = 0; i < accounts; i++) {
+            int balance = bank.deposit("acc" + i, 3000, 1).get() - 1;
+            assertTrue(balance >= 0, "Balance should never go negative");
+            total += balance;
+        }
+        assertEquals(accounts * 1_000L, total, "Transfers should neither create nor destroy money");
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
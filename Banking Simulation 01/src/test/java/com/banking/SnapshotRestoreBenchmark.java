@@ -0,0 +1,59 @@
+package com.banking;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Snapshot Restore Benchmark
+ *
+ * Builds a BankingSystemImpl with many accounts, each with a deposit and an
+ * outgoing transfer, then measures how long a snapshot takes to capture
+ * (the pause seen by writers) and to write, and how long restoring it takes
+ * once the original has been released.
+ *
+ * Not run by the test suite. Run with:
+ *   mvn test-compile
+ *   java -Xmx5g -cp target/classes:target/test-classes com.banking.SnapshotRestoreBenchmark [accounts] [directory]
+ */
+public class SnapshotRestoreBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("snapshot-benchmark");
+        Path file = directory.resolve("bank.snapshot");
+
+        BankingSystemImpl bank = new BankingSystemImpl();
+        for (int i = 0; i < accounts; i++) {
+            int handle = bank.accounts.create("account" + i, i);
+            bank.depositByHandle(handle, i, 1_000);
+        }
+        for (int i = 1; i < accounts; i++) {
+            bank.transferByHandle(i, i - 1, accounts + i, i % 500 + 1);
+        }
+        System.out.printf("%,d accounts, %,d journal entries%n", accounts, bank.journal.size);
+
+        long begin = System.nanoTime();
+        BankingSnapshot snapshot = BankingSnapshot.capture(bank, 0);
+        long captured = System.nanoTime();
+        snapshot.writeTo(file);
+        long written = System.nanoTime();
+        System.out.printf("capture %6d ms   write %6d ms   (%,d MB)%n", (captured - begin) / 1_000_000,
+                (written - captured) / 1_000_000, Files.size(file) >> 20);
+        // Release the original so only one restored copy is live at a time.
+        snapshot = null;
+        bank = null;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            BankingSnapshot.Restored restored = BankingSnapshot.restore(file, SchedulerBackend.HEAP);
+            long loaded = System.nanoTime();
+            if (restored.system.accounts.count != accounts) {
+                throw new AssertionError("Restored " + restored.system.accounts.count + " accounts");
+            }
+            System.out.printf("restore %6d ms%n", (loaded - start) / 1_000_000);
+        }
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,72 @@
+package com.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Top Selection Test Cases
+ *
+ * Tests the bounded top-n selection behind the historical rankings against
+ * a full sort, for n small enough to keep a bounded heap and large enough to
+ * collect and sort everything.
+ */
+@DisplayName("Top Selection")
+class TopSelectionTest {
+
+    @Test
+    @DisplayName("Should select the same entries as a full sort")
+    void testMatchesFullSort() {
+        Random random = new Random(23);
+        int candidates = 5000;
+        String[] ids = new String[candidates];
+        long[] totals = new long[candidates];
+        for (int i = 0; i < candidates; i++) {
+            ids[i] = "acc" + random.nextInt(1_000_000) + "_" + i;
+            // Few distinct totals, so ties are common, and some non-spenders.
+            totals[i] = random.nextInt(40) - 5;
+        }
+        List<Integer> sorted = new ArrayList<>();
+        for (int i = 0; i < candidates; i++) {
+            if (totals[i] > 0) {
+                sorted.add(i);
+            }
+        }
+        sorted.sort(Comparator.comparingLong((Integer i) -> totals[i]).reversed().thenComparing(i -> ids[i]));
+
+        for (int n : new int[] {1, 3, 10, 100, 1249, 1250, 4000, candidates, 2 * candidates}) {
+            TopSelection top = new TopSelection(n, candidates, (a, b) -> ids[a].compareTo(ids[b]));
+            for (int i = 0; i < candidates; i++) {
+                top.offer(i, totals[i]);
+            }
+            int size = top.finish();
+            assertEquals(Math.min(n, sorted.size()), size, "n = " + n);
+            for (int i = 0; i < size; i++) {
+                assertEquals((int) sorted.get(i), top.handle(i), "n = " + n + ", rank " + i);
+                assertEquals(totals[sorted.get(i)], top.total(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should compare IDs only between equal totals")
+    void testIdsOnlyOnTies() {
+        int[] comparisons = new int[1];
+        TopSelection top = new TopSelection(10, 100_000, (a, b) -> {
+            comparisons[0]++;
+            return Integer.compare(a, b);
+        });
+        for (int i = 0; i < 100_000; i++) {
+            top.offer(i, i + 1);
+        }
+        assertEquals(10, top.finish());
+        assertEquals(100_000, top.total(0));
+        assertEquals(0, comparisons[0]);
+    }
+}
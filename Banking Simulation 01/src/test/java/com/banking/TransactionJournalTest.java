@@ -0,0 +1,69 @@
+package com.banking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transaction Journal Test Cases
+ *
+ * Tests for the columnar journal behind BankingSystemImpl:
+ * - One entry per transfer, indexed on both accounts
+ * - Failed operations leave no entry
+ * - Merged accounts keep their entries in journal order
+ */
+@DisplayName("Transaction Journal")
+class TransactionJournalTest {
+
+    private BankingSystemImpl bank;
+
+    @BeforeEach
+    void setUp() {
+        bank = new BankingSystemImpl();
+    }
+
+    @Test
+    @DisplayName("Should record a transfer once and index it on both accounts")
+    void testTransferSharedEntry() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        int acc1 = bank.accountHandle("acc1");
+        int acc2 = bank.accountHandle("acc2");
+        bank.deposit("acc1", 1100, 500);
+        bank.transfer("acc1", "acc2", 1200, 200);
+        bank.transfer("acc1", "acc2", 1300, 900);
+
+        TransactionJournal journal = bank.journal;
+        assertEquals(2, journal.size);
+        assertEquals(TransactionJournal.TRANSFER, journal.kinds[1]);
+        assertEquals(acc1, journal.fromHandles[1]);
+        assertEquals(acc2, journal.toHandles[1]);
+        assertEquals(200, journal.amounts[1]);
+        assertEquals(1200, journal.timestamps[1]);
+        assertEquals(2, bank.accounts.entryCounts[acc1]);
+        assertEquals(1, bank.accounts.entryCounts[acc2]);
+        assertEquals(1, bank.accounts.entries[acc2][0]);
+    }
+
+    @Test
+    @DisplayName("Should keep merged entries in journal order")
+    void testMergeKeepsOrder() {
+        bank.createAccount("acc1", 1000);
+        bank.createAccount("acc2", 1000);
+        int acc1 = bank.accountHandle("acc1");
+        bank.deposit("acc2", 1100, 10);
+        bank.deposit("acc1", 1200, 20);
+        bank.deposit("acc2", 1300, 30);
+        bank.deposit("acc1", 1400, 40);
+
+        bank.mergeAccounts("acc1", "acc2");
+
+        int[] entries = bank.accounts.entriesOf(acc1);
+        assertEquals(4, entries.length);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, entries[i]);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.banking;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Workload Benchmark
+ *
+ * Generates a seeded workload trace to a file, or replays one against an
+ * engine at full speed or at a target rate and prints the report. Generating
+ * once and replaying the same file against each engine compares them on
+ * identical traffic.
+ *
+ * Not run by the test suite. Run with:
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes com.banking.WorkloadBenchmark \
+ *       generate trace.bin [accounts] [operations] [zipfExponent] [seed]
+ *   java -cp target/classes:target/test-classes com.banking.WorkloadBenchmark \
+ *       replay trace.bin impl|concurrent|offheap [operationsPerSecond]
+ */
+public class WorkloadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: generate|replay <trace file> [options]");
+        }
+        Path file = Paths.get(args[1]);
+        switch (args[0]) {
+            case "generate":
+                generate(file, args);
+                break;
+            case "replay":
+                replay(file, args);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + args[0] + "; use generate or replay");
+        }
+    }
+
+    private static void generate(Path file, String[] args) throws Exception {
+        WorkloadSpec spec = new WorkloadSpec()
+                .accounts(args.length > 2 ? Integer.parseInt(args[2]) : 100_000)
+                .operations(args.length > 3 ? Integer.parseInt(args[3]) : 5_000_000)
+                .zipfExponent(args.length > 4 ? Double.parseDouble(args[4]) : 1.0)
+                .seed(args.length > 5 ? Long.parseLong(args[5]) : 1);
+        long start = System.nanoTime();
+        WorkloadTrace trace = WorkloadGenerator.generate(spec);
+        trace.write(file);
+        System.out.printf("%,d records (%,d setup) over %,d accounts written to %s: %,d bytes in %,d ms%n",
+                trace.size(), trace.setupSize(), trace.accounts(), file, Files.size(file),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void replay(Path file, String[] args) throws Exception {
+        String engine = args.length > 2 ? args[2] : "impl";
+        long rate = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        BankingSystem bank;
+        switch (engine) {
+            case "impl":
+                bank = new BankingSystemImpl();
+                break;
+            case "concurrent":
+                bank = new ConcurrentBankingSystem();
+                break;
+            case "offheap":
+                bank = new OffHeapBankingSystem();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine + "; use impl, concurrent or offheap");
+        }
+        WorkloadTrace trace = WorkloadTrace.read(file);
+        System.out.println(engine + ": " + WorkloadReplay.replay(trace, bank, rate));
+    }
+}
@@ -0,0 +1,154 @@
+package com.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Workload Test Cases
+ *
+ * Tests the workload generator, trace format and replay:
+ * - A seed always generates the same trace, and traces survive a round trip
+ * - Account popularity follows the Zipf exponent, and payroll bursts fall due together
+ * - Replays report every operation and drive engines to the same state
+ * - Paced replays hold the target rate
+ */
+@DisplayName("Workload")
+class WorkloadTest {
+
+    private static WorkloadSpec spec() {
+        return new WorkloadSpec().accounts(2_000).operations(50_000).bursts(10_000, 500);
+    }
+
+    private static byte[] bytes(WorkloadTrace trace) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.write(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Should generate the same trace from the same seed and read it back intact")
+    void testDeterministicRoundTrip() throws IOException {
+        WorkloadTrace trace = WorkloadGenerator.generate(spec().seed(42));
+        byte[] encoded = bytes(trace);
+        assertArrayEquals(encoded, bytes(WorkloadGenerator.generate(spec().seed(42))));
+        assertFalse(Arrays.equals(encoded, bytes(WorkloadGenerator.generate(spec().seed(43)))));
+
+        WorkloadTrace read = WorkloadTrace.read(new ByteArrayInputStream(encoded));
+        assertEquals(trace.size(), read.size());
+        assertEquals(trace.setupSize(), read.setupSize());
+        assertEquals(trace.accounts(), read.accounts());
+        for (int i = 0; i < trace.size(); i++) {
+            assertEquals(trace.opcodes[i], read.opcodes[i]);
+            assertEquals(trace.timestamps[i], read.timestamps[i]);
+            assertEquals(trace.firsts[i], read.firsts[i]);
+            assertEquals(trace.seconds[i], read.seconds[i]);
+            assertEquals(trace.amounts[i], read.amounts[i]);
+            assertEquals(trace.arguments[i], read.arguments[i]);
+        }
+        // Compact: a handful of bytes per record.
+        assertTrue(encoded.length < trace.size() * 8, encoded.length + " bytes");
+
+        encoded[0] ^= 1;
+        assertThrows(IOException.class, () -> WorkloadTrace.read(new ByteArrayInputStream(encoded)));
+    }
+
+    @Test
+    @DisplayName("Should skew account popularity by the Zipf exponent")
+    void testZipfSkew() {
+        int accounts = 10_000;
+        for (double exponent : new double[] {0, 1.0}) {
+            WorkloadTrace trace = WorkloadGenerator.generate(new WorkloadSpec().accounts(accounts)
+                    .operations(200_000).zipfExponent(exponent).bursts(0, 0));
+            int[] counts = new int[accounts];
+            int deposits = 0;
+            for (int i = trace.setupSize(); i < trace.size(); i++) {
+                if (trace.opcodes[i] == BankingProtocol.DEPOSIT) {
+                    counts[trace.firsts[i]]++;
+                    deposits++;
+                }
+            }
+            int hottest = Arrays.stream(counts).max().getAsInt();
+            if (exponent == 0) {
+                assertTrue(hottest < deposits / 500, "uniform, hottest " + hottest + " of " + deposits);
+            } else {
+                // The top account of Zipf(1) over 10,000 ranks draws about 1/H(10,000), a tenth.
+                assertTrue(hottest > deposits / 15, "Zipf, hottest " + hottest + " of " + deposits);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should schedule each payroll burst due at one cutoff and process it there")
+    void testPayrollBursts() {
+        WorkloadTrace trace = WorkloadGenerator.generate(spec().weight(BankingOperation.SCHEDULE_PAYMENT, 0));
+        int bursts = 0;
+        for (int i = trace.setupSize(); i < trace.size(); i++) {
+            if (trace.opcodes[i] != BankingProtocol.SCHEDULE_PAYMENT) {
+                continue;
+            }
+            int cutoff = trace.timestamps[i];
+            for (int k = 0; k < 500; k++) {
+                assertEquals(BankingProtocol.SCHEDULE_PAYMENT, trace.opcodes[i + k]);
+                assertEquals(cutoff, trace.timestamps[i + k]);
+            }
+            assertEquals(BankingProtocol.PROCESS_SCHEDULED_PAYMENTS, trace.opcodes[i + 500]);
+            assertEquals(cutoff, trace.timestamps[i + 500]);
+            bursts++;
+            i += 500;
+        }
+        assertEquals(4, bursts);
+    }
+
+    @Test
+    @DisplayName("Should report every operation and leave every engine in the same state")
+    void testReplayMatchesAcrossEngines() {
+        WorkloadTrace trace = WorkloadGenerator.generate(spec());
+        int[] expectedCalls = new int[BankingOperation.values().length];
+        for (int i = trace.setupSize(); i < trace.size(); i++) {
+            expectedCalls[WorkloadReplay.operation(trace.opcodes[i]).ordinal()]++;
+        }
+
+        BankingSystem[] engines = {new BankingSystemImpl(), new ConcurrentBankingSystem(), new OffHeapBankingSystem()};
+        WorkloadReport[] reports = new WorkloadReport[engines.length];
+        for (int e = 0; e < engines.length; e++) {
+            reports[e] = WorkloadReplay.replay(trace, engines[e]);
+            assertEquals(trace.size() - trace.setupSize(), reports[e].getOperations());
+            for (BankingOperation operation : BankingOperation.values()) {
+                assertEquals(expectedCalls[operation.ordinal()], reports[e].metrics(operation).getCalls());
+            }
+        }
+        assertTrue(reports[0].metrics(BankingOperation.TRANSFER).getInsufficientFundsFailures() > 0);
+        for (int e = 1; e < engines.length; e++) {
+            for (BankingOperation operation : BankingOperation.values()) {
+                assertEquals(reports[0].metrics(operation).getFailures(), reports[e].metrics(operation).getFailures(),
+                        operation.name());
+            }
+            assertEquals(engines[0].topSpenders(Integer.MAX_VALUE, 100), engines[e].topSpenders(Integer.MAX_VALUE, 100));
+        }
+        for (int account = 0; account < trace.accounts(); account++) {
+            int balance = engines[0].tryDeposit("acc" + account, Integer.MAX_VALUE, 1);
+            for (int e = 1; e < engines.length; e++) {
+                assertEquals(balance, engines[e].tryDeposit("acc" + account, Integer.MAX_VALUE, 1), "acc" + account);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should hold a paced replay to the target rate")
+    void testPacedReplay() {
+        WorkloadTrace trace = WorkloadGenerator.generate(new WorkloadSpec().accounts(100).operations(2_000).bursts(0, 0));
+        WorkloadReport report = WorkloadReplay.replay(trace, new BankingSystemImpl(), 20_000);
+        // 2,000 operations at 20,000 per second cannot finish before 100 ms.
+        assertTrue(report.getElapsedNanos() >= 99_000_000L, report.toString());
+        assertTrue(report.getThroughput() <= 20_500, report.toString());
+        assertEquals(20_000, report.getTargetRate());
+        assertTrue(report.toString().contains(String.format("target %,d ops/s", 20_000)), report.toString());
+    }
+}